@@ -0,0 +1,70 @@
+package com.apicatalog.did.key.benchmark;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.multicodec.Multicodec;
+
+/**
+ * Measures {@code did:key} parsing and minting.
+ *
+ * <ul>
+ * <li>{@link #ofUri()} - {@link DidKey#of(URI, com.apicatalog.multicodec.MulticodecDecoder)}</li>
+ * <li>{@link #parse()} - {@link DidKey#parse(CharSequence, com.apicatalog.multicodec.MulticodecDecoder)}</li>
+ * <li>{@link #ofBytes()} - {@link DidKey#of(byte[], Multicodec)}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DidKeyBenchmark {
+
+    @Param({ "Ed25519", "P-256", "P-384", "secp256k1", "Bls12381G1", "Bls12381G2" })
+    String keyType;
+
+    URI uri;
+    String string;
+    byte[] rawKey;
+    Multicodec codec;
+
+    @Setup
+    public void setup() {
+        uri = KeyVectors.uri(keyType);
+        string = KeyVectors.get(keyType);
+
+        final DidKey didKey = KeyVectors.didKey(keyType);
+        rawKey = didKey.decoded();
+        codec = didKey.codec();
+    }
+
+    @Benchmark
+    public DidKey ofUri() {
+        return DidKey.of(uri, KeyVectors.CODECS);
+    }
+
+    @Benchmark
+    public DidKey parse() {
+        return DidKey.parse(string, KeyVectors.CODECS);
+    }
+
+    @Benchmark
+    public DidKey ofBytes() {
+        return DidKey.of(rawKey, codec);
+    }
+}
@@ -0,0 +1,70 @@
+package com.apicatalog.did.key.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.key.DidKeyResolver;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+
+/**
+ * Measures {@link DidKeyResolver#resolve(Did)} for Multikey-only, JWK-only and
+ * multi-provider resolvers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DidKeyResolverBenchmark {
+
+    @Param({ "Ed25519", "P-256", "P-384", "secp256k1", "Bls12381G1", "Bls12381G2" })
+    String keyType;
+
+    @Param({ "multikey", "jwk", "multikey+jwk" })
+    String methods;
+
+    DidKeyResolver resolver;
+    Did did;
+
+    @Setup
+    public void setup() {
+        did = Did.of(KeyVectors.uri(keyType));
+
+        final DidKeyResolver.Builder builder = DidKeyResolver.with(KeyVectors.CODECS);
+
+        switch (methods) {
+        case "multikey":
+            builder.multikey();
+            break;
+        case "jwk":
+            builder.jwk();
+            break;
+        case "multikey+jwk":
+            builder.multikey().jwk();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown methods [" + methods + "].");
+        }
+
+        resolver = builder.build();
+    }
+
+    @Benchmark
+    public ResolvedDidDocument resolve() throws DidResolutionException {
+        return resolver.resolve(did);
+    }
+}
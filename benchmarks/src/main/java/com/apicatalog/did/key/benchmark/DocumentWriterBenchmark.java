@@ -0,0 +1,50 @@
+package com.apicatalog.did.key.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.apicatalog.did.key.DidKeyDocumentWriter;
+import com.apicatalog.did.key.DidKeyResolver;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+
+/**
+ * Measures serialization of a resolved Multikey and JWK document into a reused
+ * {@link DidKeyDocumentWriter}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DocumentWriterBenchmark {
+
+    @Param({ "Ed25519", "P-256", "P-384" })
+    String keyType;
+
+    ResolvedDidDocument document;
+    DidKeyDocumentWriter writer;
+
+    @Setup
+    public void setup() throws DidResolutionException {
+        document = DidKeyResolver.with(KeyVectors.CODECS).multikey().jwk().build().resolve(KeyVectors.uri(keyType));
+        writer = DidKeyDocumentWriter.create();
+    }
+
+    @Benchmark
+    public int write() {
+        return writer.reset().write(document).size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.apicatalog.did.key.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.did.key.jwk.DidKeyJwkConverter;
+import com.apicatalog.did.key.jwk.DidKeyJwkMethodProvider;
+import com.apicatalog.did.key.jwk.JwkProvider;
+
+/**
+ * Measures JWK generation per curve, i.e. EC point decompression via
+ * {@link DidKeyJwkMethodProvider#getECJwk(String, String, DidKey, int)} and
+ * plain OKP encoding via
+ * {@link DidKeyJwkMethodProvider#getJwk(String, DidKey)}, and the inverse
+ * conversion via {@link DidKeyJwkConverter#of(Map)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwkBenchmark {
+
+    @Param({ "Ed25519", "P-256", "P-384", "secp256k1", "Bls12381G1", "Bls12381G2" })
+    String keyType;
+
+    DidKey didKey;
+    JwkProvider provider;
+    Map<String, Object> jwk;
+
+    @Setup
+    public void setup() {
+        didKey = KeyVectors.didKey(keyType);
+
+        switch (keyType) {
+        case "P-256":
+            provider = key -> DidKeyJwkMethodProvider.getECJwk("P-256", "secp256r1", key, 32);
+            break;
+        case "P-384":
+            provider = key -> DidKeyJwkMethodProvider.getECJwk("P-384", "secp384r1", key, 48);
+            break;
+        case "secp256k1":
+            provider = key -> DidKeyJwkMethodProvider.getECJwk("secp256k1", "secp256k1", key, 32);
+            break;
+        default:
+            provider = key -> DidKeyJwkMethodProvider.getJwk(keyType, key);
+        }
+
+        jwk = provider.get(didKey);
+    }
+
+    @Benchmark
+    public Map<String, Object> jwk() {
+        return provider.get(didKey);
+    }
+
+    @Benchmark
+    public String didKey() {
+        return DidKeyJwkConverter.of(jwk).toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.apicatalog.did.key.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.did.key.DidKeyX25519Derivation;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+/**
+ * Measures {@link DidKeyX25519Derivation} deriving {@code X25519} keys one by
+ * one and in batches, without memoization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class KeyAgreementBenchmark {
+
+    @Param({ "1", "16", "256" })
+    int batchSize;
+
+    List<DidKey> keys;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(25519);
+
+        keys = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            final byte[] y = new byte[32];
+            random.nextBytes(y);
+            keys.add(DidKey.of(y, KeyCodec.ED25519_PUBLIC_KEY));
+        }
+    }
+
+    @Benchmark
+    public DidKey derive() {
+        DidKey last = null;
+        for (final DidKey key : keys) {
+            last = DidKeyX25519Derivation.getInstance().derive(key);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<DidKey> deriveAll() {
+        return DidKeyX25519Derivation.getInstance().deriveAll(keys);
+    }
+}
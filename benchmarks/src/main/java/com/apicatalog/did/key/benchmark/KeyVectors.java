@@ -0,0 +1,57 @@
+package com.apicatalog.did.key.benchmark;
+
+import java.net.URI;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+/**
+ * Sample {@code did:key} identifiers, one per supported key type, shared by
+ * all benchmarks.
+ */
+final class KeyVectors {
+
+    static final MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final String ED25519 = "did:key:z6MkpTHR8VNsBxYAAWHut2Geadd9jSwuBV8xRoAnwWsdvktH";
+    static final String P256 = "did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169";
+    static final String P384 = "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9";
+    static final String SECP256K1 = "did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme";
+    static final String BLS12_381_G1 = "did:key:z3tEFS9q2WkwvvVvr1BrYwNreqcudmcCQGGRSQ8r73recEqAUHGeLPWzwK6toBdKJgX3Fs";
+    static final String BLS12_381_G2 = "did:key:zUC7K4ndUaGZgV7Cp2yJy6JtMoUHY6u7tkcSYUvPrEidqBmLCTLmi6d5WvwnUqejscAkERJ3bfjEiSYtdPkRSE8kSa11hFBr4sTgnbZ95SJj19PN2jdvJjyzpSZgxkyyxNnBNnY";
+
+    private KeyVectors() {
+    }
+
+    /**
+     * Returns the sample identifier for the given key type name as used in
+     * {@code @Param} values.
+     */
+    static String get(String keyType) {
+        switch (keyType) {
+        case "Ed25519":
+            return ED25519;
+        case "P-256":
+            return P256;
+        case "P-384":
+            return P384;
+        case "secp256k1":
+            return SECP256K1;
+        case "Bls12381G1":
+            return BLS12_381_G1;
+        case "Bls12381G2":
+            return BLS12_381_G2;
+        default:
+            throw new IllegalArgumentException("Unknown key type [" + keyType + "].");
+        }
+    }
+
+    static URI uri(String keyType) {
+        return URI.create(get(keyType));
+    }
+
+    static DidKey didKey(String keyType) {
+        return DidKey.of(uri(keyType), CODECS);
+    }
+}
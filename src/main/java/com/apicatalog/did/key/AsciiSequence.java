@@ -0,0 +1,46 @@
+package com.apicatalog.did.key;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A read-only view of ASCII encoded characters. A byte is read as a character,
+ * {@link #toString()} decodes the bytes as UTF-8, i.e. a non-ASCII input
+ * reported as a string, e.g. in an error message, is not garbled.
+ */
+final class AsciiSequence implements CharSequence {
+
+    final ByteBuffer buffer;
+    final int offset;
+    final int length;
+
+    AsciiSequence(final ByteBuffer buffer, final int offset, final int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        return new AsciiSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
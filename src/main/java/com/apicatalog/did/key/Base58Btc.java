@@ -0,0 +1,221 @@
+package com.apicatalog.did.key;
+
+import java.util.Arrays;
+
+/**
+ * Base58btc codec specialized for {@code did:key} sized values.
+ *
+ * <p>
+ * Values are processed five base58 digits at a time using 64-bit arithmetic,
+ * i.e. in radix {@code 58^5}, which is five times fewer big number steps than
+ * a digit by digit conversion. Decoded values are kept in unsigned 32-bit
+ * limbs, allowing the decoded bytes to be read without materializing the whole
+ * decoded array.
+ * </p>
+ */
+final class Base58Btc {
+
+    static final char[] ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+
+    /** Digit values indexed by ASCII code, {@code -1} for invalid characters. */
+    static final byte[] DIGITS = new byte[128];
+
+    /** Powers of 58, {@code 58^0} to {@code 58^5}. */
+    static final long[] POWERS = { 1L, 58L, 3364L, 195112L, 11316496L, 656356768L };
+
+    /** {@code 58^5}, the largest power of 58 fitting in 30 bits. */
+    static final long RADIX = 656356768L;
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    Base58Btc() {
+    }
+
+    /**
+     * Returns the number of limbs needed to decode the given number of
+     * characters.
+     *
+     * @param length the number of encoded characters
+     * @return the number of limbs
+     */
+    static int limbs(final int length) {
+        // log2(58) < 5.86
+        return (length * 586 + 3199) / 3200;
+    }
+
+    /**
+     * Decodes the given characters into little-endian unsigned 32-bit limbs.
+     *
+     * @param input the encoded characters
+     * @param from  the first character, inclusive
+     * @param to    the last character, exclusive
+     * @param limbs the output, at least {@link #limbs(int)} long and zeroed
+     * @return the decoded length in bytes, including leading zero bytes
+     * @throws IllegalArgumentException if the input contains a character out of
+     *                                  the base58btc alphabet
+     */
+    static int decode(final CharSequence input, final int from, final int to, final int[] limbs) {
+
+        int zeros = 0;
+        while (from + zeros < to && input.charAt(from + zeros) == '1') {
+            zeros++;
+        }
+
+        int used = 0;
+        int index = from + zeros;
+
+        // the first group takes the remainder so all others are full
+        int group = (to - index) % 5;
+        if (group == 0) {
+            group = 5;
+        }
+
+        while (index < to) {
+
+            long carry = 0;
+            for (final int end = index + group; index < end; index++) {
+                final char ch = input.charAt(index);
+                final int digit = ch < 128 ? DIGITS[ch] : -1;
+                if (digit < 0) {
+                    throw new IllegalArgumentException("Invalid base58btc character [" + ch + "] at position " + index + ".");
+                }
+                carry = carry * 58 + digit;
+            }
+
+            final long multiplier = POWERS[group];
+
+            for (int j = 0; j < used; j++) {
+                carry += (limbs[j] & 0xFFFFFFFFL) * multiplier;
+                limbs[j] = (int) carry;
+                carry >>>= 32;
+            }
+            if (carry != 0) {
+                limbs[used++] = (int) carry;
+            }
+            group = 5;
+        }
+
+        if (used == 0) {
+            return zeros;
+        }
+
+        return zeros + (used - 1) * 4 + (32 - Integer.numberOfLeadingZeros(limbs[used - 1]) + 7) / 8;
+    }
+
+    /**
+     * Returns a byte of the decoded value.
+     *
+     * @param limbs  the decoded limbs
+     * @param length the decoded length in bytes
+     * @param index  the big-endian byte index
+     * @return the unsigned byte value
+     */
+    static int byteAt(final int[] limbs, final int length, final int index) {
+        final int position = length - 1 - index;
+        if ((position >>> 2) >= limbs.length) {
+            return 0;
+        }
+        return (limbs[position >>> 2] >>> ((position & 3) << 3)) & 0xFF;
+    }
+
+    /**
+     * Copies the trailing decoded bytes, i.e. the last {@code output.length}
+     * bytes of the decoded value.
+     *
+     * @param limbs  the decoded limbs
+     * @param output the output
+     */
+    static void copy(final int[] limbs, final byte[] output) {
+        for (int i = output.length - 1, position = 0; i >= 0; i--, position++) {
+            if ((position >>> 2) >= limbs.length) {
+                output[i] = 0;
+            } else {
+                output[i] = (byte) (limbs[position >>> 2] >>> ((position & 3) << 3));
+            }
+        }
+    }
+
+    /**
+     * Encodes the concatenation of the given arrays as a multibase base58btc
+     * string, i.e. prefixed with {@code z}.
+     *
+     * @param head the leading bytes, e.g. a multicodec varint
+     * @param tail the trailing bytes
+     * @return the encoded string
+     */
+    static String encode(final byte[] head, final byte[] tail) {
+
+        final int length = head.length + tail.length;
+
+        int zeros = 0;
+        while (zeros < length && byteAt(head, tail, zeros) == 0) {
+            zeros++;
+        }
+
+        // radix 58^5 digits, little-endian, log2(58^5) > 29.28
+        final long[] digits = new long[((length - zeros) * 800 + 2927) / 2928 + 1];
+        int used = 0;
+
+        int index = zeros;
+
+        // the first word takes the remainder so all others are full
+        int group = (length - index) & 3;
+        if (group == 0) {
+            group = 4;
+        }
+
+        while (index < length) {
+
+            long carry = 0;
+            for (final int end = index + group; index < end; index++) {
+                carry = (carry << 8) | byteAt(head, tail, index);
+            }
+
+            final int shift = group << 3;
+
+            for (int j = 0; j < used; j++) {
+                carry += digits[j] << shift;
+                digits[j] = carry % RADIX;
+                carry /= RADIX;
+            }
+            while (carry != 0) {
+                digits[used++] = carry % RADIX;
+                carry /= RADIX;
+            }
+            group = 4;
+        }
+
+        int top = 0;
+        if (used > 0) {
+            for (long value = digits[used - 1]; value != 0; value /= 58) {
+                top++;
+            }
+        }
+
+        final char[] encoded = new char[1 + zeros + (used > 0 ? (used - 1) * 5 + top : 0)];
+
+        encoded[0] = 'z';
+        Arrays.fill(encoded, 1, 1 + zeros, '1');
+
+        int position = encoded.length;
+        for (int j = 0; j < used; j++) {
+            long value = digits[j];
+            final int count = j == used - 1 ? top : 5;
+            for (int k = 0; k < count; k++) {
+                encoded[--position] = ALPHABET[(int) (value % 58)];
+                value /= 58;
+            }
+        }
+
+        return new String(encoded);
+    }
+
+    static int byteAt(final byte[] head, final byte[] tail, final int index) {
+        return (index < head.length ? head[index] : tail[index - head.length]) & 0xFF;
+    }
+}
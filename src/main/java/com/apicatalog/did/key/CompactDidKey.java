@@ -0,0 +1,113 @@
+package com.apicatalog.did.key;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.apicatalog.multicodec.Multicodec;
+
+/**
+ * {@link DidKey} keeping only the multicodec encoded key in a single array. The
+ * method-specific identifier is encoded on first use and cached.
+ *
+ * <p>
+ * The inherited identifier and raw key fields are left {@code null}, every
+ * accessor reading them is overridden.
+ * </p>
+ *
+ * @see DidKey#compact()
+ * @see DidKey#of(java.nio.ByteBuffer, com.apicatalog.multicodec.MulticodecDecoder)
+ */
+final class CompactDidKey extends DidKey {
+
+    private static final long serialVersionUID = -6106357945384313312L;
+
+    static final byte[] EMPTY = new byte[0];
+
+    /** Multicodec varint prefix followed by the raw key bytes. */
+    final byte[] data;
+
+    /** {@code true} if the version is a part of the identifier. */
+    final boolean explicitVersion;
+
+    transient String id;
+
+    CompactDidKey(String version, boolean explicitVersion, Multicodec codec, byte[] data) {
+        super(version, null, codec, null);
+        this.data = data;
+        this.explicitVersion = explicitVersion;
+        this.id = null;
+    }
+
+    @Override
+    public String getMethodSpecificId() {
+        String id = this.id;
+        if (id == null) {
+            id = Base58Btc.encode(EMPTY, data);
+            if (explicitVersion) {
+                id = version + ":" + id;
+            }
+            // racy but idempotent, strings are immutable
+            this.id = id;
+        }
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return PREFIX + getMethodSpecificId();
+    }
+
+    @Override
+    public URI toUri() {
+        return URI.create(toString());
+    }
+
+    @Override
+    public byte[] debased() {
+        return data.clone();
+    }
+
+    @Override
+    public byte[] decoded() {
+        return Arrays.copyOfRange(data, codec.length(), data.length);
+    }
+
+    @Override
+    public ByteBuffer debasedView() {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    @Override
+    public ByteBuffer decodedView() {
+        return ByteBuffer.wrap(data, codec.length(), data.length - codec.length()).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public ByteBuffer writeRawKeyTo(final ByteBuffer buffer) {
+        return buffer.put(data, codec.length(), data.length - codec.length());
+    }
+
+    @Override
+    public DidKey compact() {
+        return this;
+    }
+
+    @Override
+    boolean explicitVersion() {
+        return explicitVersion;
+    }
+
+    @Override
+    int keyHash() {
+        return hash(data, codec.length(), data.length);
+    }
+
+    @Override
+    boolean sameKey(final DidKey other) {
+        if (other instanceof CompactDidKey) {
+            return Arrays.equals(data, ((CompactDidKey) other).data);
+        }
+        return other.sameKey(this);
+    }
+}
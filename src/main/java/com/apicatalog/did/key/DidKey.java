@@ -1,6 +1,9 @@
 package com.apicatalog.did.key;
 
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
 
 import com.apicatalog.did.Did;
@@ -9,6 +12,7 @@ import com.apicatalog.did.datatype.MulticodecEncoded;
 import com.apicatalog.multibase.Multibase;
 import com.apicatalog.multicodec.Multicodec;
 import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.uvarint.UVarInt;
 
 /**
  * Immutable {@code did:key} identifier.
@@ -25,6 +29,12 @@ import com.apicatalog.multicodec.MulticodecDecoder;
  * did:key:[version]:MULTIBASE(base58-btc, MULTICODEC(key-type + key-bytes))
  * </pre>
  *
+ * <p>
+ * Two instances are equal if they have the same key type, version and key
+ * bytes, and either both or none write the version explicitly, regardless of
+ * their representation.
+ * </p>
+ *
  * @see <a href="https://w3c-ccg.github.io/did-key-spec/">DID Key Method
  *      Specification</a>
  */
@@ -35,6 +45,8 @@ public class DidKey extends Did implements MultibaseEncoded, MulticodecEncoded {
     /** DID method name for {@code did:key}. */
     public static final String METHOD_NAME = "key";
 
+    static final String PREFIX = SCHEME + ":" + METHOD_NAME + ":";
+
     /** Default version string. */
     public static final String DEFAULT_VERSION = "1";
 
@@ -82,34 +94,177 @@ public class DidKey extends Did implements MultibaseEncoded, MulticodecEncoded {
     public static final DidKey of(final Did did, final MulticodecDecoder codecs) {
         Objects.requireNonNull(did);
         Objects.requireNonNull(codecs);
+        return of(did, codecs, null);
+    }
+
+    /** Same as {@link #of(Did, MulticodecDecoder)}, reporting to the listener if not {@code null}. */
+    static final DidKey of(final Did did, final MulticodecDecoder codecs, final DidKeyResolverListener listener) {
 
         if (!METHOD_NAME.equalsIgnoreCase(did.getMethod())) {
             throw new IllegalArgumentException("Not a did:key DID; unsupported method '" + did.getMethod() + "'. DID [" + did + "].");
         }
 
-        final String[] parts = did.getMethodSpecificId().split(":", 2);
+        final String specificId = did.getMethodSpecificId();
 
         String version = DEFAULT_VERSION;
-        String encoded = parts[0];
+        int start = 0;
 
         // explicit version present
-        if (parts.length == 2) {
-            version = parts[0];
-            encoded = parts[1];
+        final int colon = specificId.indexOf(':');
+        if (colon != -1) {
+            version = specificId.substring(0, colon);
+            start = colon + 1;
         }
 
-        if (!Multibase.BASE_58_BTC.isEncoded(encoded)) {
-            throw new IllegalArgumentException("Invalid did:key encoding: expected multibase base58btc. DID [" + did + "].");
+        return decode(version, specificId, specificId, start, codecs, did, listener);
+    }
+
+    /**
+     * Parses a {@code did:key} identifier in a single pass over the given
+     * characters.
+     *
+     * <p>
+     * Unlike {@link #of(URI, MulticodecDecoder)}, no intermediate {@link URI},
+     * {@link Did} or decoded multicodec array is created, the raw key bytes are
+     * written directly from the decoded base58btc value. The input must be a
+     * plain {@code did:key}, i.e. without path, query or fragment.
+     * </p>
+     *
+     * @param input  the characters to parse
+     * @param codecs the {@link MulticodecDecoder} used to decode the key material
+     * @return a new {@link DidKey} instance
+     *
+     * @throws NullPointerException     if {@code input} or {@code codecs} is
+     *                                  {@code null}
+     * @throws IllegalArgumentException if the given {@code input} is not a valid
+     *                                  {@code did:key}
+     */
+    public static final DidKey parse(final CharSequence input, final MulticodecDecoder codecs) {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(codecs);
+        return parse(input, codecs, null);
+    }
+
+    /** Same as {@link #parse(CharSequence, MulticodecDecoder)}, reporting to the listener if not {@code null}. */
+    static final DidKey parse(final CharSequence input, final MulticodecDecoder codecs, final DidKeyResolverListener listener) {
+
+        final int start = keyStart(input);
+        final String version = start > PREFIX.length()
+                ? input.subSequence(PREFIX.length(), start - 1).toString()
+                : DEFAULT_VERSION;
+
+        return decode(version, input.subSequence(PREFIX.length(), input.length()).toString(), input, start, codecs, input, listener);
+    }
+
+    /**
+     * Parses a {@code did:key} identifier from the ASCII encoded bytes remaining
+     * in the given buffer.
+     *
+     * <p>
+     * The bytes are read in place, no intermediate {@link String} is created. The
+     * result is a {@link #compact() compact} key holding only the multicodec
+     * encoded key bytes. The buffer's position and limit are not changed. The
+     * input must be a plain {@code did:key}, i.e. without path, query or
+     * fragment.
+     * </p>
+     *
+     * @param input  the buffer holding ASCII encoded characters
+     * @param codecs the {@link MulticodecDecoder} used to decode the key material
+     * @return a new {@link DidKey} instance
+     *
+     * @throws NullPointerException     if {@code input} or {@code codecs} is
+     *                                  {@code null}
+     * @throws IllegalArgumentException if the given {@code input} is not a valid
+     *                                  {@code did:key}
+     */
+    public static final DidKey of(final ByteBuffer input, final MulticodecDecoder codecs) {
+        Objects.requireNonNull(input);
+        Objects.requireNonNull(codecs);
+
+        final AsciiSequence chars = new AsciiSequence(input, input.position(), input.remaining());
+
+        final int start = keyStart(chars);
+        final String version = start > PREFIX.length()
+                ? chars.subSequence(PREFIX.length(), start - 1).toString()
+                : null;
+
+        return decode(version, null, chars, start, codecs, chars, null);
+    }
+
+    /**
+     * Returns the index of the multibase encoded key in the given plain
+     * {@code did:key}, i.e. after the prefix and an explicit version if present.
+     */
+    static final int keyStart(final CharSequence input) {
+
+        final int length = input.length();
+
+        if (length <= PREFIX.length() || !startsWith(input, PREFIX)) {
+            throw new IllegalArgumentException("Not a did:key DID [" + input + "].");
+        }
+
+        final int start = PREFIX.length();
+
+        // explicit version present, ':' is not in the base58btc alphabet
+        for (int i = start; i < length; i++) {
+            final char ch = input.charAt(i);
+            if (ch == ':') {
+                if (i == start) {
+                    throw new IllegalArgumentException("Invalid did:key version, must not be empty. DID [" + input + "].");
+                }
+                return i + 1;
+            }
+            // a path, query or fragment
+            if (!DidKeyFilter.isIdChar(ch)) {
+                throw new IllegalArgumentException("Invalid did:key character '" + ch + "' at [" + i + "]. DID [" + input + "].");
+            }
         }
+        return start;
+    }
+
+    /**
+     * Decodes the multibase encoded key at {@code input[start..]}, the raw key
+     * bytes are written directly from the decoded base58btc value. A
+     * {@code null} {@code specificId} yields a {@link CompactDidKey}, with a
+     * {@code null} {@code version} for an implicit one. The decoding is timed
+     * and reported to the listener, if not {@code null}.
+     */
+    static final DidKey decode(final String version, final String specificId, final CharSequence input, final int start, final MulticodecDecoder codecs, final Object did, final DidKeyResolverListener listener) {
+
+        final long begin = listener != null ? System.nanoTime() : 0L;
 
-        final byte[] debased = Multibase.BASE_58_BTC.decode(encoded);
+        final Encoded encoded = Encoded.decode(input, start, did);
 
-        final Multicodec codec = codecs.getCodec(debased)
+        final long decoded = listener != null ? System.nanoTime() : 0L;
+
+        final Multicodec codec = codecs.getRegistry().getCodec(encoded.code)
+                .filter(c -> c.length() == encoded.prefix)
                 .orElseThrow(() -> new IllegalArgumentException("Unsupported did:key multicodec prefix. DID [" + did + "]."));
 
-        final byte[] raw = codec.decode(debased);
+        final DidKey didKey;
+        if (specificId == null) {
+            // the decoded value is kept as is
+            didKey = version != null
+                    ? new CompactDidKey(version, true, codec, encoded.data())
+                    : new CompactDidKey(DEFAULT_VERSION, false, codec, encoded.data());
 
-        return new DidKey(version, did.getMethodSpecificId(), codec, raw);
+        } else {
+            didKey = new DidKey(version, specificId, codec, encoded.raw());
+        }
+
+        if (listener != null) {
+            listener.parsed(codec, decoded - begin, System.nanoTime() - begin);
+        }
+        return didKey;
+    }
+
+    static final boolean startsWith(final CharSequence input, final String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (input.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -122,11 +277,24 @@ public class DidKey extends Did implements MultibaseEncoded, MulticodecEncoded {
     public static final DidKey of(byte[] key, Multicodec codec) {
         return new DidKey(
                 DEFAULT_VERSION,
-                Multibase.BASE_58_BTC.encode(codec.encode(key)),
+                Base58Btc.encode(codec.varint(), key),
                 codec,
                 key);
     }
 
+    /**
+     * Creates a new compact {@link DidKey} from raw key bytes and a codec. Unlike
+     * {@link #of(byte[], Multicodec)} the method-specific identifier is not
+     * encoded until it is used, see {@link #compact()}.
+     *
+     * @param key   the raw key bytes
+     * @param codec the {@link Multicodec} representing the key type
+     * @return a new compact {@link DidKey} instance
+     */
+    public static final DidKey compact(final byte[] key, final Multicodec codec) {
+        return new CompactDidKey(DEFAULT_VERSION, false, codec, codec.encode(key));
+    }
+
     /**
      * Tests whether the given {@link Did} is a {@code did:key}.
      *
@@ -210,6 +378,68 @@ public class DidKey extends Did implements MultibaseEncoded, MulticodecEncoded {
         return rawKeyBytes;
     }
 
+    /**
+     * Returns a read-only buffer of the multicodec-encoded key bytes. A
+     * {@link #compact() compact} key is viewed without copying, otherwise the
+     * bytes are encoded into a new array on each call, prefer
+     * {@link #decodedView()} if the key type is known.
+     *
+     * @return a read-only buffer positioned at the multicodec prefix
+     * @see #debased()
+     */
+    public ByteBuffer debasedView() {
+        return ByteBuffer.wrap(debased()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a read-only view of the raw key bytes, without copying them.
+     *
+     * @return a read-only buffer positioned at the first key byte
+     * @see #decoded()
+     */
+    public ByteBuffer decodedView() {
+        return ByteBuffer.wrap(rawKeyBytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the ASCII encoded {@code did:key} identifier to the given buffer,
+     * starting at its current position. Nothing is written if the identifier
+     * does not fit.
+     *
+     * @param buffer the target buffer
+     * @return the given buffer, positioned after the written identifier
+     * @throws BufferOverflowException if the remaining space is not sufficient
+     * @see #of(ByteBuffer, MulticodecDecoder)
+     */
+    public ByteBuffer writeTo(final ByteBuffer buffer) {
+
+        final String id = getMethodSpecificId();
+
+        if (buffer.remaining() < PREFIX.length() + id.length()) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < PREFIX.length(); i++) {
+            buffer.put((byte) PREFIX.charAt(i));
+        }
+        for (int i = 0; i < id.length(); i++) {
+            buffer.put((byte) id.charAt(i));
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the raw key bytes to the given buffer, starting at its current
+     * position.
+     *
+     * @param buffer the target buffer
+     * @return the given buffer, positioned after the written key
+     * @throws BufferOverflowException if the remaining space is not sufficient
+     */
+    public ByteBuffer writeRawKeyTo(final ByteBuffer buffer) {
+        return buffer.put(rawKeyBytes);
+    }
+
     /**
      * Returns the numeric multicodec code of this key type.
      *
@@ -219,4 +449,146 @@ public class DidKey extends Did implements MultibaseEncoded, MulticodecEncoded {
     public long codecCode() {
         return codec.code();
     }
+
+    /**
+     * Returns an equal key keeping only the multicodec encoded key bytes. The
+     * method-specific identifier and the string form are encoded on first use
+     * and cached, so a compact key takes about half the memory of a parsed one.
+     * Useful for large in-memory key sets.
+     *
+     * @return a compact representation of this key
+     */
+    public DidKey compact() {
+        return new CompactDidKey(
+                version,
+                explicitVersion(),
+                codec,
+                codec.encode(rawKeyBytes));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(codecCode()) + Boolean.hashCode(explicitVersion())) + keyHash();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DidKey)) {
+            return false;
+        }
+        final DidKey other = (DidKey) obj;
+        return codecCode() == other.codecCode()
+                && explicitVersion() == other.explicitVersion()
+                && version().equals(other.version())
+                && sameKey(other);
+    }
+
+    /** @return {@code true} if the version is a part of the identifier */
+    boolean explicitVersion() {
+        return getMethodSpecificId().indexOf(':') != -1;
+    }
+
+    /** Hash of the raw key bytes. */
+    int keyHash() {
+        return hash(rawKeyBytes, 0, rawKeyBytes.length);
+    }
+
+    /** Compares raw key bytes, without copying them. */
+    boolean sameKey(final DidKey other) {
+        if (other instanceof CompactDidKey) {
+            final byte[] data = ((CompactDidKey) other).data;
+            final int offset = other.codec.length();
+            if (data.length - offset != rawKeyBytes.length) {
+                return false;
+            }
+            for (int i = 0; i < rawKeyBytes.length; i++) {
+                if (rawKeyBytes[i] != data[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Arrays.equals(rawKeyBytes, other.rawKeyBytes);
+    }
+
+    static final int hash(final byte[] bytes, final int from, final int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    /**
+     * A multicodec encoded key decoded from a base58btc multibase value, kept in
+     * base58 limbs until copied out.
+     */
+    static final class Encoded {
+
+        final int[] limbs;
+        /** The number of decoded bytes. */
+        final int length;
+        /** The multicodec code. */
+        final long code;
+        /** The length of the varint prefix. */
+        final int prefix;
+
+        Encoded(final int[] limbs, final int length, final long code, final int prefix) {
+            this.limbs = limbs;
+            this.length = length;
+            this.code = code;
+            this.prefix = prefix;
+        }
+
+        /**
+         * Decodes the multibase value at {@code input[start..]}. The multicodec
+         * varint prefix must be present and minimal, i.e. a key has a single
+         * encoding.
+         */
+        static Encoded decode(final CharSequence input, final int start, final Object did) {
+
+            final int length = input.length();
+
+            if (start >= length || input.charAt(start) != Multibase.BASE_58_BTC.prefix()) {
+                throw new IllegalArgumentException("Invalid did:key encoding: expected multibase base58btc. DID [" + did + "].");
+            }
+
+            final int[] limbs = new int[Base58Btc.limbs(length - start - 1)];
+            final int decoded = Base58Btc.decode(input, start + 1, length, limbs);
+
+            long code = 0;
+            int index = 0;
+            int next;
+            do {
+                if (index == decoded || index == 9) {
+                    throw new IllegalArgumentException("Invalid did:key multicodec prefix. DID [" + did + "].");
+                }
+                next = Base58Btc.byteAt(limbs, decoded, index);
+                code |= (long) (next & 0x7F) << (7 * index++);
+            } while ((next & 0x80) != 0);
+
+            if (index != UVarInt.byteLength(code)) {
+                throw new IllegalArgumentException("Invalid did:key multicodec prefix. DID [" + did + "].");
+            }
+
+            return new Encoded(limbs, decoded, code, index);
+        }
+
+        /** @return the varint prefix followed by the raw key bytes */
+        byte[] data() {
+            final byte[] data = new byte[length];
+            Base58Btc.copy(limbs, data);
+            return data;
+        }
+
+        /** @return the raw key bytes */
+        byte[] raw() {
+            final byte[] raw = new byte[length - prefix];
+            Base58Btc.copy(limbs, raw);
+            return raw;
+        }
+    }
 }
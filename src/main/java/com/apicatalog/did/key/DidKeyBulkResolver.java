@@ -0,0 +1,350 @@
+package com.apicatalog.did.key;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.apicatalog.did.resolver.DidResolutionException;
+
+/**
+ * Resolves newline-delimited {@code did:key} identifiers into newline-delimited
+ * JSON DID documents written by {@link DidKeyDocumentWriter}.
+ *
+ * <p>
+ * Each non-blank input line produces exactly one output line, in the input
+ * order. It is either the resolved document or an error object
+ * {@code {"line":n,"input":"...","error":"..."}}. Blank lines are skipped but
+ * counted.
+ * </p>
+ *
+ * <p>
+ * Input is read in chunks of lines resolved concurrently by an executor. At
+ * most {@code parallelism} chunks are in flight at a time, so memory use is
+ * bounded regardless of the input size.
+ * </p>
+ */
+public final class DidKeyBulkResolver {
+
+    static final byte[] ERROR_LINE = DidKeyDocumentWriter.utf8("{\"line\":");
+    static final byte[] ERROR_INPUT = DidKeyDocumentWriter.utf8(",\"input\":");
+    static final byte[] ERROR_MESSAGE = DidKeyDocumentWriter.utf8(",\"error\":");
+
+    /** Memory-mapped window size. */
+    static final int WINDOW = 64 * 1024 * 1024;
+
+    final DidKeyResolver resolver;
+    final Executor executor;
+    final int chunkSize;
+    final int parallelism;
+
+    DidKeyBulkResolver(DidKeyResolver resolver, Executor executor, int chunkSize, int parallelism) {
+        this.resolver = resolver;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Creates a new {@link Builder} using the given resolver.
+     *
+     * @param resolver the resolver to use
+     * @return a new {@link Builder} instance
+     * @throws NullPointerException if {@code resolver} is {@code null}
+     */
+    public static Builder with(final DidKeyResolver resolver) {
+        Objects.requireNonNull(resolver);
+        return new Builder(resolver);
+    }
+
+    /**
+     * Resolves lines read from the given reader.
+     *
+     * @param reader the input
+     * @param output the output, UTF-8 encoded
+     * @return the number of input lines
+     * @throws IOException if reading or writing fails
+     */
+    public long resolve(final Reader reader, final OutputStream output) throws IOException {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(output);
+
+        final BufferedReader lines = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader);
+
+        return run(chunk -> {
+            int count = 0;
+            String line;
+            while (count < chunk.length && (line = lines.readLine()) != null) {
+                chunk[count++] = line;
+            }
+            return count;
+        }, output);
+    }
+
+    /**
+     * Resolves lines read from the given UTF-8 encoded input.
+     *
+     * @param input  the input
+     * @param output the output, UTF-8 encoded
+     * @return the number of input lines
+     * @throws IOException if reading or writing fails
+     */
+    public long resolve(final InputStream input, final OutputStream output) throws IOException {
+        Objects.requireNonNull(input);
+        return resolve(new InputStreamReader(input, StandardCharsets.UTF_8), output);
+    }
+
+    /**
+     * Resolves lines of the given file. The file is memory-mapped and lines are
+     * parsed in place, only the method-specific identifier of a DID is copied
+     * into a string, unless the resolver caches rejected DIDs.
+     *
+     * @param file   the input file
+     * @param output the output, UTF-8 encoded
+     * @return the number of input lines
+     * @throws IOException if reading or writing fails, or a line is longer than
+     *                     the mapped window
+     */
+    public long resolve(final Path file, final OutputStream output) throws IOException {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(output);
+
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return run(new MappedLines(channel), output);
+        }
+    }
+
+    final long run(final LineSource source, final OutputStream output) throws IOException {
+
+        final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>(parallelism);
+
+        long lines = 0;
+
+        for (;;) {
+            final CharSequence[] chunk = new CharSequence[chunkSize];
+            final int count = source.read(chunk);
+
+            if (count == 0) {
+                break;
+            }
+
+            final long first = lines + 1;
+            lines += count;
+
+            if (pending.size() == parallelism) {
+                output.write(Futures.join(pending.poll()));
+            }
+
+            pending.add(CompletableFuture.supplyAsync(() -> resolve(chunk, count, first), executor));
+        }
+
+        while (!pending.isEmpty()) {
+            output.write(Futures.join(pending.poll()));
+        }
+
+        output.flush();
+        return lines;
+    }
+
+    final byte[] resolve(final CharSequence[] chunk, final int count, final long first) {
+
+        final DidKeyDocumentWriter out = new DidKeyDocumentWriter(count * 1024);
+
+        for (int i = 0; i < count; i++) {
+
+            final CharSequence line = trim(chunk[i]);
+            if (line.length() == 0) {
+                continue;
+            }
+
+            final int mark = out.size();
+
+            try {
+                resolver.resolve(line, out);
+
+            } catch (DidResolutionException | RuntimeException e) {
+                // a partially written document is dropped
+                out.truncate(mark);
+                out.raw(ERROR_LINE);
+                out.number(first + i);
+                out.raw(ERROR_INPUT);
+                // a mapped line is decoded as UTF-8
+                out.string(line.toString());
+                out.raw(ERROR_MESSAGE);
+                out.string(String.valueOf(e.getMessage()));
+                out.raw((byte) '}');
+            }
+            out.newLine();
+        }
+
+        return out.toByteArray();
+    }
+
+    static final CharSequence trim(final CharSequence line) {
+        int from = 0;
+        int to = line.length();
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return from == 0 && to == line.length()
+                ? line
+                : line.subSequence(from, to);
+    }
+
+    @FunctionalInterface
+    interface LineSource {
+        /** Reads up to {@code chunk.length} lines, returns {@code 0} at the end. */
+        int read(CharSequence[] chunk) throws IOException;
+    }
+
+    /** Reads lines from a file mapped window by window. */
+    static final class MappedLines implements LineSource {
+
+        final FileChannel channel;
+        final long size;
+
+        MappedByteBuffer buffer;
+        long offset;
+
+        MappedLines(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.offset = 0;
+            this.buffer = null;
+        }
+
+        @Override
+        public int read(final CharSequence[] chunk) throws IOException {
+
+            if (buffer == null) {
+                if (size == 0) {
+                    return 0;
+                }
+                map(0);
+            }
+
+            int count = 0;
+
+            while (count < chunk.length) {
+
+                if (!buffer.hasRemaining()) {
+                    if (offset + buffer.limit() >= size) {
+                        break;
+                    }
+                    map(offset + buffer.limit());
+                }
+
+                final int start = buffer.position();
+                int end = start;
+                while (end < buffer.limit() && buffer.get(end) != '\n') {
+                    end++;
+                }
+
+                if (end == buffer.limit() && offset + end < size) {
+                    // the line continues beyond the window
+                    if (start == 0) {
+                        throw new IOException("Line at offset " + offset + " exceeds " + WINDOW + " bytes.");
+                    }
+                    map(offset + start);
+                    continue;
+                }
+
+                chunk[count++] = new AsciiSequence(buffer, start, end - start);
+                buffer.position(Math.min(end + 1, buffer.limit()));
+            }
+            return count;
+        }
+
+        final void map(final long position) throws IOException {
+            offset = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+        }
+    }
+
+    /**
+     * Builder for {@link DidKeyBulkResolver}.
+     */
+    public static class Builder {
+
+        final DidKeyResolver resolver;
+        Executor executor;
+        int chunkSize;
+        int parallelism;
+
+        protected Builder(final DidKeyResolver resolver) {
+            this.resolver = resolver;
+            this.executor = resolver.executor;
+            this.chunkSize = 1024;
+            this.parallelism = Runtime.getRuntime().availableProcessors();
+        }
+
+        /**
+         * Sets the executor resolving chunks, defaults to the resolver's executor.
+         *
+         * @param executor the executor to use
+         * @return this builder
+         * @throws NullPointerException if {@code executor} is {@code null}
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "Executor must not be null.");
+            return this;
+        }
+
+        /**
+         * Sets the number of lines resolved as a single task, defaults to
+         * {@code 1024}.
+         *
+         * @param chunkSize the number of lines
+         * @return this builder
+         * @throws IllegalArgumentException if {@code chunkSize} is less than one
+         */
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize < 1) {
+                throw new IllegalArgumentException("Chunk size must be greater than zero, but was [" + chunkSize + "].");
+            }
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximal number of chunks in flight, defaults to the number of
+         * available processors.
+         *
+         * @param parallelism the number of chunks
+         * @return this builder
+         * @throws IllegalArgumentException if {@code parallelism} is less than one
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism < 1) {
+                throw new IllegalArgumentException("Parallelism must be greater than zero, but was [" + parallelism + "].");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Builds a new {@link DidKeyBulkResolver}.
+         *
+         * @return a bulk resolver instance
+         */
+        public DidKeyBulkResolver build() {
+            return new DidKeyBulkResolver(resolver, executor, chunkSize, parallelism);
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.apicatalog.did.key;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.apicatalog.did.datatype.MultibaseEncoded;
+import com.apicatalog.did.document.DidDocument;
+import com.apicatalog.did.document.DidVerificationMethod;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multibase.Multibase;
+import com.apicatalog.multibase.MultibaseDecoder;
+
+/**
+ * Writes {@link DidDocument} instances as compact JSON-LD directly into a
+ * reusable UTF-8 byte buffer.
+ *
+ * <p>
+ * Known verification method types are written as terms with their context
+ * added to {@code @context}, any other type is written as is. A relationship
+ * entry is written as a reference if the method is listed in
+ * {@code verificationMethod}, otherwise it is embedded. All fixed parts of a
+ * document are precomputed UTF-8 fragments.
+ * </p>
+ *
+ * <p>
+ * An instance is not thread-safe. It can be reused by calling {@link #reset()}
+ * once its content has been consumed.
+ * </p>
+ */
+public final class DidKeyDocumentWriter {
+
+    static final byte[] CONTEXT_START = utf8("{\"@context\":[\"https://www.w3.org/ns/did/v1\"");
+    static final byte[] ID = utf8("],\"id\":");
+    static final byte[] VERIFICATION_METHOD = utf8(",\"verificationMethod\":[");
+    static final byte[] AUTHENTICATION = utf8(",\"authentication\":[");
+    static final byte[] ASSERTION_METHOD = utf8(",\"assertionMethod\":[");
+    static final byte[] CAPABILITY_INVOCATION = utf8(",\"capabilityInvocation\":[");
+    static final byte[] CAPABILITY_DELEGATION = utf8(",\"capabilityDelegation\":[");
+    static final byte[] KEY_AGREEMENT = utf8(",\"keyAgreement\":[");
+
+    static final byte[] METHOD_ID = utf8("{\"id\":");
+    static final byte[] METHOD_TYPE = utf8(",\"type\":");
+    static final byte[] METHOD_CONTROLLER = utf8(",\"controller\":");
+    static final byte[] PUBLIC_KEY_MULTIBASE = utf8(",\"publicKeyMultibase\":");
+    static final byte[] PUBLIC_KEY_JWK = utf8(",\"publicKeyJwk\":");
+
+    static final byte[] NULL = utf8("null");
+    static final byte[] TRUE = utf8("true");
+    static final byte[] FALSE = utf8("false");
+
+    /** Type URI to precomputed term and context fragments. */
+    static final Map<String, Term> TERMS;
+
+    static {
+        final Map<String, Term> terms = new HashMap<>();
+        terms.put(DidKeyResolver.MULTIKEY_TYPE, new Term("Multikey", "https://w3id.org/security/multikey/v1"));
+        terms.put(DidKeyResolver.JWK_TYPE, new Term("JsonWebKey", "https://w3id.org/security/jwk/v1"));
+        terms.put(DidKeyResolver.JWK_2020_TYPE, new Term("JsonWebKey2020", "https://w3id.org/security/suites/jws-2020/v1"));
+        terms.put(DidKeyResolver.ED25519_2020_TYPE, new Term("Ed25519VerificationKey2020", "https://w3id.org/security/suites/ed25519-2020/v1"));
+        terms.put(DidKeyResolver.X25519_2020_TYPE, new Term("X25519KeyAgreementKey2020", "https://w3id.org/security/suites/x25519-2020/v1"));
+        TERMS = Collections.unmodifiableMap(terms);
+    }
+
+    /** Characters to escape, indexed by ASCII code. */
+    static final byte[] ESCAPE = new byte[128];
+
+    static {
+        for (int i = 0; i < 0x20; i++) {
+            ESCAPE[i] = 'u';
+        }
+        ESCAPE['"'] = '"';
+        ESCAPE['\\'] = '\\';
+        ESCAPE['\n'] = 'n';
+        ESCAPE['\r'] = 'r';
+        ESCAPE['\t'] = 't';
+    }
+
+    static final byte[] HEX = utf8("0123456789abcdef");
+
+    byte[] buffer;
+    int size;
+
+    DidKeyDocumentWriter(int capacity) {
+        this.buffer = new byte[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Creates a new empty writer.
+     *
+     * @return a new writer instance
+     */
+    public static DidKeyDocumentWriter create() {
+        return new DidKeyDocumentWriter(2048);
+    }
+
+    /**
+     * Serializes the given document into a new array.
+     *
+     * @param document the document to serialize
+     * @return UTF-8 encoded JSON
+     */
+    public static byte[] toJson(final DidDocument document) {
+        return create().write(document).toByteArray();
+    }
+
+    /**
+     * Appends the given resolved document.
+     *
+     * @param resolved the resolved document
+     * @return this writer
+     */
+    public DidKeyDocumentWriter write(final ResolvedDidDocument resolved) {
+        Objects.requireNonNull(resolved);
+        return write(resolved.document());
+    }
+
+    /**
+     * Appends the given document. Nothing is appended if serialization fails,
+     * e.g. a lazy JWK conversion throws.
+     *
+     * @param document the document to serialize
+     * @return this writer
+     */
+    public DidKeyDocumentWriter write(final DidDocument document) {
+        Objects.requireNonNull(document);
+
+        final int mark = size;
+        try {
+            writeDocument(document);
+        } catch (RuntimeException e) {
+            size = mark;
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a new line, e.g. to separate documents in NDJSON output.
+     *
+     * @return this writer
+     */
+    public DidKeyDocumentWriter newLine() {
+        return raw((byte) '\n');
+    }
+
+    /** @return the number of bytes written */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Discards the written bytes, keeping the allocated buffer.
+     *
+     * @return this writer
+     */
+    public DidKeyDocumentWriter reset() {
+        size = 0;
+        return this;
+    }
+
+    /** @return a copy of the written bytes */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Copies the written bytes into the given array.
+     *
+     * @param output the output
+     * @param offset the output offset
+     * @return the number of bytes copied, i.e. {@link #size()}
+     * @throws IndexOutOfBoundsException if the output is too small
+     */
+    public int writeTo(final byte[] output, final int offset) {
+        System.arraycopy(buffer, 0, output, offset, size);
+        return size;
+    }
+
+    /**
+     * Puts the written bytes into the given buffer.
+     *
+     * @param output the output
+     * @throws java.nio.BufferOverflowException if the output is too small
+     */
+    public void writeTo(final ByteBuffer output) {
+        output.put(buffer, 0, size);
+    }
+
+    /**
+     * Writes the written bytes into the given stream.
+     *
+     * @param output the output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(final OutputStream output) throws IOException {
+        output.write(buffer, 0, size);
+    }
+
+    final void writeDocument(final DidDocument document) {
+
+        final Collection<DidVerificationMethod> methods = document.verification();
+        final Collection<DidVerificationMethod> keyAgreement = document.keyAgreement();
+
+        raw(CONTEXT_START);
+        writeContexts(methods, keyAgreement);
+
+        raw(ID);
+        string(document.id().toString());
+
+        raw(VERIFICATION_METHOD);
+        boolean next = false;
+        for (final DidVerificationMethod method : methods) {
+            if (next) {
+                raw((byte) ',');
+            }
+            writeMethod(method);
+            next = true;
+        }
+        raw((byte) ']');
+
+        writeRelationship(AUTHENTICATION, document.authentication(), methods);
+        writeRelationship(ASSERTION_METHOD, document.assertion(), methods);
+        writeRelationship(CAPABILITY_INVOCATION, document.capabilityInvocation(), methods);
+        writeRelationship(CAPABILITY_DELEGATION, document.capabilityDelegation(), methods);
+        writeRelationship(KEY_AGREEMENT, keyAgreement, methods);
+
+        raw((byte) '}');
+    }
+
+    final void writeContexts(final Collection<DidVerificationMethod> methods, final Collection<DidVerificationMethod> keyAgreement) {
+
+        // a document holds a few terms, a linear scan is cheaper than a set
+        Term[] terms = null;
+        int count = 0;
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (final DidVerificationMethod method : pass == 0 ? methods : keyAgreement) {
+                final Term term = TERMS.get(method.type());
+                if (term == null) {
+                    continue;
+                }
+                boolean present = false;
+                for (int i = 0; i < count; i++) {
+                    if (terms[i] == term) {
+                        present = true;
+                        break;
+                    }
+                }
+                if (!present) {
+                    if (terms == null) {
+                        terms = new Term[TERMS.size()];
+                    }
+                    terms[count++] = term;
+                    raw(term.context);
+                }
+            }
+        }
+    }
+
+    final void writeRelationship(final byte[] name, final Collection<DidVerificationMethod> relationship, final Collection<DidVerificationMethod> methods) {
+
+        if (relationship.isEmpty()) {
+            return;
+        }
+
+        raw(name);
+
+        boolean next = false;
+        for (final DidVerificationMethod method : relationship) {
+            if (next) {
+                raw((byte) ',');
+            }
+            if (relationship == methods || methods.contains(method)) {
+                string(method.id().toString());
+            } else {
+                writeMethod(method);
+            }
+            next = true;
+        }
+        raw((byte) ']');
+    }
+
+    final void writeMethod(final DidVerificationMethod method) {
+
+        raw(METHOD_ID);
+        string(method.id().toString());
+
+        raw(METHOD_TYPE);
+        final Term term = TERMS.get(method.type());
+        if (term != null) {
+            raw(term.name);
+        } else {
+            string(method.type());
+        }
+
+        raw(METHOD_CONTROLLER);
+        string(method.controller().toString());
+
+        final MultibaseEncoded multibase = method.publicKeyMultibase();
+        if (multibase != null) {
+            raw(PUBLIC_KEY_MULTIBASE);
+            if (multibase instanceof DidKey) {
+                // the encoded key is the method specific id without a version
+                final String id = ((DidKey) multibase).getMethodSpecificId();
+                string(id, id.indexOf(':') + 1, id.length());
+            } else {
+                string(multibase(multibase));
+            }
+        }
+
+        final Map<String, Object> jwk = method.publicKeyJwk();
+        if (jwk != null) {
+            raw(PUBLIC_KEY_JWK);
+            value(jwk);
+        }
+
+        raw((byte) '}');
+    }
+
+    static String multibase(final MultibaseEncoded value) {
+        final Multibase base = Multibase.BASE_58_BTC.name().equals(value.baseName())
+                ? Multibase.BASE_58_BTC
+                : MultibaseDecoder.getInstance().getBase(value.baseName())
+                        .orElseThrow(() -> new IllegalArgumentException("Unsupported multibase [" + value.baseName() + "]."));
+        return base.encode(value.debased());
+    }
+
+    final void value(final Object value) {
+
+        if (value == null) {
+            raw(NULL);
+
+        } else if (value instanceof CharSequence) {
+            string((CharSequence) value);
+
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            number(((Number) value).longValue());
+
+        } else if (value instanceof Number) {
+            if ((value instanceof Double && !Double.isFinite((Double) value))
+                    || (value instanceof Float && !Float.isFinite((Float) value))) {
+                throw new IllegalArgumentException("A non-finite number [" + value + "] cannot be written as JSON.");
+            }
+            ascii(value.toString());
+
+        } else if (value instanceof Boolean) {
+            raw((Boolean) value ? TRUE : FALSE);
+
+        } else if (value instanceof Map) {
+            raw((byte) '{');
+            boolean next = false;
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (next) {
+                    raw((byte) ',');
+                }
+                string(String.valueOf(entry.getKey()));
+                raw((byte) ':');
+                value(entry.getValue());
+                next = true;
+            }
+            raw((byte) '}');
+
+        } else if (value instanceof Collection) {
+            raw((byte) '[');
+            boolean next = false;
+            for (final Object item : (Collection<?>) value) {
+                if (next) {
+                    raw((byte) ',');
+                }
+                value(item);
+                next = true;
+            }
+            raw((byte) ']');
+
+        } else {
+            string(value.toString());
+        }
+    }
+
+    final void string(final CharSequence value) {
+        string(value, 0, value.length());
+    }
+
+    /** Writes a quoted, escaped and UTF-8 encoded string. */
+    final void string(final CharSequence value, final int from, final int to) {
+
+        // worst case is six bytes per character
+        ensure(to - from + 2);
+
+        buffer[size++] = '"';
+
+        for (int i = from; i < to; i++) {
+            final char ch = value.charAt(i);
+
+            if (ch < 0x80 && ESCAPE[ch] == 0) {
+                if (size == buffer.length) {
+                    ensure(to - i + 1);
+                }
+                buffer[size++] = (byte) ch;
+                continue;
+            }
+
+            ensure(to - i + 12);
+
+            if (ch < 0x80) {
+                buffer[size++] = '\\';
+                buffer[size++] = ESCAPE[ch];
+                if (ESCAPE[ch] == 'u') {
+                    buffer[size++] = '0';
+                    buffer[size++] = '0';
+                    buffer[size++] = HEX[ch >>> 4];
+                    buffer[size++] = HEX[ch & 0xF];
+                }
+
+            } else if (ch < 0x800) {
+                buffer[size++] = (byte) (0xC0 | (ch >>> 6));
+                buffer[size++] = (byte) (0x80 | (ch & 0x3F));
+
+            } else if (Character.isHighSurrogate(ch) && i + 1 < to && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(ch, value.charAt(++i));
+                buffer[size++] = (byte) (0xF0 | (cp >>> 18));
+                buffer[size++] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (cp & 0x3F));
+
+            } else if (Character.isSurrogate(ch)) {
+                // unpaired surrogate
+                buffer[size++] = '?';
+
+            } else {
+                buffer[size++] = (byte) (0xE0 | (ch >>> 12));
+                buffer[size++] = (byte) (0x80 | ((ch >>> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (ch & 0x3F));
+            }
+        }
+
+        ensure(1);
+        buffer[size++] = '"';
+    }
+
+    /** Writes ASCII characters as is. */
+    final void ascii(final String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    final void number(final long value) {
+        ascii(Long.toString(value));
+    }
+
+    final DidKeyDocumentWriter raw(final byte value) {
+        ensure(1);
+        buffer[size++] = value;
+        return this;
+    }
+
+    final void raw(final byte[] value) {
+        ensure(value.length);
+        System.arraycopy(value, 0, buffer, size, value.length);
+        size += value.length;
+    }
+
+    final void raw(final ByteBuffer value) {
+        final int length = value.remaining();
+        ensure(length);
+        value.duplicate().get(buffer, size, length);
+        size += length;
+    }
+
+    final void truncate(final int size) {
+        this.size = size;
+    }
+
+    final void ensure(final int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+        }
+    }
+
+    static byte[] utf8(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Precomputed fragments of a known verification method type. */
+    static final class Term {
+
+        /** Quoted term. */
+        final byte[] name;
+        /** Comma prefixed quoted context. */
+        final byte[] context;
+
+        Term(final String name, final String context) {
+            this.name = utf8("\"" + name + "\"");
+            this.context = utf8(",\"" + context + "\"");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.apicatalog.did.key;
+
+import java.util.Arrays;
+
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+/**
+ * Cheap syntactic prefilter rejecting values that cannot be a valid
+ * {@code did:key}, without decoding the key.
+ *
+ * <p>
+ * A value passes if it starts with {@code did:key:}, has an optional non-empty
+ * version, a multibase base58btc encoded key consisting of alphabet
+ * characters only and, for well-known key types recognized by their leading
+ * characters, e.g. {@code z6Mk} for Ed25519, a length possible for the key
+ * type. A path, query or fragment is not checked. Passing the filter does not
+ * guarantee the value is a valid {@code did:key}.
+ * </p>
+ */
+public final class DidKeyFilter {
+
+    /** Well-known key types, recognized by the encoded multicodec prefix. */
+    static final Shape[] SHAPES = {
+            Shape.of(KeyCodec.ED25519_PUBLIC_KEY, 32),
+            Shape.of(KeyCodec.X25519_PUBLIC_KEY, 32),
+            Shape.of(KeyCodec.P256_PUBLIC_KEY, 33),
+            Shape.of(KeyCodec.SECP256K1_PUBLIC_KEY, 33),
+            Shape.of(KeyCodec.P384_PUBLIC_KEY, 49),
+            Shape.of(KeyCodec.P521_PUBLIC_KEY, 67),
+            Shape.of(KeyCodec.BLS12_381_G1_PUBLIC_KEY, 48),
+            Shape.of(KeyCodec.BLS12_381_G2_PUBLIC_KEY, 96),
+    };
+
+    DidKeyFilter() {
+    }
+
+    /**
+     * Tests whether the given value may be a {@code did:key}.
+     *
+     * @param value the value to test
+     * @return {@code false} if the value is certainly not a valid
+     *         {@code did:key}
+     */
+    public static boolean test(final CharSequence value) {
+
+        if (value == null || value.length() <= DidKey.PREFIX.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < DidKey.PREFIX.length(); i++) {
+            if (Character.toLowerCase(value.charAt(i)) != DidKey.PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+
+        int end = DidKey.PREFIX.length();
+        while (end < value.length() && value.charAt(end) != '/' && value.charAt(end) != '?' && value.charAt(end) != '#') {
+            end++;
+        }
+
+        return testMethodSpecificId(value, DidKey.PREFIX.length(), end);
+    }
+
+    /**
+     * Tests whether the given characters may be a {@code did:key} method
+     * specific identifier, i.e. {@code [version:]z<base58btc>}.
+     *
+     * @param value the characters
+     * @param from  the first character, inclusive
+     * @param to    the last character, exclusive
+     * @return {@code false} if the value is certainly not a valid
+     *         {@code did:key} method specific identifier
+     */
+    static boolean testMethodSpecificId(final CharSequence value, final int from, final int to) {
+
+        int start = from;
+
+        // optional version, non-empty and made of DID idchars
+        for (int i = from; i < to; i++) {
+            final char ch = value.charAt(i);
+            if (ch == ':') {
+                if (i == from) {
+                    return false;
+                }
+                start = i + 1;
+                break;
+            }
+            if (!isIdChar(ch)) {
+                return false;
+            }
+        }
+
+        if (start >= to || value.charAt(start) != 'z') {
+            return false;
+        }
+
+        for (int i = start + 1; i < to; i++) {
+            final char ch = value.charAt(i);
+            if (ch >= 128 || Base58Btc.DIGITS[ch] < 0) {
+                return false;
+            }
+        }
+
+        final int length = to - start;
+
+        boolean known = false;
+
+        for (final Shape shape : SHAPES) {
+            if (shape.matches(value, start, to)) {
+                if (length >= shape.minLength && length <= shape.maxLength) {
+                    return true;
+                }
+                known = true;
+            }
+        }
+
+        // an unknown key type, e.g. RSA, is not checked further
+        return !known;
+    }
+
+    static boolean isIdChar(final char ch) {
+        return (ch >= 'a' && ch <= 'z')
+                || (ch >= 'A' && ch <= 'Z')
+                || (ch >= '0' && ch <= '9')
+                || ch == '.' || ch == '-' || ch == '_' || ch == '%';
+    }
+
+    /**
+     * Encoded form of a key type, the leading characters shared by all keys of
+     * the type and the range of encoded lengths.
+     */
+    static final class Shape {
+
+        final String prefix;
+        final int minLength;
+        final int maxLength;
+
+        Shape(String prefix, int minLength, int maxLength) {
+            this.prefix = prefix;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+        }
+
+        static Shape of(final Multicodec codec, final int keyLength) {
+
+            final byte[] max = new byte[keyLength];
+            Arrays.fill(max, (byte) 0xFF);
+
+            final String lower = Base58Btc.encode(codec.varint(), new byte[keyLength]);
+            final String upper = Base58Btc.encode(codec.varint(), max);
+
+            int common = 0;
+            while (common < lower.length() && common < upper.length() && lower.charAt(common) == upper.charAt(common)) {
+                common++;
+            }
+
+            return new Shape(lower.substring(0, common), lower.length(), upper.length());
+        }
+
+        boolean matches(final CharSequence value, final int from, final int to) {
+            if (to - from < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (value.charAt(from + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.apicatalog.did.key;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+/**
+ * Thread-safe interning pool of {@link DidKey} instances.
+ *
+ * <p>
+ * Keys are canonicalized by codec, version, whether the version is written
+ * explicitly and raw key bytes, so any number of references to the same key
+ * can share a single instance and keep its identifier. The pool holds its
+ * instances weakly, an instance no longer referenced elsewhere is garbage
+ * collected and its entry is removed on a subsequent pool access.
+ * </p>
+ */
+public final class DidKeyPool {
+
+    final ConcurrentHashMap<Key, Entry> entries;
+    final ReferenceQueue<DidKey> queue;
+
+    DidKeyPool() {
+        this.entries = new ConcurrentHashMap<>();
+        this.queue = new ReferenceQueue<>();
+    }
+
+    /**
+     * Creates a new empty pool.
+     *
+     * @return a new pool instance
+     */
+    public static DidKeyPool create() {
+        return new DidKeyPool();
+    }
+
+    /**
+     * Returns the canonical instance equal to the given key, adding the given key
+     * to the pool if there is none.
+     *
+     * @param didKey the key to intern
+     * @return the canonical instance
+     * @throws NullPointerException if {@code didKey} is {@code null}
+     */
+    public DidKey intern(final DidKey didKey) {
+        Objects.requireNonNull(didKey, "DidKey must not be null.");
+
+        expunge();
+
+        final Key key = new Key(didKey);
+
+        for (;;) {
+            final Entry entry = entries.get(key);
+
+            if (entry != null) {
+                final DidKey canonical = entry.get();
+                if (canonical != null) {
+                    return canonical;
+                }
+                entries.remove(key, entry);
+                continue;
+            }
+
+            if (entries.putIfAbsent(key, new Entry(didKey, key, queue)) == null) {
+                return didKey;
+            }
+        }
+    }
+
+    /**
+     * Parses the given {@code did:key} and returns its canonical instance.
+     *
+     * @param input  the characters to parse
+     * @param codecs the {@link MulticodecDecoder} used to decode the key material
+     * @return the canonical instance
+     * @throws NullPointerException     if any argument is {@code null}
+     * @throws IllegalArgumentException if the given {@code input} is not a valid
+     *                                  {@code did:key}
+     * @see DidKey#parse(CharSequence, MulticodecDecoder)
+     */
+    public DidKey parse(final CharSequence input, final MulticodecDecoder codecs) {
+        return intern(DidKey.parse(input, codecs));
+    }
+
+    /** @return the number of pooled instances, including not yet expunged ones */
+    public int size() {
+        expunge();
+        return entries.size();
+    }
+
+    /** Removes all pooled instances. */
+    public void clear() {
+        entries.clear();
+        expunge();
+    }
+
+    final void expunge() {
+        Entry entry;
+        while ((entry = (Entry) queue.poll()) != null) {
+            entries.remove(entry.key, entry);
+        }
+    }
+
+    /** Lookup key, references the raw key bytes but not the instance. */
+    static final class Key {
+
+        final long codec;
+        final String version;
+        final boolean explicitVersion;
+        final byte[] raw;
+        final int hashCode;
+
+        Key(final DidKey didKey) {
+            this.codec = didKey.codecCode();
+            this.version = didKey.version();
+            this.explicitVersion = didKey.explicitVersion();
+            this.raw = didKey.decoded();
+            this.hashCode = 31 * (31 * (31 * Long.hashCode(codec) + version.hashCode()) + Boolean.hashCode(explicitVersion)) + Arrays.hashCode(raw);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hashCode == other.hashCode
+                    && codec == other.codec
+                    && version.equals(other.version)
+                    && explicitVersion == other.explicitVersion
+                    && Arrays.equals(raw, other.raw);
+        }
+    }
+
+    static final class Entry extends WeakReference<DidKey> {
+
+        final Key key;
+
+        Entry(final DidKey didKey, final Key key, final ReferenceQueue<DidKey> queue) {
+            super(didKey, queue);
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.apicatalog.did.key;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.apicatalog.did.key.DidKeyResolverCache.Segment;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.DidResolutionException.Code;
+
+/**
+ * Bounded, thread-safe cache of recently rejected DIDs, keyed by the DID as
+ * given to a resolver.
+ *
+ * <p>
+ * Only the code and message of a rejection are kept, a rejected DID is
+ * rejected again with a new exception without a cause and stack trace, without
+ * parsing or decoding it. A DID longer than {@value #MAX_LENGTH} characters is
+ * not cached, i.e. the memory held is bounded by {@code maxSize}.
+ * </p>
+ *
+ * <p>
+ * Lookups do not lock. Entries are distributed over segments, each evicting an
+ * approximately least recently used entry once full.
+ * </p>
+ *
+ * @see DidKeyResolver.Builder#negativeCache(int)
+ */
+public final class DidKeyRejectionCache {
+
+    /** Longest cached DID, longer than any valid {@code did:key} in practice. */
+    static final int MAX_LENGTH = 1024;
+
+    final Segment<Rejection>[] segments;
+    final int mask;
+    final int maxSize;
+
+    final LongAdder hits;
+
+    DidKeyRejectionCache(final int maxSize) {
+        this.maxSize = maxSize;
+        this.segments = Segment.create(maxSize);
+        this.mask = segments.length - 1;
+        this.hits = new LongAdder();
+    }
+
+    /**
+     * Creates a new empty cache holding at most {@code maxSize} rejections.
+     *
+     * @param maxSize the maximum number of cached rejections
+     * @return a new cache instance
+     * @throws IllegalArgumentException if {@code maxSize} is less than one
+     */
+    public static DidKeyRejectionCache create(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than zero, but was [" + maxSize + "].");
+        }
+        return new DidKeyRejectionCache(maxSize);
+    }
+
+    /**
+     * Returns a new exception, without a cause and stack trace, with the code
+     * and message the given DID has been rejected with.
+     *
+     * @param did the DID
+     * @return a new exception or {@code null} if not present
+     */
+    public DidResolutionException get(final String did) {
+        Objects.requireNonNull(did);
+
+        final Rejection rejection = segment(did).get(did);
+
+        if (rejection == null) {
+            return null;
+        }
+        hits.increment();
+        return new StacklessResolutionException(did, rejection.code, rejection.message, null);
+    }
+
+    /**
+     * Stores the code and message of a rejection, possibly evicting an
+     * approximately least recently used entry of the same segment. A DID longer
+     * than {@value #MAX_LENGTH} characters is ignored.
+     *
+     * @param did       the DID
+     * @param exception the exception the DID has been rejected with
+     */
+    public void put(final String did, final DidResolutionException exception) {
+        Objects.requireNonNull(did);
+        Objects.requireNonNull(exception);
+
+        if (did.length() > MAX_LENGTH) {
+            return;
+        }
+
+        final Segment<Rejection> segment = segment(did);
+
+        synchronized (segment) {
+            segment.put(did, new Rejection(exception.getCode(), exception.getMessage()), true);
+        }
+    }
+
+    /** Removes all cached rejections. The hit counter is preserved. */
+    public void clear() {
+        for (final Segment<Rejection> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /** @return the number of cached rejections */
+    public int size() {
+        int size = 0;
+        for (final Segment<Rejection> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /** @return the maximum number of cached rejections */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of DIDs rejected from the cache */
+    public long hits() {
+        return hits.sum();
+    }
+
+    final Segment<Rejection> segment(final String did) {
+        final int hash = did.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    /** The code and message of a rejection. */
+    static final class Rejection {
+
+        final Code code;
+        final String message;
+
+        Rejection(final Code code, final String message) {
+            this.code = code;
+            this.message = message;
+        }
+    }
+}
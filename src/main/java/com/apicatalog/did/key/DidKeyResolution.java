@@ -0,0 +1,59 @@
+package com.apicatalog.did.key;
+
+import java.util.Objects;
+
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+
+/**
+ * Outcome of a single DID resolution within a batch, holding either the
+ * resolved document or the exception the resolution failed with.
+ *
+ * @see DidKeyResolver#resolveAll(java.util.Collection)
+ */
+public final class DidKeyResolution {
+
+    final ResolvedDidDocument document;
+    final DidResolutionException exception;
+
+    DidKeyResolution(ResolvedDidDocument document, DidResolutionException exception) {
+        this.document = document;
+        this.exception = exception;
+    }
+
+    static DidKeyResolution of(ResolvedDidDocument document) {
+        return new DidKeyResolution(Objects.requireNonNull(document), null);
+    }
+
+    static DidKeyResolution failed(DidResolutionException exception) {
+        return new DidKeyResolution(null, Objects.requireNonNull(exception));
+    }
+
+    /** @return {@code true} if the DID has been resolved */
+    public boolean isResolved() {
+        return document != null;
+    }
+
+    /** @return the resolved document or {@code null} if the resolution failed */
+    public ResolvedDidDocument document() {
+        return document;
+    }
+
+    /** @return the failure or {@code null} if the DID has been resolved */
+    public DidResolutionException exception() {
+        return exception;
+    }
+
+    /**
+     * Returns the resolved document or throws the failure.
+     *
+     * @return the resolved document
+     * @throws DidResolutionException if the resolution failed
+     */
+    public ResolvedDidDocument get() throws DidResolutionException {
+        if (exception != null) {
+            throw exception;
+        }
+        return document;
+    }
+}
@@ -1,13 +1,19 @@
 package com.apicatalog.did.key;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import com.apicatalog.did.Did;
@@ -20,6 +26,7 @@ import com.apicatalog.did.resolver.DidResolutionException.Code;
 import com.apicatalog.did.resolver.DidResolver;
 import com.apicatalog.did.resolver.ResolvedDidDocument;
 import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
 
 /**
  * {@link DidResolver} implementation for the {@code did:key} method.
@@ -51,6 +58,18 @@ public class DidKeyResolver implements DidResolver {
     public static String JWK_2020_TYPE = "https://w3id.org/security#JsonWebKey2020";
     /** Verification method type URI for JsonWebKey. */
     public static String JWK_TYPE = "https://w3id.org/security#JsonWebKey";
+    /** Verification method type URI for Ed25519VerificationKey2020. */
+    public static final String ED25519_2020_TYPE = "https://w3id.org/security#Ed25519VerificationKey2020";
+    /** Verification method type URI for X25519KeyAgreementKey2020. */
+    public static final String X25519_2020_TYPE = "https://w3id.org/security#X25519KeyAgreementKey2020";
+
+    /** Batches up to this size are resolved by the calling thread. */
+    static final int BATCH_THRESHOLD = 32;
+
+    /** Number of derived key agreement keys kept by a resolver. */
+    static final int KEY_AGREEMENT_CACHE_SIZE = 1024;
+
+    static final DidKeyJwkMethodProvider LAZY_JWK = DidKeyJwkMethodProvider.withDefaults().lazy(true).build();
 
     /** Supported multicodecs. */
     protected final MulticodecDecoder codecs;
@@ -58,8 +77,27 @@ public class DidKeyResolver implements DidResolver {
     protected final Function<DidKey, Collection<DidVerificationMethod>> provider;
     /** Provides unique verification method identifier for the given did:key */
     protected final Function<DidKey, DidUrl> keyToId;
-    /** Placeholder for optional encryption key derivation support. */
-    protected boolean encryptionKeyDerivation;
+    /** Optional cache of resolved documents, {@code null} if disabled. */
+    protected final DidKeyResolverCache cache;
+    /** Executor running asynchronous and batch resolutions. */
+    protected final Executor executor;
+    /** Optional cache of rejected DIDs, {@code null} if disabled. */
+    protected final DidKeyRejectionCache rejections;
+    /** Creates resolution exceptions without a stack trace if {@code true}. */
+    protected final boolean stackless;
+    /** Optional listener of resolution events, {@code null} if disabled. */
+    protected final DidKeyResolverListener listener;
+    /**
+     * Verification method providers by type, in registration order, or
+     * {@code null} if not known.
+     */
+    protected final Map<String, VerificationMethodProvider> methods;
+    /** Enables derivation of {@code X25519} key agreement keys if {@code true}. */
+    protected volatile boolean encryptionKeyDerivation;
+    /** Memoized key agreement derivation. */
+    protected final DidKeyX25519Derivation keyAgreement;
+    /** Type of derived key agreement methods, see {@link #agreementType(Map)}. */
+    protected final String agreementType;
 
     protected DidKeyResolver(final MulticodecDecoder codecs,
             final Function<DidKey, Collection<DidVerificationMethod>> provider,
@@ -67,7 +105,52 @@ public class DidKeyResolver implements DidResolver {
         this.codecs = codecs;
         this.provider = provider;
         this.keyToId = keyToId;
+        this.cache = null;
+        this.executor = ForkJoinPool.commonPool();
+        this.rejections = null;
+        this.stackless = false;
+        this.listener = null;
+        this.methods = null;
         this.encryptionKeyDerivation = false;
+        this.keyAgreement = DidKeyX25519Derivation.create(KEY_AGREEMENT_CACHE_SIZE);
+        this.agreementType = MULTIKEY_TYPE;
+    }
+
+    /**
+     * Creates a new resolver configured by the given builder. Registered
+     * providers are timed if a listener is set.
+     *
+     * @param builder the resolver configuration
+     */
+    protected DidKeyResolver(final Builder builder) {
+
+        final Function<DidKey, DidUrl> keyToId = builder.keyToId;
+
+        final Map<String, VerificationMethodProvider> methods = new LinkedHashMap<>(builder.providers.size());
+        for (final Entry<String, VerificationMethodProvider> provider : builder.providers.entrySet()) {
+            methods.put(provider.getKey(), builder.listener != null
+                    ? Builder.timed(provider.getValue(), builder.listener)
+                    : provider.getValue());
+        }
+
+        if (methods.size() == 1) {
+            final Entry<String, VerificationMethodProvider> provider = methods.entrySet().iterator().next();
+            this.provider = key -> Collections.singleton(provider.getValue().get(keyToId.apply(key), key, provider.getKey()));
+        } else {
+            this.provider = key -> createSignatureMethods(key, methods, keyToId);
+        }
+
+        this.codecs = builder.codecs;
+        this.keyToId = keyToId;
+        this.cache = builder.cache;
+        this.executor = builder.executor;
+        this.rejections = builder.rejections;
+        this.stackless = builder.stackless;
+        this.listener = builder.listener;
+        this.methods = methods;
+        this.encryptionKeyDerivation = builder.encryptionKeyDerivation;
+        this.keyAgreement = DidKeyX25519Derivation.create(KEY_AGREEMENT_CACHE_SIZE);
+        this.agreementType = agreementType(methods);
     }
 
     /**
@@ -92,11 +175,39 @@ public class DidKeyResolver implements DidResolver {
      */
     public ResolvedDidDocument resolve(final URI did) throws DidResolutionException {
         Objects.requireNonNull(did, "DID URI must not be null.");
+
+        final long start = listener != null ? System.nanoTime() : 0L;
+
+        final ResolvedDidDocument cached = cached(did);
+        if (cached != null) {
+            return resolved(start, cached);
+        }
+        return resolveUncached(start, did);
+    }
+
+    /** Resolves a DID URI not found in the cache, see {@link #resolve(URI)}. */
+    final ResolvedDidDocument resolveUncached(final long start, final URI did) throws DidResolutionException {
+
+        final String input = did.toString();
+
+        final String method = method(input);
+        if (method != null && !DidKey.METHOD_NAME.equals(method)) {
+            throw unsupported(did.toASCIIString(), method);
+        }
+
+        rejected(input);
+
+        if (!DidKeyFilter.test(input)) {
+            throw reject(input, failure(did.toASCIIString(), Code.InvalidDid, "Failed to resolve DID URI: " + did + ", not a did:key.", null));
+        }
+
+        final DidKey didKey;
         try {
-            return resolve(DidKey.of(did, codecs));
+            didKey = DidKey.of(Did.of(did), codecs, listener);
         } catch (IllegalArgumentException e) {
-            throw new DidResolutionException(did.toASCIIString(), "Failed to resolve DID URI: " + did, e);
+            throw reject(input, failure(did.toASCIIString(), Code.InvalidDid, "Failed to resolve DID URI: " + did, e));
         }
+        return resolved(start, create(didKey));
     }
 
     /**
@@ -111,20 +222,40 @@ public class DidKeyResolver implements DidResolver {
     public ResolvedDidDocument resolve(final Did did) throws DidResolutionException {
         Objects.requireNonNull(did, "DID must not be null.");
 
+        final long start = listener != null ? System.nanoTime() : 0L;
+
+        final ResolvedDidDocument cached = cached(did);
+        if (cached != null) {
+            return resolved(start, cached);
+        }
+        return resolveUncached(start, did);
+    }
+
+    /** Resolves a DID not found in the cache, see {@link #resolve(Did)}. */
+    final ResolvedDidDocument resolveUncached(final long start, final Did did) throws DidResolutionException {
+
         if (!DidKey.METHOD_NAME.equals(did.getMethod())) {
-            throw new DidResolutionException(did.toString(),
-                    Code.UnsupportedMethod,
-                    "Unsupported DID method '" + did.getMethod() + "', expected 'key'.");
+            throw unsupported(did.toString(), did.getMethod());
+        }
+
+        final String input = did.toString();
+
+        rejected(input);
+
+        final String specificId = did.getMethodSpecificId();
+
+        if (!DidKeyFilter.testMethodSpecificId(specificId, 0, specificId.length())) {
+            throw reject(input, failure(input, Code.InvalidDid, "Invalid did:key value: " + did, null));
         }
 
         final DidKey didKey;
         try {
-            didKey = DidKey.of(did, codecs);
+            didKey = DidKey.of(did, codecs, listener);
         } catch (IllegalArgumentException e) {
-            throw new DidResolutionException(did.toString(), Code.InvalidDid, "Invalid did:key value: " + did, e);
+            throw reject(input, failure(input, Code.InvalidDid, "Invalid did:key value: " + did, e));
         }
 
-        return resolve(didKey);
+        return resolved(start, create(didKey));
     }
 
     /**
@@ -138,13 +269,596 @@ public class DidKeyResolver implements DidResolver {
     public ResolvedDidDocument resolve(final DidKey didKey) throws DidResolutionException {
         Objects.requireNonNull(didKey, "DidKey must not be null.");
 
-        if (encryptionKeyDerivation) {
-            throw new DidResolutionException(didKey.toString(),
-                    Code.Internal,
-                    "Encryption key derivation is not yet supported.");
+        final long start = listener != null ? System.nanoTime() : 0L;
+
+        final ResolvedDidDocument cached = cached(didKey);
+        if (cached != null) {
+            return resolved(start, cached);
+        }
+
+        return resolved(start, create(didKey));
+    }
+
+    /**
+     * Resolves the given plain {@code did:key} as {@link #resolve(Did)} does and
+     * writes the document. The characters are parsed in place, only the
+     * method-specific identifier is copied into a string, unless negative
+     * caching is enabled. A document serialized by the snapshot backing the
+     * cache is copied as is.
+     */
+    final void resolve(final CharSequence did, final DidKeyDocumentWriter out) throws DidResolutionException {
+
+        final long start = listener != null ? System.nanoTime() : 0L;
+
+        final String method = method(did);
+        if (method != null && !DidKey.METHOD_NAME.equals(method)) {
+            throw unsupported(did.toString(), method);
+        }
+
+        if (rejections != null) {
+            rejected(did.toString());
+        }
+
+        if (!DidKeyFilter.test(did)) {
+            final String input = did.toString();
+            throw reject(input, failure(input, Code.InvalidDid, "Invalid did:key value: " + did, null));
+        }
+
+        final DidKey didKey;
+        try {
+            didKey = DidKey.parse(did, codecs, listener);
+        } catch (IllegalArgumentException e) {
+            final String input = did.toString();
+            throw reject(input, failure(input, Code.InvalidDid, "Invalid did:key value: " + did, e));
+        }
+
+        // snapshots do not keep derived key agreement methods
+        final ByteBuffer json = cache != null && cache.snapshot != null
+                && !(encryptionKeyDerivation && didKey.codecCode() == KeyCodec.ED25519_PUBLIC_KEY.code())
+                        ? cache.snapshot.json(didKey.getMethodSpecificId())
+                        : null;
+
+        if (json != null) {
+            out.raw(json);
+            if (listener != null) {
+                listener.resolved(didKey.codec(), System.nanoTime() - start);
+            }
+            return;
+        }
+
+        final ResolvedDidDocument cached = cached(didKey);
+        out.write(resolved(start, cached != null ? cached : create(didKey)));
+    }
+
+    /**
+     * Dereferences a verification method URI, e.g.
+     * {@code did:key:z6Mk...#z6Mk...}, see {@link #dereference(DidUrl)}.
+     *
+     * @param url the verification method URI
+     * @return the verification method
+     * @throws NullPointerException   if {@code url} is {@code null}
+     * @throws DidResolutionException if the URI is not a valid {@code did:key}
+     *                                URL or does not identify a verification
+     *                                method of the DID document
+     */
+    public DidVerificationMethod dereference(final URI url) throws DidResolutionException {
+        Objects.requireNonNull(url, "DID URL must not be null.");
+
+        final DidUrl didUrl;
+        try {
+            didUrl = DidUrl.of(url);
+        } catch (IllegalArgumentException e) {
+            throw failure(url.toASCIIString(), Code.InvalidDid, "Failed to dereference DID URL: " + url, e);
+        }
+        return dereference(didUrl, null);
+    }
+
+    /**
+     * Dereferences a verification method URL, e.g.
+     * {@code did:key:z6Mk...#z6Mk...}, into the verification method of the
+     * first registered type, see {@link #dereference(DidUrl, String)}.
+     *
+     * @param url the verification method URL
+     * @return the verification method
+     * @throws NullPointerException   if {@code url} is {@code null}
+     * @throws DidResolutionException if the URL is not a valid {@code did:key}
+     *                                URL or does not identify a verification
+     *                                method of the DID document
+     */
+    public DidVerificationMethod dereference(final DidUrl url) throws DidResolutionException {
+        return dereference(url, null);
+    }
+
+    /**
+     * Dereferences a verification method URL, e.g.
+     * {@code did:key:z6Mk...#z6Mk...}, into the verification method of the
+     * given type it identifies.
+     *
+     * <p>
+     * The URL is compared with the configured
+     * {@link Builder#verificationMethodId(Function) verification method id}
+     * first, and only the method of the requested type is created. A cached
+     * document is searched instead, if available. The whole document is resolved
+     * if encryption key derivation is enabled, i.e. to dereference a
+     * {@code keyAgreement} method.
+     * </p>
+     *
+     * @param url  the verification method URL
+     * @param type the verification method type, or {@code null} for the first
+     *             registered type
+     * @return the verification method
+     * @throws NullPointerException   if {@code url} is {@code null}
+     * @throws DidResolutionException if the URL is not a valid {@code did:key}
+     *                                URL or does not identify a verification
+     *                                method of the given type
+     */
+    public DidVerificationMethod dereference(final DidUrl url, final String type) throws DidResolutionException {
+        Objects.requireNonNull(url, "DID URL must not be null.");
+
+        final String id = url.toString();
+
+        if (!DidKey.METHOD_NAME.equals(url.getMethod())) {
+            throw unsupported(id, url.getMethod());
+        }
+
+        if (methods == null || encryptionKeyDerivation) {
+            return find(id, type, resolve(url));
+        }
+
+        final ResolvedDidDocument cached = cached(url);
+        if (cached != null) {
+            return find(id, type, cached);
+        }
+
+        final String specificId = url.getMethodSpecificId();
+
+        if (!DidKeyFilter.testMethodSpecificId(specificId, 0, specificId.length())) {
+            throw failure(id, Code.InvalidDid, "Invalid did:key value: " + url, null);
+        }
+
+        final DidKey didKey;
+        try {
+            didKey = DidKey.of(url, codecs, listener);
+        } catch (IllegalArgumentException e) {
+            throw failure(id, Code.InvalidDid, "Invalid did:key value: " + url, e);
+        }
+
+        // no provider is called unless the URL is the configured method id
+        final DidUrl methodId = keyToId.apply(didKey);
+        if (!id.equals(methodId.toString())) {
+            throw notFound(id);
+        }
+
+        final String methodType = type != null ? type : methods.keySet().iterator().next();
+
+        final VerificationMethodProvider provider = methods.get(methodType);
+        if (provider == null) {
+            throw notFound(id);
+        }
+        return provider.get(methodId, didKey, methodType);
+    }
+
+    /**
+     * Returns the verification method of the given id and type, any type if
+     * {@code null}, or throws if there is none.
+     */
+    final DidVerificationMethod find(final String id, final String type, final ResolvedDidDocument document) throws DidResolutionException {
+        for (final DidVerificationMethod method : document.document().verification()) {
+            if (matches(method, id, type)) {
+                return method;
+            }
+        }
+        for (final DidVerificationMethod method : document.document().keyAgreement()) {
+            if (matches(method, id, type)) {
+                return method;
+            }
+        }
+        throw notFound(id);
+    }
+
+    static final boolean matches(final DidVerificationMethod method, final String id, final String type) {
+        return method.id() != null
+                && id.equals(method.id().toString())
+                && (type == null || type.equals(method.type()));
+    }
+
+    final DidResolutionException notFound(final String id) {
+        return failure(id, Code.InvalidDid, "Verification method [" + id + "] not found.", null);
+    }
+
+    /**
+     * Resolves a {@link URI} asynchronously using the resolver's executor. A
+     * cached document is returned as a completed future.
+     *
+     * @param did the DID URI to resolve
+     * @return a future completed with the resolved DID document, or
+     *         exceptionally with {@link DidResolutionException} if resolution
+     *         fails
+     * @throws NullPointerException if {@code did} is {@code null}
+     * @see Builder#executor(Executor)
+     */
+    public CompletableFuture<ResolvedDidDocument> resolveAsync(final URI did) {
+        Objects.requireNonNull(did, "DID URI must not be null.");
+
+        final ResolvedDidDocument cached = cached(did);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // the cache has been searched already
+        return async(did, miss -> resolveUncached(listener != null ? System.nanoTime() : 0L, miss));
+    }
+
+    /**
+     * Resolves a {@link Did} asynchronously using the resolver's executor. A
+     * cached document is returned as a completed future.
+     *
+     * @param did the DID to resolve
+     * @return a future completed with the resolved DID document, or
+     *         exceptionally with {@link DidResolutionException} if resolution
+     *         fails
+     * @throws NullPointerException if {@code did} is {@code null}
+     * @see Builder#executor(Executor)
+     */
+    public CompletableFuture<ResolvedDidDocument> resolveAsync(final Did did) {
+        Objects.requireNonNull(did, "DID must not be null.");
+
+        final ResolvedDidDocument cached = cached(did);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // the cache has been searched already
+        return async(did, miss -> resolveUncached(listener != null ? System.nanoTime() : 0L, miss));
+    }
+
+    final <T> CompletableFuture<ResolvedDidDocument> async(final T did, final Resolution<T> resolution) {
+        final CompletableFuture<ResolvedDidDocument> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(resolution.resolve(did));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. RejectedExecutionException
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Resolves a batch of DID URIs using the resolver's executor.
+     *
+     * @param dids the DID URIs to resolve
+     * @return the resolutions in the input order
+     * @throws NullPointerException if {@code dids} or any of its elements is
+     *                              {@code null}
+     * @see #resolveAll(Collection, Executor)
+     */
+    public List<DidKeyResolution> resolveAll(final Collection<URI> dids) {
+        return resolveAll(dids, executor);
+    }
+
+    /**
+     * Resolves a batch of DID URIs. A failure is reported as a
+     * {@link DidKeyResolution} and does not affect the other resolutions.
+     * Duplicates are resolved only once. Batches larger than a few dozen DIDs
+     * are split into chunks resolved by the given executor.
+     *
+     * @param dids     the DID URIs to resolve
+     * @param executor the executor to resolve chunks
+     * @return the resolutions in the input order
+     * @throws NullPointerException if any argument or element of {@code dids}
+     *                              is {@code null}
+     */
+    public List<DidKeyResolution> resolveAll(final Collection<URI> dids, final Executor executor) {
+        return batch(dids, executor, did -> resolve(did));
+    }
+
+    /**
+     * Resolves a batch of DIDs using the resolver's executor.
+     *
+     * @param dids the DIDs to resolve
+     * @return the resolutions in the input order
+     * @throws NullPointerException if {@code dids} or any of its elements is
+     *                              {@code null}
+     * @see #resolveAll(Collection, Executor)
+     */
+    public List<DidKeyResolution> resolveAllDids(final Collection<? extends Did> dids) {
+        return resolveAllDids(dids, executor);
+    }
+
+    /**
+     * Resolves a batch of DIDs, see {@link #resolveAll(Collection, Executor)}.
+     *
+     * @param dids     the DIDs to resolve
+     * @param executor the executor to resolve chunks
+     * @return the resolutions in the input order
+     * @throws NullPointerException if any argument or element of {@code dids}
+     *                              is {@code null}
+     */
+    public List<DidKeyResolution> resolveAllDids(final Collection<? extends Did> dids, final Executor executor) {
+        return batch(dids, executor, did -> resolve(did));
+    }
+
+    final <T> List<DidKeyResolution> batch(final Collection<? extends T> dids, final Executor executor, final Resolution<T> resolution) {
+        Objects.requireNonNull(dids, "DIDs must not be null.");
+        Objects.requireNonNull(executor, "Executor must not be null.");
+
+        // collapse duplicates, slots maps an input position to a unique DID
+        final Map<T, Integer> index = new HashMap<>(dids.size() * 2);
+        final List<T> unique = new ArrayList<>(dids.size());
+        final int[] slots = new int[dids.size()];
+
+        int position = 0;
+        for (final T did : dids) {
+            Objects.requireNonNull(did, "DID must not be null.");
+            final Integer slot = index.putIfAbsent(did, unique.size());
+            if (slot == null) {
+                slots[position++] = unique.size();
+                unique.add(did);
+            } else {
+                slots[position++] = slot;
+            }
+        }
+
+        final DidKeyResolution[] results = new DidKeyResolution[unique.size()];
+
+        if (unique.size() <= BATCH_THRESHOLD) {
+            resolveRange(unique, 0, unique.size(), results, resolution);
+
+        } else {
+            final int chunk = Math.max(BATCH_THRESHOLD,
+                    (unique.size() + 4 * Runtime.getRuntime().availableProcessors() - 1)
+                            / (4 * Runtime.getRuntime().availableProcessors()));
+
+            final CompletableFuture<?>[] tasks = new CompletableFuture<?>[(unique.size() + chunk - 1) / chunk];
+
+            for (int i = 0; i < tasks.length; i++) {
+                final int from = i * chunk;
+                final int to = Math.min(unique.size(), from + chunk);
+                tasks[i] = CompletableFuture.runAsync(() -> resolveRange(unique, from, to, results, resolution), executor);
+            }
+
+            Futures.join(CompletableFuture.allOf(tasks));
+        }
+
+        final List<DidKeyResolution> resolutions = new ArrayList<>(slots.length);
+        for (final int slot : slots) {
+            resolutions.add(results[slot]);
+        }
+        return Collections.unmodifiableList(resolutions);
+    }
+
+    static final <T> void resolveRange(final List<T> dids, final int from, final int to, final DidKeyResolution[] results, final Resolution<T> resolution) {
+        for (int i = from; i < to; i++) {
+            final T did = dids.get(i);
+            try {
+                results[i] = DidKeyResolution.of(resolution.resolve(did));
+
+            } catch (DidResolutionException e) {
+                results[i] = DidKeyResolution.failed(e);
+
+            } catch (IllegalArgumentException e) {
+                results[i] = DidKeyResolution.failed(new DidResolutionException(did.toString(), Code.InvalidDid, "Failed to resolve DID: " + did, e));
+
+            } catch (RuntimeException e) {
+                // e.g. a custom provider, must not fail the whole batch
+                results[i] = DidKeyResolution.failed(new DidResolutionException(did.toString(), Code.Internal, "Failed to resolve DID: " + did, e));
+            }
+        }
+    }
+
+    /**
+     * Creates a new document for the given key and stores it in the cache, if
+     * enabled. A provider failure, e.g. a key type a verification method type
+     * does not support, is reported as {@link DidResolutionException} with the
+     * message of the failure.
+     */
+    final ResolvedDidDocument create(final DidKey didKey) throws DidResolutionException {
+
+        final Collection<DidVerificationMethod> agreement;
+        final Collection<DidVerificationMethod> methods;
+        try {
+            agreement = encryptionKeyDerivation
+                    ? agreementMethods(didKey)
+                    : Collections.emptySet();
+
+            methods = provider.apply(didKey);
+
+        } catch (IllegalArgumentException e) {
+            throw failure(didKey.toString(), Code.InvalidDid, message(didKey, e), e);
+
+        } catch (RuntimeException e) {
+            throw failure(didKey.toString(), Code.Internal, message(didKey, e), e);
+        }
+
+        final ResolvedDidDocument document = ResolvedDidDocument.of(Document.of(didKey, methods, agreement));
+
+        if (cache != null) {
+            cache.put(didKey.getMethodSpecificId(), document);
+        }
+        return document;
+    }
+
+    /** Returns the message of a provider failure, the DID if there is none. */
+    static final String message(final DidKey didKey, final RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : "Failed to resolve DID: " + didKey;
+    }
+
+    /**
+     * Returns the type of derived key agreement methods. A
+     * {@link #MULTIKEY_TYPE} method is preferred, a
+     * {@link #X25519_2020_TYPE} method accompanies {@link #ED25519_2020_TYPE}
+     * methods, and a JWK is used if only JWK types are registered.
+     */
+    static final String agreementType(final Map<String, VerificationMethodProvider> methods) {
+        if (methods.containsKey(MULTIKEY_TYPE)) {
+            return MULTIKEY_TYPE;
+        }
+        if (methods.containsKey(ED25519_2020_TYPE)) {
+            return X25519_2020_TYPE;
+        }
+        if (methods.containsKey(JWK_TYPE)) {
+            return JWK_TYPE;
+        }
+        if (methods.containsKey(JWK_2020_TYPE)) {
+            return JWK_2020_TYPE;
+        }
+        return MULTIKEY_TYPE;
+    }
+
+    /**
+     * Returns the {@code X25519} key agreement method derived from an
+     * {@code Ed25519} key, none for other key types.
+     */
+    final Collection<DidVerificationMethod> agreementMethods(final DidKey didKey) throws DidResolutionException {
+
+        if (didKey.codecCode() != KeyCodec.ED25519_PUBLIC_KEY.code()) {
+            return Collections.emptySet();
         }
 
-        return ResolvedDidDocument.of(Document.of(didKey, provider.apply(didKey)));
+        final DidKey x25519;
+        try {
+            x25519 = keyAgreement.derive(didKey);
+        } catch (IllegalArgumentException e) {
+            throw failure(didKey.toString(), Code.InvalidDid, "Failed to derive key agreement key of " + didKey, e);
+        }
+
+        final DidUrl id = DidUrl.fragment(didKey, x25519.getMethodSpecificId());
+
+        if (JWK_TYPE.equals(agreementType) || JWK_2020_TYPE.equals(agreementType)) {
+            return Collections.singleton(DidVerificationMethod.jwk(id, agreementType, didKey, DidKeyJwkMethodProvider.getJwk("X25519", x25519)));
+        }
+        return Collections.singleton(DidVerificationMethod.multibase(id, agreementType, didKey, x25519));
+    }
+
+    /**
+     * Returns a cached document for the given DID, or {@code null} if caching is
+     * disabled, the document is not cached, or the cached document cannot be
+     * returned.
+     */
+    final ResolvedDidDocument cached(final Did did) {
+        if (cache == null || !DidKey.METHOD_NAME.equals(did.getMethod())) {
+            return null;
+        }
+        final ResolvedDidDocument document = cache.get(did.getMethodSpecificId());
+        return document != null && current(document) ? document : null;
+    }
+
+    /**
+     * Returns a cached document for the given plain {@code did:key} URI, see
+     * {@link #cached(Did)}. The URI is not parsed, its method-specific
+     * identifier is looked up as is, i.e. only a valid identifier can be found.
+     */
+    final ResolvedDidDocument cached(final URI did) {
+        if (cache == null || did.getRawFragment() != null || !Did.SCHEME.equals(did.getScheme())) {
+            return null;
+        }
+        final String ssp = did.getRawSchemeSpecificPart();
+        if (ssp == null
+                || ssp.length() <= DidKey.METHOD_NAME.length() + 1
+                || !ssp.startsWith(DidKey.METHOD_NAME)
+                || ssp.charAt(DidKey.METHOD_NAME.length()) != ':') {
+            return null;
+        }
+        final ResolvedDidDocument document = cache.get(ssp.substring(DidKey.METHOD_NAME.length() + 1));
+        return document != null && current(document) ? document : null;
+    }
+
+    /**
+     * Returns {@code true} if the document has key agreement methods if and only
+     * if they are derived, i.e. has been created with the current encryption key
+     * derivation setting.
+     */
+    final boolean current(final ResolvedDidDocument document) {
+        final Did id = document.document().id();
+        final boolean derived = encryptionKeyDerivation
+                && id instanceof DidKey
+                && ((DidKey) id).codecCode() == KeyCodec.ED25519_PUBLIC_KEY.code();
+        return derived != document.document().keyAgreement().isEmpty();
+    }
+
+    /**
+     * Throws a new exception with the code and message the given DID has been
+     * rejected with, if the rejection is cached.
+     */
+    final void rejected(final String did) throws DidResolutionException {
+        if (rejections != null) {
+            final DidResolutionException exception = rejections.get(did);
+            if (exception != null) {
+                if (listener != null) {
+                    // only invalid DIDs are cached
+                    listener.failed(Code.InvalidDid);
+                }
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Caches the rejection of the given DID, if enabled. Only the code and
+     * message are kept, the given exception is returned as is.
+     */
+    final DidResolutionException reject(final String did, final DidResolutionException exception) {
+        if (rejections != null) {
+            rejections.put(did, exception);
+        }
+        return exception;
+    }
+
+    /** Reports a resolved document to the listener, if any. */
+    final ResolvedDidDocument resolved(final long start, final ResolvedDidDocument document) {
+        if (listener != null && document.document().id() instanceof DidKey) {
+            listener.resolved(((DidKey) document.document().id()).codec(), System.nanoTime() - start);
+        }
+        return document;
+    }
+
+    /**
+     * Returns the method name of the given {@code did:} string, or {@code null}
+     * if it is not a DID.
+     */
+    static final String method(final CharSequence did) {
+
+        final int start = Did.SCHEME.length() + 1;
+
+        if (did.length() <= start || !DidKey.startsWith(did, Did.SCHEME + ":")) {
+            return null;
+        }
+
+        for (int i = start; i < did.length(); i++) {
+            if (did.charAt(i) == ':') {
+                if (i == start) {
+                    return null;
+                }
+                // the common case, no copy
+                if (i == DidKey.PREFIX.length() - 1 && DidKey.startsWith(did, DidKey.PREFIX)) {
+                    return DidKey.METHOD_NAME;
+                }
+                return did.subSequence(start, i).toString();
+            }
+        }
+        return null;
+    }
+
+    /** Creates a new exception rejecting a DID method other than {@code key}. */
+    final DidResolutionException unsupported(final String did, final String method) {
+        return failure(did, Code.UnsupportedMethod, "Unsupported DID method '" + method + "', expected 'key'.", null);
+    }
+
+    /**
+     * Creates a new resolution exception, without a stack trace if configured,
+     * and reports the failure to the listener, if any.
+     */
+    final DidResolutionException failure(final String did, final Code code, final String message, final Throwable cause) {
+        if (listener != null) {
+            listener.failed(code);
+        }
+        return stackless
+                ? new StacklessResolutionException(did, code, message, cause)
+                : new DidResolutionException(did, code, message, cause);
     }
 
     /**
@@ -163,16 +877,54 @@ public class DidKeyResolver implements DidResolver {
                 key);
     }
 
+    /**
+     * Returns the cache of resolved documents.
+     *
+     * @return the cache or {@code null} if caching is not enabled
+     */
+    public DidKeyResolverCache cache() {
+        return cache;
+    }
+
+    /**
+     * Returns the cache of rejected DIDs.
+     *
+     * @return the cache or {@code null} if negative caching is not enabled
+     */
+    public DidKeyRejectionCache rejections() {
+        return rejections;
+    }
+
+    /**
+     * Returns the listener of resolution events.
+     *
+     * @return the listener or {@code null} if not set
+     */
+    public DidKeyResolverListener listener() {
+        return listener;
+    }
+
     /** @return {@code true} if encryption key derivation is enabled */
     public boolean encryptionKeyDerivation() {
         return this.encryptionKeyDerivation;
     }
 
     /**
-     * Enables or disables encryption key derivation.
+     * Enables or disables encryption key derivation. If enabled, a document of an
+     * {@code Ed25519} key gets an {@code X25519} {@code keyAgreement} method
+     * derived from the key. Derived keys are memoized and derived documents are
+     * cached as any other, a cached document created with the other setting is
+     * created again.
+     *
+     * <p>
+     * A resolution running concurrently may still use the previous setting.
+     * Prefer {@link Builder#encryptionKeyDerivation(boolean)} for a resolver
+     * shared by several threads.
+     * </p>
      *
      * @param encryptionKeyDerivation flag value
      * @return this resolver instance
+     * @see DidKeyX25519Derivation
      */
     public DidKeyResolver encryptionKeyDerivation(boolean encryptionKeyDerivation) {
         this.encryptionKeyDerivation = encryptionKeyDerivation;
@@ -187,11 +939,23 @@ public class DidKeyResolver implements DidResolver {
         final MulticodecDecoder codecs;
         final Map<String, VerificationMethodProvider> providers;
         Function<DidKey, DidUrl> keyToId;
+        DidKeyResolverCache cache;
+        Executor executor;
+        DidKeyRejectionCache rejections;
+        boolean stackless;
+        DidKeyResolverListener listener;
+        boolean encryptionKeyDerivation;
 
         protected Builder(final MulticodecDecoder codecs) {
             this.codecs = codecs;
             this.providers = new LinkedHashMap<>();
             this.keyToId = key -> DidUrl.fragment(key, key.getMethodSpecificId());
+            this.cache = null;
+            this.executor = ForkJoinPool.commonPool();
+            this.rejections = null;
+            this.stackless = false;
+            this.listener = null;
+            this.encryptionKeyDerivation = false;
         }
 
         /**
@@ -215,6 +979,111 @@ public class DidKeyResolver implements DidResolver {
             return this;
         }
 
+        /**
+         * Enables caching of resolved documents. A resolved document is kept in a
+         * bounded cache keyed by the {@code did:key} method-specific identifier and
+         * returned on subsequent resolutions of the same key.
+         *
+         * @param maxSize the maximum number of cached documents
+         * @return this builder
+         * @throws IllegalArgumentException if {@code maxSize} is less than one
+         */
+        public Builder cache(int maxSize) {
+            return cache(DidKeyResolverCache.create(maxSize));
+        }
+
+        /**
+         * Sets the cache of resolved documents. The cache may be shared only by
+         * resolvers configured the same way.
+         *
+         * @param cache the cache to use, or {@code null} to disable caching
+         * @return this builder
+         */
+        public Builder cache(DidKeyResolverCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Enables caching of rejected DIDs. A DID failing resolution is kept in a
+         * bounded cache and rejected again with the same code and message, without
+         * being parsed or decoded.
+         *
+         * @param maxSize the maximum number of cached rejections
+         * @return this builder
+         * @throws IllegalArgumentException if {@code maxSize} is less than one
+         */
+        public Builder negativeCache(int maxSize) {
+            return negativeCache(DidKeyRejectionCache.create(maxSize));
+        }
+
+        /**
+         * Sets the cache of rejected DIDs. The cache may be shared only by
+         * resolvers configured the same way.
+         *
+         * @param rejections the cache to use, or {@code null} to disable negative
+         *                   caching
+         * @return this builder
+         */
+        public Builder negativeCache(DidKeyRejectionCache rejections) {
+            this.rejections = rejections;
+            return this;
+        }
+
+        /**
+         * Enables or disables resolution exceptions without a stack trace, cheap to
+         * create when invalid input is expected at high rates. Disabled by default.
+         *
+         * @param stackless flag value
+         * @return this builder
+         */
+        public Builder stacklessExceptions(boolean stackless) {
+            this.stackless = stackless;
+            return this;
+        }
+
+        /**
+         * Sets the listener of resolution events, e.g.
+         * {@link DidKeyResolverMetrics}. The listener is notified about resolved
+         * documents, failures and the time spent by each verification method
+         * provider. Nothing is measured if no listener is set, the default.
+         *
+         * @param listener the listener to use, or {@code null} to disable
+         * @return this builder
+         */
+        public Builder listener(DidKeyResolverListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Enables or disables encryption key derivation. If enabled, a document of
+         * an {@code Ed25519} key gets an {@code X25519} {@code keyAgreement} method
+         * derived from the key. Disabled by default.
+         *
+         * @param encryptionKeyDerivation flag value
+         * @return this builder
+         * @see DidKeyResolver#encryptionKeyDerivation(boolean)
+         */
+        public Builder encryptionKeyDerivation(boolean encryptionKeyDerivation) {
+            this.encryptionKeyDerivation = encryptionKeyDerivation;
+            return this;
+        }
+
+        /**
+         * Sets the executor running asynchronous and batch resolutions. Defaults to
+         * {@link ForkJoinPool#commonPool()}. On Java 21 and later a virtual thread
+         * per task executor can be used.
+         *
+         * @param executor the executor to use
+         * @return this builder
+         * @throws NullPointerException if {@code executor} is {@code null}
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "Executor must not be null.");
+            return this;
+        }
+
         /**
          * Registers a verification method type and provider.
          *
@@ -250,6 +1119,16 @@ public class DidKeyResolver implements DidResolver {
             return method(methodType, DidKeyJwkMethodProvider.getInstance());
         }
 
+        /**
+         * Registers {@link #JWK_TYPE} verification methods whose JWK is computed on
+         * first access rather than at resolution time.
+         *
+         * @see DidKeyJwkMethodProvider.Builder#lazy(boolean)
+         */
+        public Builder lazyJwk() {
+            return method(JWK_TYPE, LAZY_JWK);
+        }
+
         /**
          * Builds a new {@link DidKeyResolver}.
          *
@@ -260,20 +1139,25 @@ public class DidKeyResolver implements DidResolver {
             if (providers.isEmpty()) {
                 throw new IllegalStateException("At least one verification method provider must be registered.");
             }
-            if (providers.size() == 1) {
-                final Entry<String, VerificationMethodProvider> provider = providers.entrySet().iterator().next();
-                return new DidKeyResolver(
-                        codecs,
-                        key -> Collections.singleton(provider.getValue().get(keyToId.apply(key), key, provider.getKey())),
-                        keyToId);
-            }
-            return new DidKeyResolver(
-                    codecs,
-                    key -> createSignatureMethods(key, providers, keyToId),
-                    keyToId);
+
+            return new DidKeyResolver(this);
+        }
+
+        static VerificationMethodProvider timed(final VerificationMethodProvider provider, final DidKeyResolverListener listener) {
+            return (id, key, type) -> {
+                final long start = System.nanoTime();
+                final DidVerificationMethod method = provider.get(id, key, type);
+                listener.method(key.codec(), type, System.nanoTime() - start);
+                return method;
+            };
         }
     }
 
+    @FunctionalInterface
+    interface Resolution<T> {
+        ResolvedDidDocument resolve(T did) throws DidResolutionException;
+    }
+
     static final Collection<DidVerificationMethod> createSignatureMethods(
             DidKey didKey,
             Map<String, VerificationMethodProvider> providers,
@@ -296,14 +1180,20 @@ public class DidKeyResolver implements DidResolver {
 
         final Did id;
         final Collection<DidVerificationMethod> method;
+        final Collection<DidVerificationMethod> keyAgreement;
 
-        Document(Did id, Collection<DidVerificationMethod> method) {
+        Document(Did id, Collection<DidVerificationMethod> method, Collection<DidVerificationMethod> keyAgreement) {
             this.id = Objects.requireNonNull(id, "DID must not be null.");
             this.method = Objects.requireNonNull(method, "Verification methods must not be null.");
+            this.keyAgreement = Objects.requireNonNull(keyAgreement, "Key agreement methods must not be null.");
         }
 
         public static Document of(Did id, Collection<DidVerificationMethod> methods) {
-            return new Document(id, methods);
+            return new Document(id, methods, Collections.emptySet());
+        }
+
+        public static Document of(Did id, Collection<DidVerificationMethod> methods, Collection<DidVerificationMethod> keyAgreement) {
+            return new Document(id, methods, keyAgreement);
         }
 
         @Override
@@ -326,6 +1216,11 @@ public class DidKeyResolver implements DidResolver {
             return method;
         }
 
+        @Override
+        public Collection<DidVerificationMethod> keyAgreement() {
+            return keyAgreement;
+        }
+
         @Override
         public Collection<DidVerificationMethod> capabilityInvocation() {
             return method;
@@ -0,0 +1,321 @@
+package com.apicatalog.did.key;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+
+/**
+ * Bounded, thread-safe cache of {@link ResolvedDidDocument} instances keyed by
+ * {@code did:key} method-specific identifier.
+ *
+ * <p>
+ * A {@code did:key} always resolves to the same document, so a resolved
+ * document can be reused for as long as the resolver configuration stays the
+ * same. Lookups do not lock. Entries are distributed over a fixed number of
+ * segments, each evicting an approximately least recently used entry once
+ * full, i.e. the oldest entry not looked up since the segment's clock hand
+ * passed it.
+ * </p>
+ *
+ * <p>
+ * An instance can be shared by resolvers only if they are configured the same
+ * way, i.e. produce identical documents for the same key.
+ * </p>
+ *
+ * <p>
+ * The cache can be written to a {@link DidKeySnapshot} file and backed by a
+ * snapshot opened in another process, serving the snapshot documents without
+ * resolving them again.
+ * </p>
+ *
+ * @see DidKeyResolver.Builder#cache(int)
+ */
+public final class DidKeyResolverCache {
+
+    /** Upper bound of the number of segments. */
+    static final int MAX_SEGMENTS = 16;
+
+    /** Minimal number of entries per segment before another one is added. */
+    static final int MIN_SEGMENT_CAPACITY = 8;
+
+    final Segment<ResolvedDidDocument>[] segments;
+    final int mask;
+    final int maxSize;
+
+    final LongAdder hits;
+    final LongAdder misses;
+
+    /** Optional snapshot consulted on a miss, {@code null} if none. */
+    final DidKeySnapshot snapshot;
+
+    DidKeyResolverCache(final int maxSize) {
+        this(maxSize, null);
+    }
+
+    DidKeyResolverCache(final int maxSize, final DidKeySnapshot snapshot) {
+        this.maxSize = maxSize;
+        this.snapshot = snapshot;
+
+        this.segments = Segment.create(maxSize);
+        this.mask = segments.length - 1;
+
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Creates a new empty cache holding at most {@code maxSize} documents.
+     *
+     * @param maxSize the maximum number of cached documents
+     * @return a new cache instance
+     * @throws IllegalArgumentException if {@code maxSize} is less than one
+     */
+    public static DidKeyResolverCache create(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than zero, but was [" + maxSize + "].");
+        }
+        return new DidKeyResolverCache(maxSize);
+    }
+
+    /**
+     * Creates a new cache backed by the given snapshot. A document missing in the
+     * cache is looked up in the snapshot and, if found, is cached and returned
+     * as a hit.
+     *
+     * @param maxSize  the maximum number of cached documents
+     * @param snapshot the snapshot to serve documents from
+     * @return a new cache instance
+     * @throws IllegalArgumentException if {@code maxSize} is less than one
+     * @throws NullPointerException     if {@code snapshot} is {@code null}
+     */
+    public static DidKeyResolverCache create(final int maxSize, final DidKeySnapshot snapshot) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be greater than zero, but was [" + maxSize + "].");
+        }
+        Objects.requireNonNull(snapshot, "Snapshot must not be null.");
+        return new DidKeyResolverCache(maxSize, snapshot);
+    }
+
+    /**
+     * Returns a cached document for the given method-specific identifier.
+     *
+     * @param id the {@code did:key} method-specific identifier
+     * @return the cached document or {@code null} if not present
+     */
+    public ResolvedDidDocument get(final String id) {
+        Objects.requireNonNull(id);
+
+        final Segment<ResolvedDidDocument> segment = segment(id);
+
+        ResolvedDidDocument document = segment.get(id);
+
+        if (document == null && snapshot != null) {
+            document = snapshot.get(id);
+            if (document != null) {
+                synchronized (segment) {
+                    segment.put(id, document, false);
+                }
+            }
+        }
+
+        if (document != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return document;
+    }
+
+    /**
+     * Stores a resolved document, possibly evicting an approximately least
+     * recently used entry of the same segment.
+     *
+     * @param id       the {@code did:key} method-specific identifier
+     * @param document the resolved document
+     */
+    public void put(final String id, final ResolvedDidDocument document) {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(document);
+
+        final Segment<ResolvedDidDocument> segment = segment(id);
+
+        synchronized (segment) {
+            segment.put(id, document, true);
+        }
+    }
+
+    /**
+     * Writes the cached documents to a snapshot file, replacing an existing file.
+     * The snapshot can be opened by {@link DidKeySnapshot#open(Path,
+     * com.apicatalog.multicodec.MulticodecDecoder)}.
+     *
+     * @param file the snapshot file
+     * @param json {@code true} to include documents serialized to JSON
+     * @return the number of written documents
+     * @throws IOException if the file cannot be written
+     */
+    public int snapshot(final Path file, final boolean json) throws IOException {
+        Objects.requireNonNull(file);
+
+        final Map<String, ResolvedDidDocument> documents = new LinkedHashMap<>(size() * 2);
+        for (final Segment<ResolvedDidDocument> segment : segments) {
+            for (final Entry<ResolvedDidDocument> entry : segment.entries.values()) {
+                documents.put(entry.key, entry.value);
+            }
+        }
+        return DidKeySnapshot.write(documents, file, json);
+    }
+
+    /** @return the snapshot backing this cache, or {@code null} if none */
+    public DidKeySnapshot backingSnapshot() {
+        return snapshot;
+    }
+
+    /** Removes all cached documents. Hit and miss counters are preserved. */
+    public void clear() {
+        for (final Segment<ResolvedDidDocument> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /** @return the number of cached documents */
+    public int size() {
+        int size = 0;
+        for (final Segment<ResolvedDidDocument> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /** @return the maximum number of cached documents */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of lookups served from the cache */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups not found in the cache */
+    public long misses() {
+        return misses.sum();
+    }
+
+    final Segment<ResolvedDidDocument> segment(final String id) {
+        final int hash = id.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    /** A cached value, marked as referenced when looked up. */
+    static final class Entry<V> {
+
+        final String key;
+        volatile V value;
+        volatile boolean referenced;
+
+        Entry(final String key, final V value) {
+            this.key = key;
+            this.value = value;
+            this.referenced = false;
+        }
+    }
+
+    /**
+     * Entries read without locking, and a second chance eviction queue guarded
+     * by the segment's monitor.
+     */
+    static final class Segment<V> {
+
+        final ConcurrentHashMap<String, Entry<V>> entries;
+        /** Entries in the order of insertion, the head is the clock hand. */
+        final ArrayDeque<Entry<V>> clock;
+        final int capacity;
+
+        Segment(final int capacity) {
+            this.entries = new ConcurrentHashMap<>();
+            this.clock = new ArrayDeque<>();
+            this.capacity = capacity;
+        }
+
+        /**
+         * Creates segments holding {@code maxSize} entries in total, the number of
+         * segments is a power of two.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        static <V> Segment<V>[] create(final int maxSize) {
+            int count = 1;
+            while (count < MAX_SEGMENTS && count * 2 * MIN_SEGMENT_CAPACITY <= maxSize) {
+                count <<= 1;
+            }
+
+            final Segment<V>[] segments = new Segment[count];
+            for (int i = 0; i < count; i++) {
+                segments[i] = new Segment<>(maxSize / count + (i < maxSize % count ? 1 : 0));
+            }
+            return segments;
+        }
+
+        V get(final String key) {
+            final Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            // a hot entry is not written again on each read
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.value;
+        }
+
+        /**
+         * Stores the value, replacing a present one if {@code replace} is
+         * {@code true}, and evicts the first entry not referenced since the
+         * clock hand passed it once full. Must be called holding the segment's
+         * monitor.
+         */
+        void put(final String key, final V value, final boolean replace) {
+
+            final Entry<V> present = entries.get(key);
+            if (present != null) {
+                if (replace) {
+                    present.value = value;
+                }
+                return;
+            }
+
+            final Entry<V> entry = new Entry<>(key, value);
+            entries.put(key, entry);
+            clock.add(entry);
+
+            while (entries.size() > capacity) {
+                final Entry<V> eldest = clock.poll();
+                if (eldest.referenced) {
+                    eldest.referenced = false;
+                    clock.add(eldest);
+                } else {
+                    entries.remove(eldest.key, eldest);
+                }
+            }
+        }
+
+        /** Must be called holding the segment's monitor. */
+        void clear() {
+            entries.clear();
+            clock.clear();
+        }
+
+        int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.apicatalog.did.key;
+
+import com.apicatalog.did.resolver.DidResolutionException.Code;
+import com.apicatalog.multicodec.Multicodec;
+
+/**
+ * Receives resolution events from a {@link DidKeyResolver}, e.g. to collect
+ * metrics.
+ *
+ * <p>
+ * Callbacks are invoked synchronously by resolving threads and must be
+ * thread-safe and cheap. A resolver without a listener does not measure
+ * anything.
+ * </p>
+ *
+ * @see DidKeyResolver.Builder#listener(DidKeyResolverListener)
+ * @see DidKeyResolverMetrics
+ */
+public interface DidKeyResolverListener {
+
+    /**
+     * Called when a document has been resolved, including documents returned
+     * from the cache.
+     *
+     * @param codec the key codec
+     * @param nanos the resolution time in nanoseconds
+     */
+    default void resolved(Multicodec codec, long nanos) {
+    }
+
+    /**
+     * Called when a resolution has failed, including rejections returned from
+     * the negative cache.
+     *
+     * @param code the failure code
+     */
+    default void failed(Code code) {
+    }
+
+    /**
+     * Called when a {@code did:key} has been parsed during resolution. The
+     * multicodec lookup takes the remaining {@code nanos - decodeNanos}.
+     *
+     * @param codec       the key codec
+     * @param decodeNanos the time spent decoding base58btc in nanoseconds
+     * @param nanos       the parsing time in nanoseconds
+     */
+    default void parsed(Multicodec codec, long decodeNanos, long nanos) {
+    }
+
+    /**
+     * Called when a verification method has been created.
+     *
+     * @param codec the key codec
+     * @param type  the verification method type
+     * @param nanos the time spent by the provider in nanoseconds
+     */
+    default void method(Multicodec codec, String type, long nanos) {
+    }
+}
@@ -0,0 +1,316 @@
+package com.apicatalog.did.key;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.apicatalog.did.resolver.DidResolutionException.Code;
+import com.apicatalog.multicodec.Multicodec;
+
+/**
+ * {@link DidKeyResolverListener} collecting resolution counts, failures by
+ * {@link Code} and latency histograms per key codec, per verification method
+ * type, and per key codec and verification method type, e.g. to tell EC and
+ * Ed25519 keys apart under the same JWK type.
+ *
+ * <p>
+ * Recording does not allocate once a codec or a method type has been seen.
+ * Counters are striped {@link LongAdder}s, latencies are kept in fixed-bucket
+ * {@link Histogram}s whose buckets are striped by thread.
+ * </p>
+ */
+public final class DidKeyResolverMetrics implements DidKeyResolverListener {
+
+    static final Code[] CODES = Code.values();
+
+    final ConcurrentHashMap<Multicodec, Histogram> codecs;
+    final ConcurrentHashMap<String, Histogram> methods;
+    /** Method creation latencies by method type and key codec. */
+    final ConcurrentHashMap<String, ConcurrentHashMap<Multicodec, Histogram>> methodCodecs;
+    final LongAdder[] failures;
+
+    DidKeyResolverMetrics() {
+        this.codecs = new ConcurrentHashMap<>();
+        this.methods = new ConcurrentHashMap<>();
+        this.methodCodecs = new ConcurrentHashMap<>();
+        this.failures = new LongAdder[CODES.length];
+        for (int i = 0; i < failures.length; i++) {
+            failures[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Creates a new empty metrics instance.
+     *
+     * @return a new metrics instance
+     */
+    public static DidKeyResolverMetrics create() {
+        return new DidKeyResolverMetrics();
+    }
+
+    @Override
+    public void resolved(final Multicodec codec, final long nanos) {
+        histogram(codecs, codec).record(nanos);
+    }
+
+    @Override
+    public void failed(final Code code) {
+        failures[code.ordinal()].increment();
+    }
+
+    @Override
+    public void method(final Multicodec codec, final String type, final long nanos) {
+        histogram(methods, type).record(nanos);
+
+        ConcurrentHashMap<Multicodec, Histogram> byCodec = methodCodecs.get(type);
+        if (byCodec == null) {
+            byCodec = methodCodecs.computeIfAbsent(type, k -> new ConcurrentHashMap<>());
+        }
+        histogram(byCodec, codec).record(nanos);
+    }
+
+    static final <K> Histogram histogram(final ConcurrentHashMap<K, Histogram> histograms, final K key) {
+        final Histogram histogram = histograms.get(key);
+        return histogram != null
+                ? histogram
+                : histograms.computeIfAbsent(key, k -> new Histogram());
+    }
+
+    /** @return the number of resolved documents */
+    public long resolutions() {
+        long count = 0;
+        for (final Histogram histogram : codecs.values()) {
+            count += histogram.count();
+        }
+        return count;
+    }
+
+    /** @return the number of failed resolutions */
+    public long failures() {
+        long count = 0;
+        for (final LongAdder failure : failures) {
+            count += failure.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of resolutions failed with the given code.
+     *
+     * @param code the failure code
+     * @return the number of failures
+     */
+    public long failures(final Code code) {
+        Objects.requireNonNull(code);
+        return failures[code.ordinal()].sum();
+    }
+
+    /**
+     * Returns the resolution latencies of keys of the given codec.
+     *
+     * @param codec the key codec
+     * @return the histogram or {@code null} if no such key has been resolved
+     */
+    public Histogram latency(final Multicodec codec) {
+        return codecs.get(Objects.requireNonNull(codec));
+    }
+
+    /**
+     * Returns the time spent creating verification methods of the given type.
+     *
+     * @param type the verification method type
+     * @return the histogram or {@code null} if no such method has been created
+     */
+    public Histogram latency(final String type) {
+        return methods.get(Objects.requireNonNull(type));
+    }
+
+    /**
+     * Returns the time spent creating verification methods of the given type for
+     * keys of the given codec.
+     *
+     * @param codec the key codec
+     * @param type  the verification method type
+     * @return the histogram or {@code null} if no such method has been created
+     */
+    public Histogram latency(final Multicodec codec, final String type) {
+        Objects.requireNonNull(codec);
+        final Map<Multicodec, Histogram> byCodec = methodCodecs.get(Objects.requireNonNull(type));
+        return byCodec != null ? byCodec.get(codec) : null;
+    }
+
+    /** @return resolution latencies by key codec */
+    public Map<Multicodec, Histogram> codecs() {
+        return Collections.unmodifiableMap(codecs);
+    }
+
+    /** @return verification method creation latencies by method type */
+    public Map<String, Histogram> methods() {
+        return Collections.unmodifiableMap(methods);
+    }
+
+    /**
+     * Returns the time spent creating verification methods of the given type by
+     * key codec.
+     *
+     * @param type the verification method type
+     * @return method creation latencies by key codec, empty if no such method
+     *         has been created
+     */
+    public Map<Multicodec, Histogram> methods(final String type) {
+        final Map<Multicodec, Histogram> byCodec = methodCodecs.get(Objects.requireNonNull(type));
+        return byCodec != null
+                ? Collections.unmodifiableMap(byCodec)
+                : Collections.emptyMap();
+    }
+
+    /** Removes all recorded values. */
+    public void reset() {
+        codecs.clear();
+        methods.clear();
+        methodCodecs.clear();
+        for (final LongAdder failure : failures) {
+            failure.reset();
+        }
+    }
+
+    /**
+     * Latency histogram with fixed, logarithmic buckets. Each power of two is
+     * split into eight buckets, a recorded value is kept with a relative error
+     * of at most 12.5%.
+     *
+     * <p>
+     * Buckets are kept in stripes selected by the recording thread, so threads
+     * recording the same latency do not contend on a single counter. A stripe
+     * is allocated on first use.
+     * </p>
+     */
+    public static final class Histogram {
+
+        static final int SUB_BITS = 3;
+        static final int SUB_BUCKETS = 1 << SUB_BITS;
+        static final int SIZE = (64 - SUB_BITS) << SUB_BITS;
+
+        /** Number of stripes, a power of two not exceeding 16. */
+        static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+
+        final AtomicReferenceArray<AtomicLongArray> stripes;
+        final LongAdder count;
+        final LongAdder total;
+
+        Histogram() {
+            this.stripes = new AtomicReferenceArray<>(STRIPES);
+            this.count = new LongAdder();
+            this.total = new LongAdder();
+        }
+
+        final void record(final long nanos) {
+            final long value = Math.max(0, nanos);
+            stripe().incrementAndGet(index(value));
+            count.increment();
+            total.add(value);
+        }
+
+        /** Returns the stripe of the current thread, allocating it if needed. */
+        final AtomicLongArray stripe() {
+            final long id = Thread.currentThread().getId();
+            final int index = (int) (id ^ (id >>> 32)) & (STRIPES - 1);
+
+            final AtomicLongArray stripe = stripes.get(index);
+            if (stripe != null) {
+                return stripe;
+            }
+            stripes.compareAndSet(index, null, new AtomicLongArray(SIZE));
+            return stripes.get(index);
+        }
+
+        static final int stripes(final int processors) {
+            int stripes = 1;
+            while (stripes < processors && stripes < 16) {
+                stripes <<= 1;
+            }
+            return stripes;
+        }
+
+        static final int index(final long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            final int msb = 63 - Long.numberOfLeadingZeros(value);
+            return ((msb - SUB_BITS + 1) << SUB_BITS) | (int) ((value >>> (msb - SUB_BITS)) & (SUB_BUCKETS - 1));
+        }
+
+        /** Returns the highest value falling into the given bucket. */
+        static final long upperBound(final int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            final int shift = (index >>> SUB_BITS) - 1;
+            final long lower = (long) (SUB_BUCKETS | (index & (SUB_BUCKETS - 1))) << shift;
+            return lower + (1L << shift) - 1;
+        }
+
+        /** @return the number of recorded values */
+        public long count() {
+            return count.sum();
+        }
+
+        /** @return the sum of recorded values in nanoseconds */
+        public long totalNanos() {
+            return total.sum();
+        }
+
+        /** @return the mean value in nanoseconds, or {@code 0} if empty */
+        public double mean() {
+            final long n = count.sum();
+            return n == 0 ? 0 : (double) total.sum() / n;
+        }
+
+        /**
+         * Returns an upper bound of the value below which the given percentage of
+         * recorded values falls.
+         *
+         * @param percentile the percentile, from {@code 0} to {@code 100}
+         * @return the value in nanoseconds, or {@code 0} if empty
+         * @throws IllegalArgumentException if {@code percentile} is out of range
+         */
+        public long percentile(final double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in range [0, 100], but was [" + percentile + "].");
+            }
+
+            final long[] snapshot = new long[SIZE];
+            long n = 0;
+            for (int s = 0; s < STRIPES; s++) {
+                final AtomicLongArray stripe = stripes.get(s);
+                if (stripe == null) {
+                    continue;
+                }
+                for (int i = 0; i < SIZE; i++) {
+                    final long bucket = stripe.get(i);
+                    snapshot[i] += bucket;
+                    n += bucket;
+                }
+            }
+
+            if (n == 0) {
+                return 0;
+            }
+
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100d * n));
+
+            long seen = 0;
+            for (int i = 0; i < SIZE; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(SIZE - 1);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.apicatalog.did.key;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.DidUrl;
+import com.apicatalog.did.document.DidDocument;
+import com.apicatalog.did.document.DidVerificationMethod;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+/**
+ * Read-only, memory-mapped snapshot of resolved {@code did:key} documents.
+ *
+ * <p>
+ * A snapshot is written from a {@link DidKeyResolverCache} and opened by
+ * another process to serve the same documents without resolving them again.
+ * Each entry holds the raw key bytes, the verification methods including
+ * computed JWKs, e.g. decompressed EC coordinates, and optionally the document
+ * serialized by {@link DidKeyDocumentWriter}. Entries are materialized on
+ * lookup, opening a snapshot only maps the file and verifies its checksum.
+ * </p>
+ *
+ * <p>
+ * The file starts with a header of a magic number, a format version, the
+ * number of entries, the index size and a CRC-32 checksum of the rest of the
+ * file, followed by an open-addressing index of entry offsets and the entries.
+ * </p>
+ *
+ * @see DidKeyResolverCache#snapshot(Path, boolean)
+ * @see DidKeyResolverCache#create(int, DidKeySnapshot)
+ */
+public final class DidKeySnapshot {
+
+    /** {@code DIKS} */
+    static final int MAGIC = 0x44494B53;
+
+    /** Current format version. */
+    static final int VERSION = 1;
+
+    /** Header: magic (4), version (4), count (4), slots (4), checksum (8). */
+    static final int HEADER = 24;
+
+    static final byte MULTIBASE = 0;
+    static final byte JWK = 1;
+
+    final ByteBuffer buffer;
+    final MulticodecDecoder codecs;
+    final int count;
+    final int slots;
+
+    DidKeySnapshot(final ByteBuffer buffer, final MulticodecDecoder codecs, final int count, final int slots) {
+        this.buffer = buffer;
+        this.codecs = codecs;
+        this.count = count;
+        this.slots = slots;
+    }
+
+    /**
+     * Opens a snapshot file. The file is memory-mapped and its checksum is
+     * verified.
+     *
+     * @param file   the snapshot file
+     * @param codecs the decoder providing key types
+     * @return an opened snapshot
+     * @throws IOException if the file cannot be read, is not a snapshot, has an
+     *                     unsupported version or a checksum mismatch
+     */
+    public static DidKeySnapshot open(final Path file, final MulticodecDecoder codecs) throws IOException {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(codecs);
+
+        final MappedByteBuffer buffer;
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot [" + file + "], unexpected size " + channel.size() + ".");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Invalid snapshot [" + file + "], not a did:key snapshot.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot [" + file + "] version " + buffer.getInt(4) + ", expected " + VERSION + ".");
+        }
+
+        final int count = buffer.getInt(8);
+        final int slots = buffer.getInt(12);
+
+        if (count < 0 || slots < 1 || Integer.bitCount(slots) != 1 || HEADER + 4L * slots > buffer.capacity()) {
+            throw new IOException("Invalid snapshot [" + file + "], corrupted header.");
+        }
+
+        final ByteBuffer content = buffer.duplicate();
+        content.position(HEADER);
+
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+
+        if (crc.getValue() != buffer.getLong(16)) {
+            throw new IOException("Invalid snapshot [" + file + "], checksum mismatch.");
+        }
+
+        return new DidKeySnapshot(buffer, codecs, count, slots);
+    }
+
+    /**
+     * Returns the document of the given method-specific identifier.
+     *
+     * @param id the {@code did:key} method-specific identifier
+     * @return a new document instance or {@code null} if not present
+     */
+    public ResolvedDidDocument get(final String id) {
+        Objects.requireNonNull(id);
+
+        final int offset = find(id);
+        if (offset == 0) {
+            return null;
+        }
+
+        final ByteBuffer entry = buffer.duplicate();
+        entry.position(offset + 4);
+
+        skip(entry);
+
+        final long code = entry.getInt() & 0xFFFFFFFFL;
+        final Multicodec codec = codecs.getRegistry().getCodec(code).orElse(null);
+
+        if (codec == null) {
+            return null;
+        }
+
+        final byte[] key = new byte[entry.getShort() & 0xFFFF];
+        entry.get(key);
+
+        final int colon = id.indexOf(':');
+
+        final DidKey didKey = new DidKey(
+                colon != -1 ? id.substring(0, colon) : DidKey.DEFAULT_VERSION,
+                id,
+                codec,
+                key);
+
+        final String did = didKey.toString();
+
+        final int size = entry.get() & 0xFF;
+        final List<DidVerificationMethod> methods = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+
+            final String methodId = string(entry);
+            final String type = string(entry);
+            final String controller = string(entry);
+
+            final DidUrl url = methodId.length() > did.length() && methodId.startsWith(did) && methodId.charAt(did.length()) == '#'
+                    ? DidUrl.fragment(didKey, methodId.substring(did.length() + 1))
+                    : DidUrl.of(URI.create(methodId));
+
+            final Did controllerDid = did.equals(controller) ? didKey : Did.of(controller);
+
+            if (entry.get() == MULTIBASE) {
+                methods.add(DidVerificationMethod.multibase(url, type, controllerDid, didKey));
+
+            } else {
+                final int members = entry.get() & 0xFF;
+                final Map<String, Object> jwk = new LinkedHashMap<>(members * 2);
+                for (int j = 0; j < members; j++) {
+                    jwk.put(string(entry), string(entry));
+                }
+                methods.add(DidVerificationMethod.jwk(url, type, controllerDid, Collections.unmodifiableMap(jwk)));
+            }
+        }
+
+        return ResolvedDidDocument.of(DidKeyResolver.Document.of(didKey, Collections.unmodifiableList(methods)));
+    }
+
+    /**
+     * Returns the serialized document of the given method-specific identifier.
+     *
+     * @param id the {@code did:key} method-specific identifier
+     * @return a read-only view of the UTF-8 encoded JSON document, or
+     *         {@code null} if not present or not included in the snapshot
+     */
+    public ByteBuffer json(final CharSequence id) {
+        Objects.requireNonNull(id);
+
+        final int offset = find(id);
+        if (offset == 0) {
+            return null;
+        }
+
+        final ByteBuffer entry = buffer.duplicate();
+        entry.position(offset + 4);
+
+        // id, codec and key
+        skip(entry);
+        entry.position(entry.position() + 4);
+        skip(entry);
+
+        final int size = entry.get() & 0xFF;
+        for (int i = 0; i < size; i++) {
+            skip(entry);
+            skip(entry);
+            skip(entry);
+            if (entry.get() == JWK) {
+                final int members = entry.get() & 0xFF;
+                for (int j = 0; j < 2 * members; j++) {
+                    skip(entry);
+                }
+            }
+        }
+
+        final int length = entry.getInt();
+        if (length < 0) {
+            return null;
+        }
+
+        final ByteBuffer json = entry.slice();
+        json.limit(length);
+        return json.asReadOnlyBuffer();
+    }
+
+    /** @return the number of entries */
+    public int size() {
+        return count;
+    }
+
+    /** Returns the offset of the given entry, or {@code 0} if not present. */
+    final int find(final CharSequence id) {
+
+        final int hash = hash(id);
+        final int mask = slots - 1;
+
+        for (int i = DidKeyStore.spread(hash) & mask;; i = (i + 1) & mask) {
+
+            final int offset = buffer.getInt(HEADER + 4 * i);
+            if (offset == 0) {
+                return 0;
+            }
+
+            if (buffer.getInt(offset) == hash && matches(offset + 4, id)) {
+                return offset;
+            }
+        }
+    }
+
+    /** Compares the stored string at {@code offset} with the given ASCII id. */
+    final boolean matches(final int offset, final CharSequence id) {
+        final int length = buffer.getShort(offset) & 0xFFFF;
+        if (length != id.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + 2 + i) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Same as {@link String#hashCode()}, for any character sequence. */
+    static final int hash(final CharSequence id) {
+        int hash = 0;
+        for (int i = 0; i < id.length(); i++) {
+            hash = 31 * hash + id.charAt(i);
+        }
+        return hash;
+    }
+
+    static final String string(final ByteBuffer entry) {
+        final byte[] bytes = new byte[entry.getShort() & 0xFFFF];
+        entry.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static final void skip(final ByteBuffer entry) {
+        entry.position(entry.position() + 2 + (entry.getShort(entry.position()) & 0xFFFF));
+    }
+
+    /**
+     * Writes the given documents to a snapshot file. The file is written to a
+     * temporary file first and then moved to its place. Documents that cannot be
+     * represented, e.g. with non-string JWK members, are skipped.
+     *
+     * @param documents the documents keyed by method-specific identifier
+     * @param file      the snapshot file
+     * @param json      {@code true} to include serialized documents
+     * @return the number of written entries
+     * @throws IOException if the file cannot be written
+     */
+    static int write(final Map<String, ResolvedDidDocument> documents, final Path file, final boolean json) throws IOException {
+
+        final ByteArrayOutputStream records = new ByteArrayOutputStream(documents.size() * 512);
+        final DataOutputStream out = new DataOutputStream(records);
+
+        final List<String> ids = new ArrayList<>(documents.size());
+        final List<Integer> offsets = new ArrayList<>(documents.size());
+
+        final ByteArrayOutputStream entry = new ByteArrayOutputStream(1024);
+
+        for (final Map.Entry<String, ResolvedDidDocument> document : documents.entrySet()) {
+
+            entry.reset();
+
+            if (!entry(document.getKey(), document.getValue().document(), json, new DataOutputStream(entry))) {
+                continue;
+            }
+
+            ids.add(document.getKey());
+            offsets.add(out.size());
+            entry.writeTo(out);
+        }
+
+        int slots = 16;
+        while (slots < Integer.MAX_VALUE / 2 && slots * 3L < ids.size() * 4L) {
+            slots <<= 1;
+        }
+
+        final long start = HEADER + 4L * slots;
+
+        if (start + out.size() > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot exceeds " + Integer.MAX_VALUE + " bytes.");
+        }
+
+        final ByteBuffer content = ByteBuffer.allocate((int) start - HEADER + out.size());
+
+        final int mask = slots - 1;
+        for (int i = 0; i < ids.size(); i++) {
+            int slot = DidKeyStore.spread(ids.get(i).hashCode()) & mask;
+            while (content.getInt(4 * slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            content.putInt(4 * slot, (int) start + offsets.get(i));
+        }
+
+        content.position(4 * slots);
+        content.put(records.toByteArray());
+        content.flip();
+
+        final CRC32 crc = new CRC32();
+        crc.update(content.array(), 0, content.limit());
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(ids.size());
+        header.putInt(slots);
+        header.putLong(crc.getValue());
+        header.flip();
+
+        final Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), ".did-key", ".tmp");
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return ids.size();
+    }
+
+    /** Writes a single entry, returns {@code false} if it cannot be represented. */
+    static final boolean entry(final String id, final DidDocument document, final boolean json, final DataOutputStream out) throws IOException {
+
+        if (!(document instanceof DidKeyResolver.Document) || !(document.id() instanceof DidKey)) {
+            return false;
+        }
+
+        final DidKey didKey = (DidKey) document.id();
+        final Collection<DidVerificationMethod> methods = document.verification();
+
+        if (methods.size() > 0xFF || didKey.decoded().length > 0xFFFF) {
+            return false;
+        }
+
+        out.writeInt(id.hashCode());
+        if (!string(id, out)) {
+            return false;
+        }
+        out.writeInt((int) didKey.codecCode());
+        out.writeShort(didKey.decoded().length);
+        out.write(didKey.decoded());
+
+        out.writeByte(methods.size());
+
+        for (final DidVerificationMethod method : methods) {
+
+            if (method.id() == null || method.type() == null || method.controller() == null
+                    || !string(method.id().toString(), out)
+                    || !string(method.type(), out)
+                    || !string(method.controller().toString(), out)) {
+                return false;
+            }
+
+            final Map<String, Object> jwk = method.publicKeyJwk();
+
+            if (jwk != null) {
+                if (jwk.size() > 0xFF) {
+                    return false;
+                }
+                out.writeByte(JWK);
+                out.writeByte(jwk.size());
+                for (final Map.Entry<String, Object> member : jwk.entrySet()) {
+                    if (!(member.getValue() instanceof String)
+                            || !string(member.getKey(), out)
+                            || !string((String) member.getValue(), out)) {
+                        return false;
+                    }
+                }
+
+            } else if (didKey.equals(method.publicKeyMultibase())) {
+                out.writeByte(MULTIBASE);
+
+            } else {
+                return false;
+            }
+        }
+
+        if (json) {
+            final byte[] bytes = DidKeyDocumentWriter.toJson(document);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            out.writeInt(-1);
+        }
+        return true;
+    }
+
+    static final boolean string(final String value, final DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            return false;
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+        return true;
+    }
+}
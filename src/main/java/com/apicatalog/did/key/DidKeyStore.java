@@ -0,0 +1,424 @@
+package com.apicatalog.did.key;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+/**
+ * Compact set of {@code did:key} public keys held off-heap.
+ *
+ * <p>
+ * Each key is stored as a record of its multicodec code and raw key bytes in
+ * direct {@link ByteBuffer} slabs, and indexed by an open-addressing table of
+ * record addresses. A million Ed25519 keys take about 42 MB off-heap and 16 MB
+ * of a single on-heap {@code long} table, with no per-key objects for the
+ * garbage collector to trace.
+ * </p>
+ *
+ * <p>
+ * Keys can be added but not removed. Additions are serialized, lookups are
+ * lock-free and may run concurrently with additions. Versions are not
+ * retained, a stored key matches the same key of any version.
+ * </p>
+ */
+public final class DidKeyStore {
+
+    /** Default slab size in bytes. */
+    static final int SLAB_SIZE = 4 * 1024 * 1024;
+
+    /** Record header: hash (4), codec code (4), key length (2). */
+    static final int HEADER = 10;
+
+    /** Maximal raw key length. */
+    static final int MAX_KEY_LENGTH = 0xFFFF;
+
+    final int slabSize;
+
+    /** Slabs, replaced by a larger copy when a slab is added. */
+    volatile ByteBuffer[] slabs;
+    /** Record addresses plus one, {@code 0} marks an empty slot. */
+    volatile AtomicLongArray table;
+    volatile int size;
+
+    /** Write position within the last slab, guarded by {@code this}. */
+    int position;
+
+    DidKeyStore(final int capacity, final int slabSize) {
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[0];
+        this.table = new AtomicLongArray(capacity);
+        this.size = 0;
+        this.position = 0;
+    }
+
+    /**
+     * Creates a new empty store.
+     *
+     * @return a new store instance
+     */
+    public static DidKeyStore create() {
+        return create(1024);
+    }
+
+    /**
+     * Creates a new empty store sized to hold the given number of keys without
+     * growing its index.
+     *
+     * @param expectedSize the expected number of keys
+     * @return a new store instance
+     * @throws IllegalArgumentException if {@code expectedSize} is negative
+     */
+    public static DidKeyStore create(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative, but was [" + expectedSize + "].");
+        }
+        return new DidKeyStore(capacity(expectedSize), SLAB_SIZE);
+    }
+
+    /**
+     * Adds the given key.
+     *
+     * @param didKey the key to add
+     * @return {@code true} if the key has been added, {@code false} if already
+     *         present
+     * @throws NullPointerException if {@code didKey} is {@code null}
+     */
+    public boolean add(final DidKey didKey) {
+        Objects.requireNonNull(didKey, "DidKey must not be null.");
+        return add(didKey.decoded(), didKey.codecCode());
+    }
+
+    /**
+     * Adds the given raw key.
+     *
+     * @param key   the raw key bytes
+     * @param codec the key type
+     * @return {@code true} if the key has been added, {@code false} if already
+     *         present
+     * @throws NullPointerException     if any argument is {@code null}
+     * @throws IllegalArgumentException if the key is longer than 65535 bytes
+     */
+    public boolean add(final byte[] key, final Multicodec codec) {
+        Objects.requireNonNull(key, "Key must not be null.");
+        Objects.requireNonNull(codec, "Codec must not be null.");
+        return add(key, codec.code());
+    }
+
+    final synchronized boolean add(final byte[] key, final long code) {
+
+        if (key.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key length must not exceed " + MAX_KEY_LENGTH + " bytes, but was [" + key.length + "].");
+        }
+        if (code < 0 || code > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Unsupported multicodec code [" + code + "].");
+        }
+
+        final int hash = hash(code, key);
+
+        if (find(hash, code, key) != 0) {
+            return false;
+        }
+
+        AtomicLongArray table = this.table;
+
+        if ((size + 1) * 4L > table.length() * 3L) {
+            table = resize(table);
+        }
+
+        // the record is written before its address is published
+        insert(table, hash, append(hash, code, key));
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if the given key is present.
+     *
+     * @param didKey the key to look up
+     * @return {@code true} if present
+     * @throws NullPointerException if {@code didKey} is {@code null}
+     */
+    public boolean contains(final DidKey didKey) {
+        Objects.requireNonNull(didKey, "DidKey must not be null.");
+        return find(didKey.decoded(), didKey.codecCode()) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the given raw key is present.
+     *
+     * @param key   the raw key bytes
+     * @param codec the key type
+     * @return {@code true} if present
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public boolean contains(final byte[] key, final Multicodec codec) {
+        Objects.requireNonNull(key, "Key must not be null.");
+        Objects.requireNonNull(codec, "Codec must not be null.");
+        return find(key, codec.code()) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the key encoded by the given {@code did:key} is
+     * present. The key is decoded without creating a {@link DidKey}.
+     *
+     * @param did a plain {@code did:key}, without path, query or fragment
+     * @return {@code true} if present
+     * @throws NullPointerException     if {@code did} is {@code null}
+     * @throws IllegalArgumentException if {@code did} is not a valid
+     *                                  {@code did:key}
+     */
+    public boolean contains(final CharSequence did) {
+        Objects.requireNonNull(did, "DID must not be null.");
+        return find(did) != 0;
+    }
+
+    /**
+     * Returns a view of the stored key equal to the given key.
+     *
+     * @param didKey the key to look up
+     * @return a view or {@code null} if not present
+     * @throws NullPointerException if {@code didKey} is {@code null}
+     */
+    public Entry get(final DidKey didKey) {
+        Objects.requireNonNull(didKey, "DidKey must not be null.");
+        return entry(find(didKey.decoded(), didKey.codecCode()));
+    }
+
+    /**
+     * Returns a view of the stored key equal to the given raw key.
+     *
+     * @param key   the raw key bytes
+     * @param codec the key type
+     * @return a view or {@code null} if not present
+     * @throws NullPointerException if any argument is {@code null}
+     */
+    public Entry get(final byte[] key, final Multicodec codec) {
+        Objects.requireNonNull(key, "Key must not be null.");
+        Objects.requireNonNull(codec, "Codec must not be null.");
+        return entry(find(key, codec.code()));
+    }
+
+    /**
+     * Returns a view of the stored key encoded by the given {@code did:key}.
+     *
+     * @param did a plain {@code did:key}, without path, query or fragment
+     * @return a view or {@code null} if not present
+     * @throws NullPointerException     if {@code did} is {@code null}
+     * @throws IllegalArgumentException if {@code did} is not a valid
+     *                                  {@code did:key}
+     */
+    public Entry get(final CharSequence did) {
+        Objects.requireNonNull(did, "DID must not be null.");
+        return entry(find(did));
+    }
+
+    /** @return the number of stored keys */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of off-heap bytes allocated for records */
+    public long offHeapSize() {
+        long bytes = 0;
+        for (final ByteBuffer slab : slabs) {
+            bytes += slab.capacity();
+        }
+        return bytes;
+    }
+
+    final Entry entry(final long slot) {
+        if (slot == 0) {
+            return null;
+        }
+        return new Entry(slabs[(int) ((slot - 1) >>> 32)], (int) (slot - 1));
+    }
+
+    final long find(final byte[] key, final long code) {
+        return find(hash(code, key), code, key);
+    }
+
+    /** Decodes the given {@code did:key} and looks up its key. */
+    final long find(final CharSequence did) {
+
+        // versions are not retained, an explicit one is skipped
+        final DidKey.Encoded encoded = DidKey.Encoded.decode(did, DidKey.keyStart(did), did);
+
+        return find(encoded.raw(), encoded.code);
+    }
+
+    /** Returns the slot holding the given key, or {@code 0} if not present. */
+    final long find(final int hash, final long code, final byte[] key) {
+
+        final AtomicLongArray table = this.table;
+        final int mask = table.length() - 1;
+
+        for (int i = spread(hash) & mask;; i = (i + 1) & mask) {
+
+            final long slot = table.get(i);
+            if (slot == 0) {
+                return 0;
+            }
+
+            // slabs are read after the slot, so a published record's slab is seen
+            final ByteBuffer slab = slabs[(int) ((slot - 1) >>> 32)];
+            final int offset = (int) (slot - 1);
+
+            if (slab.getInt(offset) == hash
+                    && (slab.getInt(offset + 4) & 0xFFFFFFFFL) == code
+                    && matches(slab, offset, key)) {
+                return slot;
+            }
+        }
+    }
+
+    static final boolean matches(final ByteBuffer slab, final int offset, final byte[] key) {
+        if ((slab.getShort(offset + 8) & 0xFFFF) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (slab.get(offset + HEADER + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Writes a new record and returns its slot value. */
+    final long append(final int hash, final long code, final byte[] key) {
+
+        final int length = HEADER + key.length;
+
+        ByteBuffer[] slabs = this.slabs;
+
+        if (slabs.length == 0 || position + length > slabs[slabs.length - 1].capacity()) {
+            slabs = Arrays.copyOf(slabs, slabs.length + 1);
+            slabs[slabs.length - 1] = ByteBuffer.allocateDirect(Math.max(slabSize, length));
+            this.slabs = slabs;
+            position = 0;
+        }
+
+        final int offset = position;
+        final ByteBuffer slab = slabs[slabs.length - 1];
+
+        slab.putInt(offset, hash);
+        slab.putInt(offset + 4, (int) code);
+        slab.putShort(offset + 8, (short) key.length);
+
+        final ByteBuffer target = slab.duplicate();
+        target.position(offset + HEADER);
+        target.put(key);
+
+        position += length;
+
+        return (((long) (slabs.length - 1) << 32) | offset) + 1;
+    }
+
+    final AtomicLongArray resize(final AtomicLongArray table) {
+
+        final AtomicLongArray resized = new AtomicLongArray(table.length() * 2);
+        final ByteBuffer[] slabs = this.slabs;
+
+        for (int i = 0; i < table.length(); i++) {
+            final long slot = table.get(i);
+            if (slot != 0) {
+                insert(resized, slabs[(int) ((slot - 1) >>> 32)].getInt((int) (slot - 1)), slot);
+            }
+        }
+
+        this.table = resized;
+        return resized;
+    }
+
+    static final void insert(final AtomicLongArray table, final int hash, final long slot) {
+        final int mask = table.length() - 1;
+        int i = spread(hash) & mask;
+        while (table.get(i) != 0) {
+            i = (i + 1) & mask;
+        }
+        table.set(i, slot);
+    }
+
+    /** FNV-1a over the codec code and the key bytes. */
+    static final int hash(final long code, final byte[] key) {
+        int hash = 0x811C9DC5;
+        hash = (hash ^ (int) code) * 0x01000193;
+        hash = (hash ^ (int) (code >>> 32)) * 0x01000193;
+        for (final byte b : key) {
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        }
+        return hash;
+    }
+
+    static final int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    static final int capacity(final int expectedSize) {
+        int capacity = 16;
+        while (capacity < Integer.MAX_VALUE / 2 && capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * A lightweight read-only view of a stored key.
+     */
+    public static final class Entry {
+
+        final ByteBuffer slab;
+        final int offset;
+
+        Entry(final ByteBuffer slab, final int offset) {
+            this.slab = slab;
+            this.offset = offset;
+        }
+
+        /** @return the multicodec code of the key type */
+        public long codecCode() {
+            return slab.getInt(offset + 4) & 0xFFFFFFFFL;
+        }
+
+        /** @return the raw key length in bytes */
+        public int length() {
+            return slab.getShort(offset + 8) & 0xFFFF;
+        }
+
+        /** @return a copy of the raw key bytes */
+        public byte[] rawKey() {
+            final byte[] key = new byte[length()];
+            final ByteBuffer source = slab.duplicate();
+            source.position(offset + HEADER);
+            source.get(key);
+            return key;
+        }
+
+        /** @return a read-only view of the raw key bytes, without copying */
+        public ByteBuffer rawKeyView() {
+            final ByteBuffer view = slab.asReadOnlyBuffer();
+            view.position(offset + HEADER);
+            view.limit(offset + HEADER + length());
+            return view.slice();
+        }
+
+        /**
+         * Materializes the stored key as a new {@link DidKey} of the default
+         * version.
+         *
+         * @param codecs the decoder providing the key type
+         * @return a new {@link DidKey} instance
+         * @throws IllegalArgumentException if the key type is not supported by
+         *                                  {@code codecs}
+         */
+        public DidKey toDidKey(final MulticodecDecoder codecs) {
+            final long code = codecCode();
+            final Multicodec codec = codecs.getRegistry().getCodec(code)
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported multicodec code [" + code + "]."));
+            return DidKey.of(rawKey(), codec);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.apicatalog.did.key;
+
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import com.apicatalog.did.key.jwk.DidKeyPublicKeyFactory;
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+/**
+ * Verifies signatures made with {@code did:key} keys, one at a time or in
+ * batches.
+ *
+ * <p>
+ * A batch is ordered by key type and key, so each distinct key is
+ * materialized and a {@link Signature} initialized once for all its items in
+ * a chunk, and split into chunks verified by an {@link Executor}. Signature
+ * instances are kept per thread.
+ * </p>
+ *
+ * <p>
+ * Default algorithms are {@code Ed25519}, {@code SHA256withECDSA} for P-256 and
+ * secp256k1, {@code SHA384withECDSA} for P-384, {@code SHA512withECDSA} for
+ * P-521 and {@code SHA256withRSA}. ECDSA signatures are DER encoded, an
+ * algorithm accepting raw {@code r || s} signatures, e.g.
+ * {@code SHA256withECDSAinP1363Format}, can be set by
+ * {@link Builder#algorithm(Multicodec, String)}.
+ * </p>
+ *
+ * <p>
+ * secp256k1 signatures require a security provider supporting the curve. The
+ * JDK default provider does not since JDK 16, a secp256k1 item then fails
+ * with {@link Result#exception()} set, unless a provider such as Bouncy Castle
+ * is installed or set by {@link Builder#algorithm(Multicodec, String)}.
+ * </p>
+ */
+public final class DidKeyVerifier {
+
+    /** Batches up to this size are verified by the calling thread. */
+    static final int BATCH_THRESHOLD = 64;
+
+    static final Map<Multicodec, String> DEFAULT_ALGORITHMS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_ALGORITHMS.put(KeyCodec.ED25519_PUBLIC_KEY, "Ed25519");
+        DEFAULT_ALGORITHMS.put(KeyCodec.P256_PUBLIC_KEY, "SHA256withECDSA");
+        DEFAULT_ALGORITHMS.put(KeyCodec.P384_PUBLIC_KEY, "SHA384withECDSA");
+        DEFAULT_ALGORITHMS.put(KeyCodec.P521_PUBLIC_KEY, "SHA512withECDSA");
+        DEFAULT_ALGORITHMS.put(KeyCodec.SECP256K1_PUBLIC_KEY, "SHA256withECDSA");
+        DEFAULT_ALGORITHMS.put(KeyCodec.RSA_PUBLIC_KEY, "SHA256withRSA");
+    }
+
+    static final DidKeyVerifier DEFAULT = withDefaults().build();
+
+    /** Per-thread signature instances by algorithm name. */
+    static final ThreadLocal<Map<String, Signature>> SIGNATURES = ThreadLocal.withInitial(HashMap::new);
+
+    /** Algorithm names by multicodec code. */
+    final Map<Long, String> algorithms;
+    final DidKeyPublicKeyFactory keys;
+    final Executor executor;
+
+    DidKeyVerifier(final Map<Long, String> algorithms, final DidKeyPublicKeyFactory keys, final Executor executor) {
+        this.algorithms = algorithms;
+        this.keys = keys;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the default verifier.
+     *
+     * @return the default instance
+     */
+    public static DidKeyVerifier getInstance() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a builder pre-populated with the default algorithms.
+     *
+     * @return a new builder
+     */
+    public static Builder withDefaults() {
+        return new Builder(new LinkedHashMap<>(DEFAULT_ALGORITHMS));
+    }
+
+    /**
+     * Verifies a single signature.
+     *
+     * @param key       the signer's key
+     * @param message   the signed message
+     * @param signature the signature
+     * @return {@code true} if the signature is valid
+     * @throws NullPointerException     if any argument is {@code null}
+     * @throws IllegalArgumentException if the key type is not supported or the
+     *                                  signature cannot be verified, e.g. is
+     *                                  malformed
+     */
+    public boolean verify(final DidKey key, final byte[] message, final byte[] signature) {
+        final Result result = verify(Item.of(key, message, signature));
+        if (result.exception != null) {
+            throw result.exception;
+        }
+        return result.verified;
+    }
+
+    final Result verify(final Item item) {
+        final Result[] results = new Result[1];
+        verifyRange(Collections.singletonList(item), new int[] { 0 }, new int[] { 0 }, 0, 1, results);
+        return results[0];
+    }
+
+    /**
+     * Verifies a batch of signatures using the verifier's executor.
+     *
+     * @param items the signatures to verify
+     * @return the results in the input order
+     * @throws NullPointerException if {@code items} or any of its elements is
+     *                              {@code null}
+     * @see #verifyAll(Collection, Executor)
+     */
+    public List<Result> verifyAll(final Collection<Item> items) {
+        return verifyAll(items, executor);
+    }
+
+    /**
+     * Verifies a batch of signatures. A failure is reported as a {@link Result}
+     * and does not affect the other items. Batches larger than a few dozen items
+     * are split into chunks verified by the given executor.
+     *
+     * @param items    the signatures to verify
+     * @param executor the executor to verify chunks
+     * @return the results in the input order
+     * @throws NullPointerException if any argument or element of {@code items}
+     *                              is {@code null}
+     */
+    public List<Result> verifyAll(final Collection<Item> items, final Executor executor) {
+        Objects.requireNonNull(items, "Items must not be null.");
+        Objects.requireNonNull(executor, "Executor must not be null.");
+
+        final List<Item> list = new ArrayList<>(items);
+
+        // group items by key, groups are numbered in the order of appearance
+        final Map<DidKey, Integer> index = new HashMap<>();
+        final List<DidKey> unique = new ArrayList<>();
+        final int[] groups = new int[list.size()];
+
+        for (int i = 0; i < list.size(); i++) {
+            final Item item = Objects.requireNonNull(list.get(i), "Item must not be null.");
+            final Integer group = index.putIfAbsent(item.key, unique.size());
+            if (group == null) {
+                groups[i] = unique.size();
+                unique.add(item.key);
+            } else {
+                groups[i] = group;
+            }
+        }
+
+        // distinct key types, there are only a few of them
+        final long[] codes = new long[unique.size()];
+        int types = 0;
+        for (final DidKey key : unique) {
+            if (indexOf(codes, types, key.codecCode()) < 0) {
+                codes[types++] = key.codecCode();
+            }
+        }
+        Arrays.sort(codes, 0, types);
+
+        // rank keys by a counting pass over key types, keeping the order of
+        // appearance within a type
+        final int[] type = new int[unique.size()];
+        final int[] starts = new int[types + 1];
+        for (int i = 0; i < type.length; i++) {
+            type[i] = indexOf(codes, types, unique.get(i).codecCode());
+            starts[type[i] + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+
+        final int[] rank = new int[unique.size()];
+        for (int i = 0; i < rank.length; i++) {
+            rank[i] = starts[type[i]]++;
+        }
+
+        // counting sort by key rank, keeping the input order within a key
+        final int[] offsets = new int[unique.size() + 1];
+        for (final int group : groups) {
+            offsets[rank[group] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+
+        final int[] order = new int[list.size()];
+        for (int i = 0; i < groups.length; i++) {
+            order[offsets[rank[groups[i]]]++] = i;
+        }
+
+        final Result[] results = new Result[list.size()];
+
+        if (list.size() <= BATCH_THRESHOLD) {
+            verifyRange(list, order, groups, 0, order.length, results);
+
+        } else {
+            final int chunk = Math.max(BATCH_THRESHOLD,
+                    (order.length + 4 * Runtime.getRuntime().availableProcessors() - 1)
+                            / (4 * Runtime.getRuntime().availableProcessors()));
+
+            final CompletableFuture<?>[] tasks = new CompletableFuture<?>[(order.length + chunk - 1) / chunk];
+
+            for (int i = 0; i < tasks.length; i++) {
+                final int from = i * chunk;
+                final int to = Math.min(order.length, from + chunk);
+                tasks[i] = CompletableFuture.runAsync(() -> verifyRange(list, order, groups, from, to, results), executor);
+            }
+
+            Futures.join(CompletableFuture.allOf(tasks));
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Verifies {@code items[order[from..to]]}, a public key is materialized and
+     * a signature initialized once per run of items of the same key. A provider
+     * failure of any kind is reported as a failed {@link Result} of the item.
+     */
+    final void verifyRange(final List<Item> items, final int[] order, final int[] groups, final int from, final int to, final Result[] results) {
+
+        Signature signature = null;
+        int current = -1;
+
+        for (int i = from; i < to; i++) {
+
+            final int position = order[i];
+            final Item item = items.get(position);
+            final int group = groups[position];
+
+            try {
+                if (group != current) {
+                    current = -1;
+
+                    signature = signature(item.key);
+                    signature.initVerify(keys.get(item.key));
+                    current = group;
+                }
+
+                signature.update(item.message);
+                results[position] = signature.verify(item.signature) ? Result.VERIFIED : Result.INVALID;
+
+            } catch (GeneralSecurityException e) {
+                results[position] = Result.failed(new IllegalArgumentException("Failed to verify signature of [" + item.key + "].", e));
+                // the signature state is undefined after a failure
+                current = -1;
+
+            } catch (IllegalArgumentException e) {
+                results[position] = Result.failed(e);
+                current = -1;
+
+            } catch (RuntimeException e) {
+                // e.g. ProviderException
+                results[position] = Result.failed(new IllegalArgumentException("Failed to verify signature of [" + item.key + "].", e));
+                current = -1;
+            }
+        }
+    }
+
+    final Signature signature(final DidKey key) {
+
+        final String algorithm = algorithms.get(key.codecCode());
+        if (algorithm == null) {
+            throw new IllegalArgumentException("Key type [" + key.codec() + "] is not supported.");
+        }
+
+        final Map<String, Signature> signatures = SIGNATURES.get();
+
+        Signature signature = signatures.get(algorithm);
+        if (signature == null) {
+            try {
+                signature = Signature.getInstance(algorithm);
+
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Signature algorithm [" + algorithm + "] is not supported by the installed security providers.", e);
+            }
+            signatures.put(algorithm, signature);
+        }
+        return signature;
+    }
+
+    static int indexOf(final long[] codes, final int length, final long code) {
+        for (int i = 0; i < length; i++) {
+            if (codes[i] == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A signature to verify.
+     */
+    public static final class Item {
+
+        final DidKey key;
+        final byte[] message;
+        final byte[] signature;
+
+        Item(DidKey key, byte[] message, byte[] signature) {
+            this.key = key;
+            this.message = message;
+            this.signature = signature;
+        }
+
+        /**
+         * Creates a new item. Arrays are not copied.
+         *
+         * @param key       the signer's key
+         * @param message   the signed message
+         * @param signature the signature
+         * @return a new item
+         * @throws NullPointerException if any argument is {@code null}
+         */
+        public static Item of(DidKey key, byte[] message, byte[] signature) {
+            return new Item(
+                    Objects.requireNonNull(key, "DidKey must not be null."),
+                    Objects.requireNonNull(message, "Message must not be null."),
+                    Objects.requireNonNull(signature, "Signature must not be null."));
+        }
+
+        /** @return the signer's key */
+        public DidKey key() {
+            return key;
+        }
+    }
+
+    /**
+     * Outcome of a single verification within a batch.
+     */
+    public static final class Result {
+
+        static final Result VERIFIED = new Result(true, null);
+        static final Result INVALID = new Result(false, null);
+
+        final boolean verified;
+        final IllegalArgumentException exception;
+
+        Result(boolean verified, IllegalArgumentException exception) {
+            this.verified = verified;
+            this.exception = exception;
+        }
+
+        static Result failed(IllegalArgumentException exception) {
+            return new Result(false, Objects.requireNonNull(exception));
+        }
+
+        /** @return {@code true} if the signature is valid */
+        public boolean isVerified() {
+            return verified;
+        }
+
+        /**
+         * @return the reason the signature could not be verified, e.g. an
+         *         unsupported key type or a malformed signature, or {@code null}
+         */
+        public IllegalArgumentException exception() {
+            return exception;
+        }
+    }
+
+    /**
+     * Builder for {@link DidKeyVerifier}.
+     */
+    public static final class Builder {
+
+        final Map<Multicodec, String> algorithms;
+        DidKeyPublicKeyFactory keys;
+        Executor executor;
+
+        Builder(Map<Multicodec, String> algorithms) {
+            this.algorithms = algorithms;
+            this.keys = null;
+            this.executor = ForkJoinPool.commonPool();
+        }
+
+        /**
+         * Sets the JCA signature algorithm of a key type.
+         *
+         * @param codec     the key type
+         * @param algorithm the JCA algorithm name, e.g. {@code SHA256withECDSA}
+         * @return this builder
+         */
+        public Builder algorithm(Multicodec codec, String algorithm) {
+            algorithms.put(
+                    Objects.requireNonNull(codec, "Codec must not be null."),
+                    Objects.requireNonNull(algorithm, "Algorithm must not be null."));
+            return this;
+        }
+
+        /**
+         * Sets the factory materializing public keys. Defaults to a factory
+         * keeping {@code 1024} recently used keys.
+         *
+         * @param keys the public key factory
+         * @return this builder
+         */
+        public Builder keys(DidKeyPublicKeyFactory keys) {
+            this.keys = Objects.requireNonNull(keys, "Public key factory must not be null.");
+            return this;
+        }
+
+        /**
+         * Sets the executor running batch verifications. Defaults to
+         * {@link ForkJoinPool#commonPool()}.
+         *
+         * @param executor the executor to use
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "Executor must not be null.");
+            return this;
+        }
+
+        /** @return a new verifier */
+        public DidKeyVerifier build() {
+            final Map<Long, String> byCode = new HashMap<>(algorithms.size() * 2);
+            for (final Map.Entry<Multicodec, String> entry : algorithms.entrySet()) {
+                byCode.put(entry.getKey().code(), entry.getValue());
+            }
+            return new DidKeyVerifier(
+                    byCode,
+                    keys != null ? keys : DidKeyPublicKeyFactory.create(1024),
+                    executor);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.apicatalog.did.key;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+/**
+ * Derives {@code X25519} key agreement keys from {@code Ed25519} public keys,
+ * as required by the {@code did:key} method for the {@code keyAgreement}
+ * verification relationship.
+ *
+ * <p>
+ * The Montgomery coordinate {@code u = (1 + y) / (1 - y)} is computed from
+ * the Edwards coordinate {@code y} using constant-time arithmetic over
+ * {@code long} limbs. A batch shares a single field inversion among all its
+ * keys. An instance created with {@link #create(int)} additionally keeps the
+ * most recently derived keys.
+ * </p>
+ *
+ * <p>
+ * Keys whose derived {@code u} is zero, i.e. the identity and the point of
+ * order two, are rejected. The Edwards point is not otherwise validated.
+ * </p>
+ *
+ * @see <a href="https://w3c-ccg.github.io/did-key-spec/#ed25519-x25519">DID Key
+ *      Method Specification</a>
+ */
+public final class DidKeyX25519Derivation {
+
+    /** Default instance without a cache. */
+    static final DidKeyX25519Derivation DEFAULT = new DidKeyX25519Derivation(null);
+
+    /** Derived keys by the raw Ed25519 key bytes, or {@code null}. */
+    final Cache cache;
+
+    DidKeyX25519Derivation(final Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the default instance, deriving a new key on each call.
+     *
+     * @return the default instance
+     */
+    public static DidKeyX25519Derivation getInstance() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new instance keeping up to {@code maxSize} recently derived keys.
+     *
+     * @param maxSize the maximal number of cached keys
+     * @return a new instance
+     * @throws IllegalArgumentException if {@code maxSize} is not positive
+     */
+    public static DidKeyX25519Derivation create(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, but was [" + maxSize + "].");
+        }
+        return new DidKeyX25519Derivation(new Cache(maxSize));
+    }
+
+    /**
+     * Derives the {@code X25519} key of the given {@code Ed25519} key.
+     *
+     * @param key the {@code Ed25519} key
+     * @return the {@code X25519} key
+     * @throws NullPointerException     if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the key is not an {@code Ed25519} key
+     *                                  or is of low order
+     */
+    public DidKey derive(final DidKey key) {
+        return deriveAll(Collections.singletonList(Objects.requireNonNull(key, "DidKey must not be null."))).get(0);
+    }
+
+    /**
+     * Derives the {@code X25519} keys of the given {@code Ed25519} keys sharing
+     * a single field inversion.
+     *
+     * @param keys the {@code Ed25519} keys
+     * @return the {@code X25519} keys in the input order
+     * @throws NullPointerException     if {@code keys} or any of its elements is
+     *                                  {@code null}
+     * @throws IllegalArgumentException if a key is not an {@code Ed25519} key or
+     *                                  is of low order, the message contains the
+     *                                  key index
+     */
+    public List<DidKey> deriveAll(final Collection<DidKey> keys) {
+        Objects.requireNonNull(keys, "Keys must not be null.");
+
+        final DidKey[] derived = new DidKey[keys.size()];
+        final ByteBuffer[] ids = new ByteBuffer[derived.length];
+
+        // positions of the keys to derive
+        final int[] pending = new int[derived.length];
+        int count = 0;
+
+        int index = 0;
+        for (final DidKey key : keys) {
+            Objects.requireNonNull(key, "DidKey must not be null.");
+
+            // a view of the raw key bytes, not copied
+            final ByteBuffer raw = key.decodedView();
+
+            if (key.codecCode() != KeyCodec.ED25519_PUBLIC_KEY.code() || raw.remaining() != 32) {
+                throw new IllegalArgumentException("Key type [" + key.codec() + "] at index [" + index + "] is not an Ed25519 public key.");
+            }
+
+            if (cache != null) {
+                ids[index] = raw;
+                synchronized (cache) {
+                    derived[index] = cache.get(ids[index]);
+                }
+            }
+            if (derived[index] == null) {
+                pending[count++] = index;
+            }
+            index++;
+        }
+
+        if (count > 0) {
+            derive(keys instanceof List ? (List<DidKey>) keys : new ArrayList<>(keys), pending, count, derived);
+
+            if (cache != null) {
+                synchronized (cache) {
+                    for (int i = 0; i < count; i++) {
+                        cache.put(ids[pending[i]], derived[pending[i]]);
+                    }
+                }
+            }
+        }
+
+        return Collections.unmodifiableList(Arrays.asList(derived));
+    }
+
+    /** @return the number of cached keys */
+    public int size() {
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Derives {@code keys[pending[0..count]]} using Montgomery's trick, the
+     * denominators {@code 1 - y} are inverted at once.
+     */
+    static void derive(final List<DidKey> keys, final int[] pending, final int count, final DidKey[] derived) {
+
+        final long[][] numerators = new long[count][];
+        final long[][] denominators = new long[count][];
+        final long[][] products = new long[count][];
+        final int[] zero = new int[count];
+
+        final Field25519.Workspace ws = Field25519.WORKSPACE.get();
+
+        final long[] one = Field25519.create();
+        Field25519.one(one);
+
+        final byte[] encoded = new byte[32];
+        final long[] y = Field25519.create();
+
+        for (int i = 0; i < count; i++) {
+            keys.get(pending[i]).writeRawKeyTo(ByteBuffer.wrap(encoded));
+            Field25519.decode(encoded, 0, y);
+
+            numerators[i] = Field25519.create();
+            denominators[i] = Field25519.create();
+            products[i] = Field25519.create();
+
+            Field25519.add(one, y, numerators[i]);
+            Field25519.sub(one, y, denominators[i]);
+
+            // y = 1 is replaced by one not to zero the product
+            zero[i] = Field25519.isZero(denominators[i], ws);
+            Field25519.move(one, denominators[i], zero[i]);
+
+            Field25519.mul(i > 0 ? products[i - 1] : one, denominators[i], products[i], ws);
+        }
+
+        final long[] inverse = Field25519.create();
+        Field25519.invert(products[count - 1], inverse, ws);
+
+        final long[] u = Field25519.create();
+
+        for (int i = count - 1; i >= 0; i--) {
+
+            // 1 / d[i] = (d[0] * ... * d[i - 1]) / (d[0] * ... * d[i])
+            if (i > 0) {
+                Field25519.mul(inverse, products[i - 1], u, ws);
+                Field25519.mul(inverse, denominators[i], inverse, ws);
+
+            } else {
+                Field25519.copy(inverse, u);
+            }
+
+            Field25519.mul(numerators[i], u, u, ws);
+
+            if ((zero[i] | Field25519.isZero(u, ws)) != 0) {
+                throw new IllegalArgumentException("Ed25519 public key at index [" + pending[i] + "] is of low order.");
+            }
+
+            Field25519.encode(u, encoded, 0, ws);
+            derived[pending[i]] = DidKey.compact(encoded.clone(), KeyCodec.X25519_PUBLIC_KEY);
+        }
+    }
+
+    /** An access ordered map evicting its eldest entry once full. */
+    static final class Cache extends LinkedHashMap<ByteBuffer, DidKey> {
+
+        private static final long serialVersionUID = -2316479215408830121L;
+
+        final int capacity;
+
+        Cache(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, DidKey> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.apicatalog.did.key;
+
+/**
+ * Constant-time arithmetic modulo {@code p = 2^255 - 19}.
+ *
+ * <p>
+ * Field elements are {@code long[10]} arrays of signed limbs in radix
+ * {@code 2^25.5}, i.e. alternating 26 and 25 bit limbs, least significant limb
+ * first. A product of two reduced elements fits into 64 bits per limb and is
+ * reduced using {@code 2^255 = 19 (mod p)}. There are no branches or memory
+ * accesses depending on the processed values.
+ * </p>
+ *
+ * <p>
+ * Intermediate values are kept in a per-thread {@link Workspace}, an operation
+ * does not allocate.
+ * </p>
+ */
+final class Field25519 {
+
+    static final int LIMBS = 10;
+
+    /** Bit offsets of the limbs. */
+    static final int[] OFFSETS = { 0, 26, 51, 77, 102, 128, 153, 179, 204, 230 };
+
+    static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    Field25519() {
+    }
+
+    static long[] create() {
+        return new long[LIMBS];
+    }
+
+    static void one(final long[] h) {
+        h[0] = 1;
+        for (int i = 1; i < LIMBS; i++) {
+            h[i] = 0;
+        }
+    }
+
+    static void copy(final long[] f, final long[] h) {
+        System.arraycopy(f, 0, h, 0, LIMBS);
+    }
+
+    static int width(final int limb) {
+        return 26 - (limb & 1);
+    }
+
+    /**
+     * Decodes 255 little-endian bits, the most significant bit, e.g. the sign of
+     * an Edwards {@code x} coordinate, is ignored.
+     */
+    static void decode(final byte[] s, final int offset, final long[] h) {
+        for (int i = 0; i < LIMBS; i++) {
+            final int bit = OFFSETS[i];
+            final int index = offset + (bit >>> 3);
+
+            long word = 0;
+            for (int j = 0; j < 5 && (bit >>> 3) + j < 32; j++) {
+                word |= (s[index + j] & 0xffL) << (8 * j);
+            }
+            h[i] = (word >>> (bit & 7)) & ((1L << width(i)) - 1);
+        }
+    }
+
+    /** Encodes the canonical, i.e. fully reduced, value as 32 little-endian bytes. */
+    static void encode(final long[] f, final byte[] s, final int offset, final Workspace ws) {
+
+        final long[] h = ws.h;
+        copy(f, h);
+        carry(h);
+
+        // q = floor(h / p), either 0 or 1
+        long q = (19 * h[9] + (1L << 24)) >> 25;
+        for (int i = 0; i < LIMBS; i++) {
+            q = (h[i] + q) >> width(i);
+        }
+
+        h[0] += 19 * q;
+
+        for (int i = 0; i < LIMBS - 1; i++) {
+            final long c = h[i] >> width(i);
+            h[i + 1] += c;
+            h[i] -= c << width(i);
+        }
+        h[9] &= (1L << 25) - 1;
+
+        long bits = 0;
+        int count = 0;
+        int index = offset;
+
+        for (int i = 0; i < LIMBS; i++) {
+            bits |= h[i] << count;
+            count += width(i);
+            while (count >= 8) {
+                s[index++] = (byte) bits;
+                bits >>>= 8;
+                count -= 8;
+            }
+        }
+        s[index] = (byte) bits;
+    }
+
+    static void add(final long[] f, final long[] g, final long[] h) {
+        for (int i = 0; i < LIMBS; i++) {
+            h[i] = f[i] + g[i];
+        }
+    }
+
+    static void sub(final long[] f, final long[] g, final long[] h) {
+        for (int i = 0; i < LIMBS; i++) {
+            h[i] = f[i] - g[i];
+        }
+    }
+
+    /**
+     * Computes {@code h = f * g}, {@code h} may be the same array as {@code f}
+     * or {@code g}.
+     */
+    static void mul(final long[] f, final long[] g, final long[] h, final Workspace ws) {
+
+        final long[] t = ws.product;
+        for (int i = 0; i < LIMBS; i++) {
+            t[i] = 0;
+        }
+
+        for (int i = 0; i < LIMBS; i++) {
+            final long fi = f[i];
+            final long fi2 = fi << (i & 1);
+
+            for (int j = 0; j < LIMBS - i; j++) {
+                // odd limbs are 2^0.5 off the radix, their product is doubled
+                t[i + j] += ((j & 1) != 0 ? fi2 : fi) * g[j];
+            }
+            for (int j = LIMBS - i; j < LIMBS; j++) {
+                t[i + j - LIMBS] += 19 * ((j & 1) != 0 ? fi2 : fi) * g[j];
+            }
+        }
+
+        carry(t);
+        copy(t, h);
+    }
+
+    static void square(final long[] f, final long[] h, final Workspace ws) {
+        mul(f, f, h, ws);
+    }
+
+    /** Computes {@code h = f^(2^n)}. */
+    static void square(final long[] f, final long[] h, final int n, final Workspace ws) {
+        square(f, h, ws);
+        for (int i = 1; i < n; i++) {
+            square(h, h, ws);
+        }
+    }
+
+    /**
+     * Computes {@code h = 1 / f = f^(p - 2)}, zero if {@code f} is zero. The
+     * addition chain needs 254 squarings and 11 multiplications.
+     */
+    static void invert(final long[] f, final long[] h, final Workspace ws) {
+
+        final long[] t0 = ws.t0;
+        final long[] t1 = ws.t1;
+        final long[] t2 = ws.t2;
+        final long[] t3 = ws.t3;
+
+        square(f, t0, ws);              // 2
+        square(t0, t1, 2, ws);          // 8
+        mul(f, t1, t1, ws);             // 9
+        mul(t0, t1, t0, ws);            // 11
+        square(t0, t2, ws);             // 22
+        mul(t1, t2, t1, ws);            // 2^5 - 1
+        square(t1, t2, 5, ws);
+        mul(t2, t1, t1, ws);            // 2^10 - 1
+        square(t1, t2, 10, ws);
+        mul(t2, t1, t2, ws);            // 2^20 - 1
+        square(t2, t3, 20, ws);
+        mul(t3, t2, t2, ws);            // 2^40 - 1
+        square(t2, t2, 10, ws);
+        mul(t2, t1, t1, ws);            // 2^50 - 1
+        square(t1, t2, 50, ws);
+        mul(t2, t1, t2, ws);            // 2^100 - 1
+        square(t2, t3, 100, ws);
+        mul(t3, t2, t2, ws);            // 2^200 - 1
+        square(t2, t2, 50, ws);
+        mul(t2, t1, t1, ws);            // 2^250 - 1
+        square(t1, t1, 5, ws);          // 2^255 - 2^5
+        mul(t1, t0, h, ws);             // 2^255 - 21
+    }
+
+    /** Returns {@code 1} if {@code f} is zero modulo {@code p}, {@code 0} otherwise. */
+    static int isZero(final long[] f, final Workspace ws) {
+        final byte[] s = ws.bytes;
+        encode(f, s, 0, ws);
+        int bits = 0;
+        for (final byte b : s) {
+            bits |= b;
+        }
+        return ((bits & 0xff) - 1) >>> 31;
+    }
+
+    /** Replaces {@code h} with {@code f} if {@code flag} is {@code 1}, keeps it if {@code 0}. */
+    static void move(final long[] f, final long[] h, final int flag) {
+        final long mask = -(long) flag;
+        for (int i = 0; i < LIMBS; i++) {
+            h[i] ^= (h[i] ^ f[i]) & mask;
+        }
+    }
+
+    /**
+     * Propagates carries so the limbs fit into 26 and 25 bits, signed, plus a
+     * small excess in the lowest limbs.
+     */
+    static void carry(final long[] h) {
+        for (int i = 0; i < LIMBS; i++) {
+            final int width = width(i);
+            final long c = (h[i] + (1L << (width - 1))) >> width;
+            h[i] -= c << width;
+            if (i < LIMBS - 1) {
+                h[i + 1] += c;
+            } else {
+                h[0] += 19 * c;
+            }
+        }
+        final long c = (h[0] + (1L << 25)) >> 26;
+        h[0] -= c << 26;
+        h[1] += c;
+    }
+
+    /** Per-thread scratch buffers. */
+    static final class Workspace {
+
+        final long[] product = create();
+        final long[] h = create();
+        final long[] t0 = create();
+        final long[] t1 = create();
+        final long[] t2 = create();
+        final long[] t3 = create();
+        final byte[] bytes = new byte[32];
+    }
+}
@@ -0,0 +1,30 @@
+package com.apicatalog.did.key;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/** Joins futures rethrowing the unchecked cause of a failure as is. */
+final class Futures {
+
+    Futures() {
+    }
+
+    /**
+     * Waits for the future and returns its result, a {@link RuntimeException}
+     * or an {@link Error} thrown by the task is rethrown unwrapped.
+     */
+    static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
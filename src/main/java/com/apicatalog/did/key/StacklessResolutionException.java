@@ -0,0 +1,23 @@
+package com.apicatalog.did.key;
+
+import com.apicatalog.did.resolver.DidResolutionException;
+
+/**
+ * {@link DidResolutionException} without a stack trace, cheap to create when
+ * invalid input is expected at high rates.
+ *
+ * @see DidKeyResolver.Builder#stacklessExceptions(boolean)
+ */
+final class StacklessResolutionException extends DidResolutionException {
+
+    private static final long serialVersionUID = -4207129394950460187L;
+
+    StacklessResolutionException(String did, Code code, String message, Throwable cause) {
+        super(did, code, message, cause);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
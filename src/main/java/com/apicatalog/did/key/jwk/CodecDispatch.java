@@ -0,0 +1,75 @@
+package com.apicatalog.did.key.jwk;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.apicatalog.multicodec.Multicodec;
+
+/**
+ * Dispatch table of {@link JwkProvider}s indexed by the primitive multicodec
+ * code.
+ *
+ * <p>
+ * Key codecs are clustered in two ranges, single byte codes, e.g. Ed25519
+ * {@code 0xed}, and the {@code 0x12xx} block, e.g. P-256 {@code 0x1200}. Both
+ * are looked up by a direct array index, other codes fall back to a map.
+ * </p>
+ */
+final class CodecDispatch {
+
+    /** Size of each directly indexed range. */
+    static final int RANGE = 0x100;
+
+    /** First code of the upper directly indexed range. */
+    static final long HIGH = 0x1200;
+
+    final JwkProvider[] table;
+    final Map<Long, JwkProvider> fallback;
+
+    CodecDispatch(final JwkProvider[] table, final Map<Long, JwkProvider> fallback) {
+        this.table = table;
+        this.fallback = fallback;
+    }
+
+    static CodecDispatch of(final Map<Multicodec, JwkProvider> providers) {
+
+        final JwkProvider[] table = new JwkProvider[2 * RANGE];
+        final Map<Long, JwkProvider> fallback = new HashMap<>();
+
+        for (final Map.Entry<Multicodec, JwkProvider> entry : providers.entrySet()) {
+            final long code = entry.getKey().code();
+            final int index = index(code);
+            if (index != -1) {
+                table[index] = entry.getValue();
+            } else {
+                fallback.put(code, entry.getValue());
+            }
+        }
+
+        return new CodecDispatch(table, fallback.isEmpty() ? null : fallback);
+    }
+
+    static final int index(final long code) {
+        if (code >= 0 && code < RANGE) {
+            return (int) code;
+        }
+        if (code >= HIGH && code < HIGH + RANGE) {
+            return (int) (RANGE + code - HIGH);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the provider registered for the given code.
+     *
+     * @param code the multicodec code
+     * @return the provider or {@code null} if none is registered
+     */
+    JwkProvider get(final long code) {
+        final int index = index(code);
+        if (index != -1) {
+            return table[index];
+        }
+        return fallback != null ? fallback.get(code) : null;
+    }
+}
@@ -0,0 +1,298 @@
+package com.apicatalog.did.key.jwk;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECField;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Base64.Decoder;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+/**
+ * Converts public keys to {@link DidKey} identifiers, the inverse of
+ * {@link DidKeyJwkMethodProvider}.
+ *
+ * <p>
+ * Supported inputs are JWKs of type {@code OKP} (Ed25519, X25519, Bls12381G1,
+ * Bls12381G2) and {@code EC} (P-256, P-384, P-521, secp256k1), and JCA
+ * {@link PublicKey} instances of EC, RSA, Ed25519 and X25519 keys. EC points
+ * are verified to be on the curve and compressed.
+ * </p>
+ *
+ * <p>
+ * Returned keys are {@link DidKey#compact() compact}, i.e. the base58btc
+ * encoded identifier is computed on first use only, so minting large batches
+ * of keys costs no encoding until the identifiers are actually rendered.
+ * </p>
+ */
+public final class DidKeyJwkConverter {
+
+    static final Decoder BASE64_DECODER = Base64.getUrlDecoder();
+
+    /** {@code SubjectPublicKeyInfo} prefix of an Ed25519 key, RFC 8410. */
+    static final byte[] ED25519_SPKI = { 0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00 };
+
+    /** {@code SubjectPublicKeyInfo} prefix of an X25519 key, RFC 8410. */
+    static final byte[] X25519_SPKI = { 0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x6e, 0x03, 0x21, 0x00 };
+
+    /** OKP key types by JWK "crv". */
+    static final Map<String, KeyType> OKP = new HashMap<>();
+
+    /** EC key types by JWK "crv". */
+    static final Map<String, KeyType> EC = new HashMap<>();
+
+    static {
+        OKP.put("Ed25519", new KeyType(KeyCodec.ED25519_PUBLIC_KEY, null, 32));
+        OKP.put("X25519", new KeyType(KeyCodec.X25519_PUBLIC_KEY, null, 32));
+        OKP.put("Bls12381G1", new KeyType(KeyCodec.BLS12_381_G1_PUBLIC_KEY, null, 48));
+        OKP.put("Bls12381G2", new KeyType(KeyCodec.BLS12_381_G2_PUBLIC_KEY, null, 96));
+
+        EC.put("P-256", new KeyType(KeyCodec.P256_PUBLIC_KEY, "secp256r1", 32));
+        EC.put("P-384", new KeyType(KeyCodec.P384_PUBLIC_KEY, "secp384r1", 48));
+        EC.put("P-521", new KeyType(KeyCodec.P521_PUBLIC_KEY, "secp521r1", 66));
+        EC.put("secp256k1", new KeyType(KeyCodec.SECP256K1_PUBLIC_KEY, "secp256k1", 32));
+    }
+
+    DidKeyJwkConverter() {
+    }
+
+    /**
+     * Converts a public JWK to a {@link DidKey}. Private key members, if
+     * present, are ignored.
+     *
+     * @param jwk the JWK members
+     * @return a new compact {@link DidKey} instance
+     * @throws NullPointerException     if {@code jwk} is {@code null}
+     * @throws IllegalArgumentException if the key type or curve is not supported
+     *                                  or the key is invalid, e.g. an EC point
+     *                                  not on the curve
+     */
+    public static DidKey of(final Map<String, ?> jwk) {
+        Objects.requireNonNull(jwk, "JWK must not be null.");
+
+        final String kty = member(jwk, "kty");
+        final String crv = member(jwk, "crv");
+
+        if ("OKP".equals(kty)) {
+            final KeyType type = OKP.get(crv);
+            if (type == null) {
+                throw new IllegalArgumentException("Unsupported OKP curve [" + crv + "].");
+            }
+            final byte[] x = coordinate(jwk, "x", type.length, crv);
+            return DidKey.compact(x, type.codec);
+        }
+
+        if ("EC".equals(kty)) {
+            final KeyType type = EC.get(crv);
+            if (type == null) {
+                throw new IllegalArgumentException("Unsupported EC curve [" + crv + "].");
+            }
+            final ECCurve curve = ECCurve.get(type.curveName);
+
+            final byte[] compressed = new byte[1 + curve.length];
+            curve.compress(
+                    coordinate(jwk, "x", curve.length, crv),
+                    coordinate(jwk, "y", curve.length, crv),
+                    compressed,
+                    0);
+            return DidKey.compact(compressed, type.codec);
+        }
+
+        throw new IllegalArgumentException("Unsupported JWK key type [" + kty + "].");
+    }
+
+    /**
+     * Converts a batch of public JWKs, see {@link #of(Map)}.
+     *
+     * @param jwks the JWKs to convert
+     * @return the keys in the input order
+     * @throws NullPointerException     if {@code jwks} or any of its elements is
+     *                                  {@code null}
+     * @throws IllegalArgumentException if any of the JWKs cannot be converted,
+     *                                  the message identifies its position
+     */
+    public static List<DidKey> ofAll(final Collection<? extends Map<String, ?>> jwks) {
+        Objects.requireNonNull(jwks, "JWKs must not be null.");
+
+        final List<DidKey> keys = new ArrayList<>(jwks.size());
+
+        for (final Map<String, ?> jwk : jwks) {
+            try {
+                keys.add(of(jwk));
+
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid JWK at index [" + keys.size() + "]: " + e.getMessage(), e);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Converts a JCA public key to a {@link DidKey}. EC keys of P-256, P-384,
+     * P-521 and secp256k1 curves, RSA keys, and Ed25519 and X25519 keys in the
+     * {@code X.509} format are supported.
+     *
+     * @param key the public key
+     * @return a new compact {@link DidKey} instance
+     * @throws NullPointerException     if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the key type or curve is not supported
+     */
+    public static DidKey of(final PublicKey key) {
+        Objects.requireNonNull(key, "Public key must not be null.");
+
+        if (key instanceof ECPublicKey) {
+            return of((ECPublicKey) key);
+        }
+
+        if (key instanceof RSAPublicKey) {
+            return DidKey.compact(rsa((RSAPublicKey) key), KeyCodec.RSA_PUBLIC_KEY);
+        }
+
+        final byte[] encoded = "X.509".equals(key.getFormat()) ? key.getEncoded() : null;
+
+        if (encoded != null) {
+            if (startsWith(encoded, ED25519_SPKI, 32)) {
+                return DidKey.compact(tail(encoded, 32), KeyCodec.ED25519_PUBLIC_KEY);
+            }
+            if (startsWith(encoded, X25519_SPKI, 32)) {
+                return DidKey.compact(tail(encoded, 32), KeyCodec.X25519_PUBLIC_KEY);
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported public key algorithm [" + key.getAlgorithm() + "].");
+    }
+
+    static DidKey of(final ECPublicKey key) {
+
+        final ECParameterSpec params = key.getParams();
+        final ECField field = params.getCurve().getField();
+
+        if (field instanceof ECFieldFp) {
+
+            final BigInteger p = ((ECFieldFp) field).getP();
+
+            for (final KeyType type : EC.values()) {
+
+                // avoids looking up curves of other sizes
+                if (type.length != (p.bitLength() + 7) / 8) {
+                    continue;
+                }
+
+                final ECCurve curve = ECCurve.get(type.curveName);
+
+                if (curve.p.equals(p)
+                        && curve.a.equals(params.getCurve().getA())
+                        && curve.b.equals(params.getCurve().getB())) {
+
+                    final byte[] compressed = new byte[1 + curve.length];
+                    curve.compress(
+                            DidKeyJwkMethodProvider.normalize(key.getW().getAffineX().toByteArray(), curve.length),
+                            DidKeyJwkMethodProvider.normalize(key.getW().getAffineY().toByteArray(), curve.length),
+                            compressed,
+                            0);
+                    return DidKey.compact(compressed, type.codec);
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported EC curve [" + params + "].");
+    }
+
+    /** DER encoded PKCS #1 {@code RSAPublicKey}, i.e. the modulus and exponent. */
+    static byte[] rsa(final RSAPublicKey key) {
+        final ByteArrayOutputStream sequence = new ByteArrayOutputStream(key.getModulus().bitLength() / 8 + 16);
+        der(0x02, key.getModulus().toByteArray(), sequence);
+        der(0x02, key.getPublicExponent().toByteArray(), sequence);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(sequence.size() + 4);
+        der(0x30, sequence.toByteArray(), out);
+        return out.toByteArray();
+    }
+
+    static void der(final int tag, final byte[] value, final ByteArrayOutputStream out) {
+        out.write(tag);
+        if (value.length < 0x80) {
+            out.write(value.length);
+
+        } else {
+            final int bytes = (32 - Integer.numberOfLeadingZeros(value.length) + 7) / 8;
+            out.write(0x80 | bytes);
+            for (int i = bytes - 1; i >= 0; i--) {
+                out.write(value.length >>> (8 * i));
+            }
+        }
+        out.write(value, 0, value.length);
+    }
+
+    static boolean startsWith(final byte[] encoded, final byte[] prefix, final int length) {
+        if (encoded.length != prefix.length + length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (encoded[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static byte[] tail(final byte[] encoded, final int length) {
+        final byte[] tail = new byte[length];
+        System.arraycopy(encoded, encoded.length - length, tail, 0, length);
+        return tail;
+    }
+
+    static String member(final Map<String, ?> jwk, final String name) {
+        final Object value = jwk.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Invalid JWK, a string member [" + name + "] is required.");
+        }
+        return (String) value;
+    }
+
+    static byte[] coordinate(final Map<String, ?> jwk, final String name, final int length, final String crv) {
+
+        final byte[] value;
+        try {
+            value = BASE64_DECODER.decode(member(jwk, name));
+
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid JWK member [" + name + "], expected base64url encoded value.", e);
+        }
+
+        if (value.length != length) {
+            throw new IllegalArgumentException("Invalid JWK member [" + name + "], expected " + length + " bytes for curve [" + crv + "] but got " + value.length + ".");
+        }
+        return value;
+    }
+
+    /**
+     * A key type, the multicodec, the JCA curve name of EC keys and the key or
+     * coordinate length in bytes.
+     */
+    static final class KeyType {
+
+        final Multicodec codec;
+        final String curveName;
+        final int length;
+
+        KeyType(Multicodec codec, String curveName, int length) {
+            this.codec = codec;
+            this.curveName = curveName;
+            this.length = length;
+        }
+    }
+}
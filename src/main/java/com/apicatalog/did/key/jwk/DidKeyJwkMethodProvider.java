@@ -1,13 +1,7 @@
 package com.apicatalog.did.key.jwk;
 
 import java.math.BigInteger;
-import java.security.AlgorithmParameters;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.ECFieldFp;
-import java.security.spec.ECGenParameterSpec;
-import java.security.spec.ECParameterSpec;
 import java.security.spec.ECPoint;
-import java.security.spec.InvalidParameterSpecException;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Base64.Encoder;
@@ -36,7 +30,9 @@ import com.apicatalog.multicodec.codec.KeyCodec;
  * </ul>
  *
  * <p>
- * The returned verification methods contain a JWK-formatted public key.
+ * The returned verification methods contain a JWK-formatted public key. A
+ * provider built with {@link Builder#lazy(boolean)} defers the conversion until
+ * the public key is accessed.
  * </p>
  */
 public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
@@ -47,15 +43,23 @@ public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
     static final DidKeyJwkMethodProvider DEFAULT = with(KeyCodec.ED25519_PUBLIC_KEY, key -> getJwk("Ed25519", key))
             .with(KeyCodec.BLS12_381_G1_PUBLIC_KEY, key -> getJwk("Bls12381G1", key))
             .with(KeyCodec.BLS12_381_G2_PUBLIC_KEY, key -> getJwk("Bls12381G2", key))
-            .with(KeyCodec.P256_PUBLIC_KEY, key -> getECJwk("P-256", "secp256r1", key, 32))
-            .with(KeyCodec.P384_PUBLIC_KEY, key -> getECJwk("P-384", "secp384r1", key, 48))
-            .with(KeyCodec.SECP256K1_PUBLIC_KEY, key -> getECJwk("secp256k1", "secp256k1", key, 32))
+            .with(KeyCodec.P256_PUBLIC_KEY, key -> getECJwk("P-256", ECCurve.P256, key))
+            .with(KeyCodec.P384_PUBLIC_KEY, key -> getECJwk("P-384", ECCurve.P384, key))
+            .with(KeyCodec.SECP256K1_PUBLIC_KEY, key -> getECJwk("secp256k1", ECCurve.SECP256K1, key))
             .build();
 
     final Map<Multicodec, JwkProvider> jwkProviders;
+    final CodecDispatch dispatch;
+    final boolean lazy;
 
     protected DidKeyJwkMethodProvider(Map<Multicodec, JwkProvider> jwkProviders) {
+        this(jwkProviders, false);
+    }
+
+    protected DidKeyJwkMethodProvider(Map<Multicodec, JwkProvider> jwkProviders, boolean lazy) {
         this.jwkProviders = jwkProviders;
+        this.dispatch = CodecDispatch.of(jwkProviders);
+        this.lazy = lazy;
     }
 
     /**
@@ -90,12 +94,16 @@ public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
     @Override
     public DidVerificationMethod get(DidUrl id, DidKey key, String type) {
 
-        final JwkProvider provider = jwkProviders.get(key.codec());
+        final JwkProvider provider = dispatch.get(key.codecCode());
 
         if (provider == null) {
             throw new IllegalArgumentException("Curve type [" + key.codec() + "] is not supported.");
         }
 
+        if (lazy) {
+            return new LazyJwkVerificationMethod(id, type, key, provider);
+        }
+
         return DidVerificationMethod.jwk(
                 id,
                 type,
@@ -129,14 +137,45 @@ public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
      */
     public static final Map<String, Object> getECJwk(String curve, String curveSpecName, DidKey key, int length) {
 
+        final ECCurve spec;
+        try {
+            spec = ECCurve.get(curveSpecName);
+
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Failed to construct EC JWK for curve [" + curve + "].", e);
+        }
+
+        return getECJwk(curve, spec, key, length);
+    }
+
+    static final Map<String, Object> getECJwk(String curve, ECCurve spec, DidKey key) {
+        return getECJwk(curve, spec, key, spec.length);
+    }
+
+    static final Map<String, Object> getECJwk(String curve, ECCurve spec, DidKey key, int length) {
+
         try {
-            final ECPoint point = decompress(curveSpecName, key.decoded());
+            final byte[] x;
+            final byte[] y;
+
+            if (spec.field != null) {
+                final byte[] compressed = key.decoded();
+
+                y = new byte[spec.length];
+                spec.decompress(compressed, y, 0);
+                x = Arrays.copyOfRange(compressed, 1, compressed.length);
+
+            } else {
+                final ECPoint point = decompress(spec, key.decoded());
+                x = point.getAffineX().toByteArray();
+                y = point.getAffineY().toByteArray();
+            }
 
             final Map<String, Object> jwk = new LinkedHashMap<>();
             jwk.put("kty", "EC");
             jwk.put("crv", curve);
-            jwk.put("x", BASE64_ENCODER.encodeToString(normalize(point.getAffineX().toByteArray(), length)));
-            jwk.put("y", BASE64_ENCODER.encodeToString(normalize(point.getAffineY().toByteArray(), length)));
+            jwk.put("x", BASE64_ENCODER.encodeToString(normalize(x, length)));
+            jwk.put("y", BASE64_ENCODER.encodeToString(normalize(y, length)));
             return Collections.unmodifiableMap(jwk);
 
         } catch (Exception e) {
@@ -155,28 +194,32 @@ public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
         return out;
     }
 
-    /** Decompresses a compressed EC point. */
-    static final ECPoint decompress(String curveSpecName, byte[] compressed) throws InvalidParameterSpecException, NoSuchAlgorithmException {
+    /** Decompresses a compressed EC point using {@link BigInteger} arithmetic. */
+    static final ECPoint decompress(ECCurve curve, byte[] compressed) {
 
         if (compressed.length < 2 || (compressed[0] & 0xFE) != 0x02) {
             throw new IllegalArgumentException("Compressed EC point required.");
         }
 
-        AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
-        params.init(new ECGenParameterSpec(curveSpecName));
-        ECParameterSpec spec = params.getParameterSpec(ECParameterSpec.class);
+        if (compressed.length != 1 + curve.length) {
+            throw new IllegalArgumentException("Unexpected EC point length for curve [" + curve.name + "].");
+        }
 
-        int length = (spec.getCurve().getField().getFieldSize() + 7) / 8;
+        final BigInteger p = curve.p;
+        BigInteger x = new BigInteger(1, Arrays.copyOfRange(compressed, 1, compressed.length));
 
-        if (compressed.length != 1 + length) {
-            throw new IllegalArgumentException("Unexpected EC point length for curve [" + curveSpecName + "].");
+        if (x.compareTo(p) >= 0) {
+            throw new IllegalArgumentException("Invalid EC point, x is not a field element.");
         }
 
-        BigInteger p = ((ECFieldFp) spec.getCurve().getField()).getP();
-        BigInteger a = spec.getCurve().getA(), b = spec.getCurve().getB();
-        BigInteger x = new BigInteger(1, Arrays.copyOfRange(compressed, 1, compressed.length));
-        BigInteger rhs = x.modPow(BigInteger.valueOf(3), p).add(a.multiply(x)).add(b).mod(p);
-        BigInteger y = sqrtMod(rhs, p);
+        BigInteger rhs = x.multiply(x).add(curve.a).multiply(x).add(curve.b).mod(p);
+        BigInteger y = curve.sqrtExponent != null
+                ? rhs.modPow(curve.sqrtExponent, p)
+                : sqrtMod(rhs, p);
+
+        if (!y.multiply(y).mod(p).equals(rhs)) {
+            throw new IllegalArgumentException("Invalid EC point, not on the curve [" + curve.name + "].");
+        }
 
         if (y.testBit(0) != ((compressed[0] & 1) == 1)) {
             y = p.subtract(y);
@@ -231,9 +274,11 @@ public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
     public static class Builder {
 
         final Map<Multicodec, JwkProvider> providers;
+        boolean lazy;
 
         Builder(Map<Multicodec, JwkProvider> providers) {
             this.providers = providers;
+            this.lazy = false;
         }
 
         /** Registers a new codec → provider mapping. */
@@ -242,12 +287,43 @@ public class DidKeyJwkMethodProvider implements VerificationMethodProvider {
             return this;
         }
 
-        /** Builds the provider, falling back to default if empty. */
+        /**
+         * Registers an EC key type whose {@code did:key} form is a compressed point.
+         * Curve parameters are resolved once, when the mapping is registered.
+         *
+         * @param codec         the multicodec
+         * @param curve         the JWK "crv" parameter
+         * @param curveSpecName the JCA curve spec name
+         * @return this builder
+         * @throws IllegalArgumentException if the curve is not supported
+         */
+        public Builder withEC(Multicodec codec, String curve, String curveSpecName) {
+            final ECCurve spec = ECCurve.get(curveSpecName);
+            return with(codec, key -> getECJwk(curve, spec, key));
+        }
+
+        /**
+         * Enables or disables lazy verification methods. A lazy method computes its
+         * JWK on the first call of {@link DidVerificationMethod#publicKeyJwk()}, so
+         * resolution skips the conversion, e.g. EC point decompression, when the
+         * JWK is never read. Conversion errors are then raised on access.
+         *
+         * @param lazy {@code true} to defer JWK conversion
+         * @return this builder
+         */
+        public Builder lazy(boolean lazy) {
+            this.lazy = lazy;
+            return this;
+        }
+
+        /** Builds the provider, falling back to default mappings if empty. */
         public DidKeyJwkMethodProvider build() {
             if (providers.isEmpty()) {
-                return DEFAULT;
+                return lazy
+                        ? new DidKeyJwkMethodProvider(DEFAULT.jwkProviders, true)
+                        : DEFAULT;
             }
-            return new DidKeyJwkMethodProvider(Collections.unmodifiableMap(providers));
+            return new DidKeyJwkMethodProvider(Collections.unmodifiableMap(providers), lazy);
         }
     }
 }
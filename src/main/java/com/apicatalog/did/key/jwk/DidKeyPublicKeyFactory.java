@@ -0,0 +1,241 @@
+package com.apicatalog.did.key.jwk;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.KeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+/**
+ * Materializes JCA {@link PublicKey} instances from {@link DidKey}
+ * identifiers, e.g. to verify signatures.
+ *
+ * <p>
+ * EC points are decompressed directly from the raw key bytes, using the same
+ * fixed-width arithmetic as {@link DidKeyJwkMethodProvider}, with no JWK
+ * round trip. {@link KeyFactory} instances are kept per thread and curve
+ * parameters are looked up once. An instance created with
+ * {@link #create(int)} additionally keeps the most recently used keys.
+ * </p>
+ *
+ * <p>
+ * Supported key types are P-256, P-384, P-521 and secp256k1, RSA, Ed25519 and
+ * X25519, as far as the installed security providers support them. Ed25519
+ * and X25519 keys are created from their {@code X.509} encoding, i.e. require
+ * a provider supporting them, e.g. the JDK 15 and later default providers.
+ * secp256k1 keys are created by the JDK default provider, but verifying their
+ * signatures requires a provider supporting the curve, the JDK default one
+ * does not since JDK 16.
+ * </p>
+ */
+public final class DidKeyPublicKeyFactory {
+
+    /** Default instance without a cache. */
+    static final DidKeyPublicKeyFactory DEFAULT = new DidKeyPublicKeyFactory(null);
+
+    /** {@code AlgorithmIdentifier} of an RSA key, RFC 3279. */
+    static final byte[] RSA_ALGORITHM = {
+            0x30, 0x0d, 0x06, 0x09, 0x2a, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xf7, 0x0d, 0x01, 0x01, 0x01, 0x05, 0x00
+    };
+
+    /** Per-thread key factories by algorithm name. */
+    static final ThreadLocal<Map<String, KeyFactory>> FACTORIES = ThreadLocal.withInitial(HashMap::new);
+
+    /** Keys by the multicodec encoded key bytes, or {@code null}. */
+    final Cache cache;
+
+    DidKeyPublicKeyFactory(final Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the default instance, materializing a new key on each call.
+     *
+     * @return the default instance
+     */
+    public static DidKeyPublicKeyFactory getInstance() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new instance keeping up to {@code maxSize} recently used keys.
+     *
+     * @param maxSize the maximal number of cached keys
+     * @return a new instance
+     * @throws IllegalArgumentException if {@code maxSize} is not positive
+     */
+    public static DidKeyPublicKeyFactory create(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive, but was [" + maxSize + "].");
+        }
+        return new DidKeyPublicKeyFactory(new Cache(maxSize));
+    }
+
+    /**
+     * Returns a JCA public key of the given {@link DidKey}.
+     *
+     * @param key the key
+     * @return a public key
+     * @throws NullPointerException     if {@code key} is {@code null}
+     * @throws IllegalArgumentException if the key type is not supported or the
+     *                                  key is invalid
+     */
+    public PublicKey get(final DidKey key) {
+        Objects.requireNonNull(key, "DidKey must not be null.");
+
+        if (cache == null) {
+            return materialize(key);
+        }
+
+        final ByteBuffer id = key.debasedView();
+
+        PublicKey publicKey;
+        synchronized (cache) {
+            publicKey = cache.get(id);
+        }
+
+        if (publicKey == null) {
+            publicKey = materialize(key);
+            synchronized (cache) {
+                cache.put(id, publicKey);
+            }
+        }
+        return publicKey;
+    }
+
+    /** @return the number of cached keys */
+    public int size() {
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    static PublicKey materialize(final DidKey key) {
+
+        final long code = key.codecCode();
+
+        if (code == KeyCodec.ED25519_PUBLIC_KEY.code()) {
+            return generate("Ed25519", new X509EncodedKeySpec(spki(DidKeyJwkConverter.ED25519_SPKI, key.decoded())));
+        }
+        if (code == KeyCodec.X25519_PUBLIC_KEY.code()) {
+            return generate("X25519", new X509EncodedKeySpec(spki(DidKeyJwkConverter.X25519_SPKI, key.decoded())));
+        }
+        if (code == KeyCodec.P256_PUBLIC_KEY.code()) {
+            return ec(ECCurve.P256, key.decoded());
+        }
+        if (code == KeyCodec.P384_PUBLIC_KEY.code()) {
+            return ec(ECCurve.P384, key.decoded());
+        }
+        if (code == KeyCodec.SECP256K1_PUBLIC_KEY.code()) {
+            return ec(ECCurve.SECP256K1, key.decoded());
+        }
+        if (code == KeyCodec.P521_PUBLIC_KEY.code()) {
+            return ec(ECCurve.get("secp521r1"), key.decoded());
+        }
+        if (code == KeyCodec.RSA_PUBLIC_KEY.code()) {
+            return generate("RSA", new X509EncodedKeySpec(rsa(key.decoded())));
+        }
+
+        throw new IllegalArgumentException("Key type [" + key.codec() + "] is not supported.");
+    }
+
+    static PublicKey ec(final ECCurve curve, final byte[] compressed) {
+
+        final ECPoint point;
+
+        if (curve.field != null) {
+            final byte[] y = new byte[curve.length];
+            curve.decompress(compressed, y, 0);
+            point = new ECPoint(
+                    new BigInteger(1, Arrays.copyOfRange(compressed, 1, compressed.length)),
+                    new BigInteger(1, y));
+
+        } else {
+            point = DidKeyJwkMethodProvider.decompress(curve, compressed);
+        }
+
+        return generate("EC", new ECPublicKeySpec(point, curve.parameters()));
+    }
+
+    static PublicKey generate(final String algorithm, final KeySpec spec) {
+        try {
+            return factory(algorithm).generatePublic(spec);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid " + algorithm + " public key.", e);
+        }
+    }
+
+    static KeyFactory factory(final String algorithm) {
+
+        final Map<String, KeyFactory> factories = FACTORIES.get();
+
+        KeyFactory factory = factories.get(algorithm);
+        if (factory == null) {
+            try {
+                factory = KeyFactory.getInstance(algorithm);
+
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalArgumentException("Key type [" + algorithm + "] is not supported by the installed security providers.", e);
+            }
+            factories.put(algorithm, factory);
+        }
+        return factory;
+    }
+
+    static byte[] spki(final byte[] prefix, final byte[] key) {
+        final byte[] encoded = Arrays.copyOf(prefix, prefix.length + key.length);
+        System.arraycopy(key, 0, encoded, prefix.length, key.length);
+        return encoded;
+    }
+
+    /** Wraps a PKCS #1 {@code RSAPublicKey} as a {@code SubjectPublicKeyInfo}. */
+    static byte[] rsa(final byte[] pkcs1) {
+
+        final byte[] bits = new byte[1 + pkcs1.length];
+        System.arraycopy(pkcs1, 0, bits, 1, pkcs1.length);
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream(pkcs1.length + 24);
+        content.write(RSA_ALGORITHM, 0, RSA_ALGORITHM.length);
+        DidKeyJwkConverter.der(0x03, bits, content);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(content.size() + 4);
+        DidKeyJwkConverter.der(0x30, content.toByteArray(), out);
+        return out.toByteArray();
+    }
+
+    /** An access ordered map evicting its eldest entry once full. */
+    static final class Cache extends LinkedHashMap<ByteBuffer, PublicKey> {
+
+        private static final long serialVersionUID = 4937256381190946517L;
+
+        final int capacity;
+
+        Cache(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, PublicKey> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.apicatalog.did.key.jwk;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.spec.ECField;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short Weierstrass curve {@code y^2 = x^3 + ax + b} over a prime field, with
+ * all values needed to decompress a point computed once.
+ *
+ * <p>
+ * Curves are registered by their JCA name. P-256, P-384 and secp256k1 are
+ * built in, any other curve is looked up via JCA on first use and kept for
+ * the lifetime of the registry.
+ * </p>
+ *
+ * <p>
+ * Built-in curves decompress points using fixed-width {@link PrimeField}
+ * arithmetic, other curves fall back to {@link BigInteger}.
+ * </p>
+ */
+final class ECCurve {
+
+    static final ECCurve P256 = new ECCurve(
+            "secp256r1",
+            PrimeField.P256,
+            new BigInteger("ffffffff00000001000000000000000000000000fffffffffffffffffffffffc", 16),
+            new BigInteger("5ac635d8aa3a93e7b3ebbd55769886bc651d06b0cc53b0f63bce3c3e27d2604b", 16));
+
+    static final ECCurve P384 = new ECCurve(
+            "secp384r1",
+            PrimeField.P384,
+            new BigInteger("fffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffeffffffff0000000000000000fffffffc", 16),
+            new BigInteger("b3312fa7e23ee7e4988e056be3f82d19181d9c6efe8141120314088f5013875ac656398d8a2ed19d2a85c8edd3ec2aef", 16));
+
+    static final ECCurve SECP256K1 = new ECCurve(
+            "secp256k1",
+            PrimeField.SECP256K1,
+            BigInteger.ZERO,
+            BigInteger.valueOf(7));
+
+    static final Map<String, ECCurve> REGISTRY = new ConcurrentHashMap<>();
+
+    static {
+        register(P256);
+        register(P384);
+        register(SECP256K1);
+    }
+
+    /** JCA curve name, e.g. {@code secp256r1}. */
+    final String name;
+
+    /** Field prime. */
+    final BigInteger p;
+    final BigInteger a;
+    final BigInteger b;
+
+    /** Field element length in bytes. */
+    final int length;
+
+    /**
+     * {@code (p + 1) / 4} if {@code p % 4 == 3}, i.e. a square root is a single
+     * exponentiation, otherwise {@code null}.
+     */
+    final BigInteger sqrtExponent;
+
+    /** Fixed-width field arithmetic, or {@code null} if not available. */
+    final PrimeField field;
+    final long[] aLimbs;
+    final long[] bLimbs;
+
+    /** JCA curve parameters, looked up on first use. */
+    volatile ECParameterSpec parameters;
+
+    ECCurve(String name, BigInteger p, BigInteger a, BigInteger b) {
+        this.name = name;
+        this.p = p;
+        this.a = a;
+        this.b = b;
+        this.length = (p.bitLength() + 7) / 8;
+        this.sqrtExponent = p.testBit(1)
+                ? p.add(BigInteger.ONE).shiftRight(2)
+                : null;
+        this.field = null;
+        this.aLimbs = null;
+        this.bLimbs = null;
+        this.parameters = null;
+    }
+
+    ECCurve(String name, PrimeField field, BigInteger a, BigInteger b) {
+        this.name = name;
+        this.p = field.prime;
+        this.a = a;
+        this.b = b;
+        this.length = field.length;
+        this.sqrtExponent = p.add(BigInteger.ONE).shiftRight(2);
+        this.field = field;
+        this.aLimbs = PrimeField.limbs(a, field.n);
+        this.bLimbs = PrimeField.limbs(b, field.n);
+        this.parameters = null;
+    }
+
+    /**
+     * Recovers the y coordinate of a compressed point {@code [0x02 | 0x03, x]}
+     * using fixed-width field arithmetic. Requires {@link #field}.
+     *
+     * @param compressed the compressed point
+     * @param y          the output buffer
+     * @param offset     the output offset, {@link #length} bytes are written
+     * @throws IllegalArgumentException if the input is not a compressed point on
+     *                                  the curve
+     */
+    void decompress(final byte[] compressed, final byte[] y, final int offset) {
+
+        if (compressed.length != 1 + length || (compressed[0] & 0xFE) != 0x02) {
+            throw new IllegalArgumentException("Compressed EC point required.");
+        }
+
+        final PrimeField.Workspace ws = field.workspace.get();
+
+        field.decode(compressed, 1, ws.x);
+
+        if (field.compare(ws.x, field.p) >= 0) {
+            throw new IllegalArgumentException("Invalid EC point, x is not a field element.");
+        }
+
+        // z = (x^2 + a) * x + b
+        field.mul(ws.x, ws.x, ws.z, ws);
+        field.add(ws.z, aLimbs, ws.z);
+        field.mul(ws.z, ws.x, ws.z, ws);
+        field.add(ws.z, bLimbs, ws.z);
+
+        if (!field.sqrt(ws.z, ws.y, ws)) {
+            throw new IllegalArgumentException("Invalid EC point, not on the curve [" + name + "].");
+        }
+
+        if ((ws.y[0] & 1) != (compressed[0] & 1) && !field.isZero(ws.y)) {
+            field.sub(field.p, ws.y, ws.y);
+        }
+
+        field.encode(ws.y, y, offset);
+    }
+
+    /**
+     * Compresses an affine point, i.e. writes {@code [0x02 | 0x03, x]}, after
+     * verifying the point is on the curve.
+     *
+     * @param x      the x coordinate, {@link #length} big-endian bytes
+     * @param y      the y coordinate, {@link #length} big-endian bytes
+     * @param out    the output buffer
+     * @param offset the output offset, {@link #length} {@code + 1} bytes are
+     *               written
+     * @throws IllegalArgumentException if the coordinates are not a point on
+     *                                  the curve
+     */
+    void compress(final byte[] x, final byte[] y, final byte[] out, final int offset) {
+
+        if (x.length != length || y.length != length) {
+            throw new IllegalArgumentException("Invalid EC point, unexpected coordinate length for curve [" + name + "].");
+        }
+
+        if (field != null) {
+            final PrimeField.Workspace ws = field.workspace.get();
+
+            field.decode(x, 0, ws.x);
+            field.decode(y, 0, ws.y);
+
+            if (field.compare(ws.x, field.p) >= 0 || field.compare(ws.y, field.p) >= 0) {
+                throw new IllegalArgumentException("Invalid EC point, not a field element.");
+            }
+
+            // z = (x^2 + a) * x + b, t = y^2
+            field.mul(ws.x, ws.x, ws.z, ws);
+            field.add(ws.z, aLimbs, ws.z);
+            field.mul(ws.z, ws.x, ws.z, ws);
+            field.add(ws.z, bLimbs, ws.z);
+            field.sqr(ws.y, ws.t, ws);
+
+            if (field.compare(ws.z, ws.t) != 0) {
+                throw new IllegalArgumentException("Invalid EC point, not on the curve [" + name + "].");
+            }
+
+        } else {
+            final BigInteger bx = new BigInteger(1, x);
+            final BigInteger by = new BigInteger(1, y);
+
+            if (bx.compareTo(p) >= 0 || by.compareTo(p) >= 0) {
+                throw new IllegalArgumentException("Invalid EC point, not a field element.");
+            }
+
+            if (!by.multiply(by).mod(p).equals(bx.multiply(bx).add(a).multiply(bx).add(b).mod(p))) {
+                throw new IllegalArgumentException("Invalid EC point, not on the curve [" + name + "].");
+            }
+        }
+
+        out[offset] = (byte) (0x02 | (y[length - 1] & 1));
+        System.arraycopy(x, 0, out, offset + 1, length);
+    }
+
+    /**
+     * Returns the JCA parameters of this curve, looked up once via the installed
+     * security providers.
+     *
+     * @return the curve parameters
+     * @throws IllegalArgumentException if the curve is not supported by the
+     *                                  installed providers
+     */
+    ECParameterSpec parameters() {
+        ECParameterSpec spec = parameters;
+        if (spec == null) {
+            spec = parameters(name);
+            parameters = spec;
+        }
+        return spec;
+    }
+
+    static ECParameterSpec parameters(String name) {
+        try {
+            final AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
+            params.init(new ECGenParameterSpec(name));
+            return params.getParameterSpec(ECParameterSpec.class);
+
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Unsupported EC curve [" + name + "].", e);
+        }
+    }
+
+    /**
+     * Returns the curve registered under the given JCA name, looking it up via
+     * JCA if not registered yet.
+     *
+     * @param name the JCA curve name, e.g. {@code secp256r1}
+     * @return the curve
+     * @throws IllegalArgumentException if the curve is not known to JCA or is
+     *                                  not defined over a prime field
+     */
+    static ECCurve get(String name) {
+        Objects.requireNonNull(name);
+
+        final ECCurve curve = REGISTRY.get(name);
+        if (curve != null) {
+            return curve;
+        }
+        return REGISTRY.computeIfAbsent(name, ECCurve::lookup);
+    }
+
+    static void register(ECCurve curve) {
+        REGISTRY.put(curve.name, curve);
+    }
+
+    static ECCurve lookup(String name) {
+        final ECParameterSpec spec = parameters(name);
+
+        final ECField field = spec.getCurve().getField();
+
+        if (!(field instanceof ECFieldFp)) {
+            throw new IllegalArgumentException("Unsupported EC curve [" + name + "], a prime field curve is required.");
+        }
+
+        final ECCurve curve = new ECCurve(name, ((ECFieldFp) field).getP(), spec.getCurve().getA(), spec.getCurve().getB());
+        curve.parameters = spec;
+        return curve;
+    }
+}
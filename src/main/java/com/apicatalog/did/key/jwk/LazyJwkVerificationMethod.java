@@ -0,0 +1,74 @@
+package com.apicatalog.did.key.jwk;
+
+import java.util.Map;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.DidUrl;
+import com.apicatalog.did.datatype.MultibaseEncoded;
+import com.apicatalog.did.document.DidVerificationMethod;
+import com.apicatalog.did.key.DidKey;
+
+/**
+ * A JWK {@link DidVerificationMethod} whose public key is computed on first
+ * access to {@link #publicKeyJwk()} and then kept.
+ *
+ * <p>
+ * Any failure to convert the key, e.g. an invalid EC point, is reported by
+ * {@link #publicKeyJwk()} instead of at resolution time.
+ * </p>
+ */
+final class LazyJwkVerificationMethod implements DidVerificationMethod {
+
+    final DidUrl id;
+    final String type;
+    final DidKey key;
+
+    /** Cleared once the JWK is computed. */
+    JwkProvider provider;
+
+    volatile Map<String, Object> jwk;
+
+    LazyJwkVerificationMethod(DidUrl id, String type, DidKey key, JwkProvider provider) {
+        this.id = id;
+        this.type = type;
+        this.key = key;
+        this.provider = provider;
+        this.jwk = null;
+    }
+
+    @Override
+    public DidUrl id() {
+        return id;
+    }
+
+    @Override
+    public String type() {
+        return type;
+    }
+
+    @Override
+    public Did controller() {
+        return key;
+    }
+
+    @Override
+    public Map<String, Object> publicKeyJwk() {
+        Map<String, Object> result = jwk;
+        if (result == null) {
+            synchronized (this) {
+                result = jwk;
+                if (result == null) {
+                    result = provider.get(key);
+                    jwk = result;
+                    provider = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public MultibaseEncoded publicKeyMultibase() {
+        return null;
+    }
+}
@@ -0,0 +1,397 @@
+package com.apicatalog.did.key.jwk;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo a Solinas prime {@code p = 2^(32n) - c}, where {@code c}
+ * is a short sum of signed multiples of powers of {@code 2^32}.
+ *
+ * <p>
+ * Field elements are fixed-size {@code long[]} arrays of {@code n} unsigned
+ * 32-bit limbs, least significant limb first. A product of two elements is
+ * reduced by folding each limb above {@code 2^(32n)} back using
+ * {@code 2^(32n) = c (mod p)}, with no division and no allocation.
+ * </p>
+ *
+ * <p>
+ * Only public values, i.e. compressed public keys, are processed, so the
+ * implementation is not constant-time.
+ * </p>
+ */
+class PrimeField {
+
+    static final long MASK = 0xffffffffL;
+
+    /**
+     * NIST P-256 field: {@code p = 2^256 - 2^224 + 2^192 + 2^96 - 1}, i.e.
+     * {@code 2^256 = 2^224 - 2^192 - 2^96 + 1}.
+     */
+    static final PrimeField P256 = new PrimeField(
+            new BigInteger("ffffffff00000001000000000000000000000000ffffffffffffffffffffffff", 16),
+            new int[] { 7, 6, 3, 0 },
+            new long[] { 1, -1, -1, 1 }) {
+
+        @Override
+        void fold(final long[] c) {
+            final long c8 = c[8], c9 = c[9], c10 = c[10], c11 = c[11];
+            final long c12 = c[12], c13 = c[13], c14 = c[14], c15 = c[15];
+
+            c[0] += c8 + c9 - c11 - c12 - c13 - c14;
+            c[1] += c9 + c10 - c12 - c13 - c14 - c15;
+            c[2] += c10 + c11 - c13 - c14 - c15;
+            c[3] += 2 * (c11 + c12) + c13 - c15 - c8 - c9;
+            c[4] += 2 * (c12 + c13) + c14 - c9 - c10;
+            c[5] += 2 * (c13 + c14) + c15 - c10 - c11;
+            c[6] += 3 * c14 + 2 * c15 + c13 - c8 - c9;
+            c[7] += 3 * c15 + c8 - c10 - c11 - c12 - c13;
+            c[8] = 0;
+        }
+    };
+
+    /**
+     * NIST P-384 field: {@code p = 2^384 - 2^128 - 2^96 + 2^32 - 1}, i.e.
+     * {@code 2^384 = 2^128 + 2^96 - 2^32 + 1}.
+     */
+    static final PrimeField P384 = new PrimeField(
+            new BigInteger("fffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffeffffffff0000000000000000ffffffff", 16),
+            new int[] { 4, 3, 1, 0 },
+            new long[] { 1, 1, -1, 1 }) {
+
+        @Override
+        void fold(final long[] c) {
+            final long c12 = c[12], c13 = c[13], c14 = c[14], c15 = c[15], c16 = c[16], c17 = c[17];
+            final long c18 = c[18], c19 = c[19], c20 = c[20], c21 = c[21], c22 = c[22], c23 = c[23];
+
+            c[0] += c12 + c21 + c20 - c23;
+            c[1] += c13 + c22 + c23 - c12 - c20;
+            c[2] += c14 + c23 - c13 - c21;
+            c[3] += c15 + c12 + c20 + c21 - c14 - c22 - c23;
+            c[4] += 2 * c21 + c16 + c13 + c12 + c20 + c22 - c15 - 2 * c23;
+            c[5] += 2 * c22 + c17 + c14 + c13 + c21 + c23 - c16;
+            c[6] += 2 * c23 + c18 + c15 + c14 + c22 - c17;
+            c[7] += c19 + c16 + c15 + c23 - c18;
+            c[8] += c20 + c17 + c16 - c19;
+            c[9] += c21 + c18 + c17 - c20;
+            c[10] += c22 + c19 + c18 - c21;
+            c[11] += c23 + c20 + c19 - c22;
+            c[12] = 0;
+        }
+    };
+
+    /**
+     * secp256k1 field: {@code p = 2^256 - 2^32 - 977}, i.e.
+     * {@code 2^256 = 2^32 + 977}.
+     */
+    static final PrimeField SECP256K1 = new PrimeField(
+            new BigInteger("fffffffffffffffffffffffffffffffffffffffffffffffffffffffefffffc2f", 16),
+            new int[] { 1, 0 },
+            new long[] { 1, 977 }) {
+
+        @Override
+        void fold(final long[] c) {
+            final long c8 = c[8], c9 = c[9], c10 = c[10], c11 = c[11];
+            final long c12 = c[12], c13 = c[13], c14 = c[14], c15 = c[15];
+
+            c[0] += 977 * c8;
+            c[1] += 977 * c9 + c8;
+            c[2] += 977 * c10 + c9;
+            c[3] += 977 * c11 + c10;
+            c[4] += 977 * c12 + c11;
+            c[5] += 977 * c13 + c12;
+            c[6] += 977 * c14 + c13;
+            c[7] += 977 * c15 + c14;
+            // 2^256 * c15
+            c[8] = c15;
+        }
+    };
+
+    /** Number of 32-bit limbs. */
+    final int n;
+
+    /** Field element length in bytes. */
+    final int length;
+
+    /** The prime. */
+    final BigInteger prime;
+    final long[] p;
+
+    /** {@code (p + 1) / 4}, the square root exponent. */
+    final long[] sqrtExponent;
+    final int sqrtExponentBits;
+
+    /** Limb offsets of {@code 2^(32n) mod p} terms. */
+    final int[] offsets;
+    /** Coefficients of {@code 2^(32n) mod p} terms. */
+    final long[] coefficients;
+
+    final ThreadLocal<Workspace> workspace;
+
+    PrimeField(BigInteger p, int[] offsets, long[] coefficients) {
+
+        if (!p.testBit(0) || !p.testBit(1)) {
+            throw new IllegalArgumentException("A prime p = 3 (mod 4) is required.");
+        }
+
+        this.n = (p.bitLength() + 31) / 32;
+        this.length = n * 4;
+        this.prime = p;
+        this.p = limbs(p, n);
+
+        final BigInteger exponent = p.add(BigInteger.ONE).shiftRight(2);
+        this.sqrtExponent = limbs(exponent, n);
+        this.sqrtExponentBits = exponent.bitLength();
+
+        this.offsets = offsets;
+        this.coefficients = coefficients;
+
+        this.workspace = ThreadLocal.withInitial(() -> new Workspace(n));
+    }
+
+    /**
+     * Computes a square root, {@code out = x^((p + 1) / 4) mod p}. Neither
+     * {@code x} nor {@code out} may be {@link Workspace#t}.
+     *
+     * @return {@code true} if {@code x} is a quadratic residue, i.e.
+     *         {@code out^2 = x}
+     */
+    boolean sqrt(final long[] x, final long[] out, final Workspace ws) {
+        pow(x, sqrtExponent, sqrtExponentBits, out, ws);
+        sqr(out, ws.t, ws);
+        return compare(ws.t, x) == 0;
+    }
+
+    /** {@code out = x * y mod p}, {@code out} may alias an operand. */
+    void mul(final long[] x, final long[] y, final long[] out, final Workspace ws) {
+        product(x, y, ws.product);
+        reduce(ws.product, out);
+    }
+
+    /** {@code out = x^2 mod p}, {@code out} may alias {@code x}. */
+    void sqr(final long[] x, final long[] out, final Workspace ws) {
+        square(x, ws.product);
+        reduce(ws.product, out);
+    }
+
+    /**
+     * Computes the {@code 2n} limb product of two field elements.
+     *
+     * <p>
+     * Each step {@code x[i] * y[j] + r[i + j] + carry} is at most
+     * {@code 2^64 - 1}, i.e. fits an unsigned long.
+     * </p>
+     */
+    void product(final long[] x, final long[] y, final long[] r) {
+        for (int j = 0; j < n; j++) {
+            r[j] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            final long xi = x[i];
+            long c = 0;
+            for (int j = 0; j < n; j++) {
+                c = xi * y[j] + r[i + j] + (c >>> 32);
+                r[i + j] = c & MASK;
+            }
+            r[i + n] = c >>> 32;
+        }
+    }
+
+    /**
+     * Computes the {@code 2n} limb square of a field element. The cross products
+     * {@code x[i] * x[j]}, {@code i < j}, are summed once and doubled, then the
+     * squares {@code x[i]^2} are added, i.e. about half the multiplications of
+     * {@link #product(long[], long[], long[])}.
+     */
+    void square(final long[] x, final long[] r) {
+
+        for (int i = 0; i < 2 * n; i++) {
+            r[i] = 0;
+        }
+
+        for (int i = 0; i < n - 1; i++) {
+            final long xi = x[i];
+            long c = 0;
+            for (int j = i + 1; j < n; j++) {
+                c = xi * x[j] + r[i + j] + (c >>> 32);
+                r[i + j] = c & MASK;
+            }
+            r[i + n] = c >>> 32;
+        }
+
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+            // an unsigned square, at most 2^64 - 2^33 + 1
+            final long s = x[i] * x[i];
+
+            long t = (r[2 * i] << 1) + (s & MASK) + carry;
+            r[2 * i] = t & MASK;
+            carry = t >>> 32;
+
+            t = (r[2 * i + 1] << 1) + (s >>> 32) + carry;
+            r[2 * i + 1] = t & MASK;
+            carry = t >>> 32;
+        }
+    }
+
+    /**
+     * Reduces a {@code 2n} limb product. The upper limbs are folded into the
+     * lower ones as signed values, then carries are propagated and the remaining
+     * overflow is folded again until the value fits {@code n} limbs.
+     */
+    void reduce(final long[] r, final long[] out) {
+
+        fold(r);
+
+        long carry = propagate(r);
+
+        while (carry != 0) {
+            for (int k = 0; k < offsets.length; k++) {
+                r[offsets[k]] += coefficients[k] * carry;
+            }
+            carry = propagate(r);
+        }
+
+        if (compare(r, p) >= 0) {
+            sub(r, p, r);
+        }
+
+        System.arraycopy(r, 0, out, 0, n);
+    }
+
+    /**
+     * Folds limbs {@code n} to {@code 2n - 1} into the lower {@code n} limbs using
+     * {@code 2^(32n) = c (mod p)}, leaving signed values in limbs {@code 0} to
+     * {@code n - 1} and an optional signed overflow in limb {@code n}. Subclasses
+     * unroll the fold for a specific prime.
+     */
+    void fold(final long[] r) {
+        for (int i = 2 * n - 1; i >= n; i--) {
+            final long h = r[i];
+            if (h != 0) {
+                r[i] = 0;
+                for (int k = 0; k < offsets.length; k++) {
+                    r[i - n + offsets[k]] += coefficients[k] * h;
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates signed carries over the lower {@code n} limbs and returns the
+     * overflow, including limb {@code n} which is cleared.
+     */
+    long propagate(final long[] r) {
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+            final long t = r[i] + carry;
+            r[i] = t & MASK;
+            carry = t >> 32;
+        }
+        carry += r[n];
+        r[n] = 0;
+        return carry;
+    }
+
+    /** {@code out = x + y mod p}, {@code out} may alias an operand. */
+    void add(final long[] x, final long[] y, final long[] out) {
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+            final long t = x[i] + y[i] + carry;
+            out[i] = t & MASK;
+            carry = t >>> 32;
+        }
+        if (carry != 0 || compare(out, p) >= 0) {
+            sub(out, p, out);
+        }
+    }
+
+    /**
+     * {@code out = x - y}, ignoring the final borrow. {@code out} may alias an
+     * operand.
+     */
+    void sub(final long[] x, final long[] y, final long[] out) {
+        long borrow = 0;
+        for (int i = 0; i < n; i++) {
+            final long t = x[i] - y[i] - borrow;
+            out[i] = t & MASK;
+            borrow = (t >> 32) & 1;
+        }
+    }
+
+    /** {@code out = x^e mod p}, {@code out} must not alias {@code x}. */
+    void pow(final long[] x, final long[] e, final int bits, final long[] out, final Workspace ws) {
+
+        System.arraycopy(x, 0, out, 0, n);
+
+        for (int i = bits - 2; i >= 0; i--) {
+            sqr(out, out, ws);
+            if (((e[i >>> 5] >>> (i & 31)) & 1) != 0) {
+                mul(out, x, out, ws);
+            }
+        }
+    }
+
+    /** Compares the lower {@code n} limbs as unsigned integers. */
+    int compare(final long[] x, final long[] y) {
+        for (int i = n - 1; i >= 0; i--) {
+            if (x[i] != y[i]) {
+                return x[i] < y[i] ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    boolean isZero(final long[] x) {
+        for (int i = 0; i < n; i++) {
+            if (x[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Reads {@link #length} big-endian bytes into limbs. */
+    void decode(final byte[] src, final int offset, final long[] out) {
+        for (int i = 0, index = offset + length - 1; i < n; i++, index -= 4) {
+            out[i] = (src[index] & 0xffL)
+                    | (src[index - 1] & 0xffL) << 8
+                    | (src[index - 2] & 0xffL) << 16
+                    | (src[index - 3] & 0xffL) << 24;
+        }
+    }
+
+    /** Writes limbs as {@link #length} big-endian bytes. */
+    void encode(final long[] x, final byte[] out, final int offset) {
+        for (int i = 0, index = offset + length - 1; i < n; i++, index -= 4) {
+            out[index] = (byte) x[i];
+            out[index - 1] = (byte) (x[i] >>> 8);
+            out[index - 2] = (byte) (x[i] >>> 16);
+            out[index - 3] = (byte) (x[i] >>> 24);
+        }
+    }
+
+    static long[] limbs(final BigInteger value, final int n) {
+        final long[] limbs = new long[n];
+        for (int i = 0; i < n; i++) {
+            limbs[i] = value.shiftRight(32 * i).longValue() & MASK;
+        }
+        return limbs;
+    }
+
+    /** Per-thread scratch buffers. */
+    static final class Workspace {
+
+        final long[] x;
+        final long[] y;
+        final long[] z;
+        final long[] t;
+        final long[] product;
+
+        Workspace(int n) {
+            this.x = new long[n];
+            this.y = new long[n];
+            this.z = new long[n];
+            this.t = new long[n];
+            this.product = new long[2 * n];
+        }
+    }
+}
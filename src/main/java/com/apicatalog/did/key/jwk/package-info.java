@@ -6,6 +6,10 @@
  * <ul>
  * <li>{@link com.apicatalog.did.key.jwk.DidKeyJwkMethodProvider} – a provider
  * that maps supported {@code did:key} codecs to JWK representations.</li>
+ * <li>{@link com.apicatalog.did.key.jwk.DidKeyJwkConverter} – the inverse,
+ * converting JWKs and JCA public keys to {@code did:key} identifiers.</li>
+ * <li>{@link com.apicatalog.did.key.jwk.DidKeyPublicKeyFactory} – materializes
+ * JCA public keys of {@code did:key} identifiers.</li>
  * <li>{@link com.apicatalog.did.key.jwk.JwkProvider} – a functional interface
  * for custom JWK generation strategies.</li>
  * </ul>
@@ -0,0 +1,119 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Async")
+class AsyncResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("resolveAsync()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void resolveAsync(URI did) throws InterruptedException, ExecutionException {
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().executor(executor).build();
+
+            final ResolvedDidDocument result = resolver.resolveAsync(did).get();
+            assertNotNull(result);
+            assertEquals(DidKey.of(did, CODECS), result.document().id());
+
+            assertEquals(result.document().id(), resolver.resolveAsync(Did.of(did)).get().document().id());
+
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @DisplayName("resolveAsync() cached")
+    @Test
+    void resolveAsyncCached() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .multikey()
+                .cache(10)
+                .executor(command -> {
+                    throw new IllegalStateException();
+                })
+                .build();
+
+        final URI did = vectors().findFirst().get();
+        final ResolvedDidDocument result = resolver.resolve(did);
+
+        assertTrue(resolver.resolveAsync(Did.of(did)).isDone());
+        assertEquals(result, resolver.resolveAsync(Did.of(did)).join());
+
+        assertTrue(resolver.resolveAsync(did).isDone());
+        assertEquals(result, resolver.resolveAsync(did).join());
+    }
+
+    @DisplayName("resolveAsync() cache miss")
+    @Test
+    void resolveAsyncMiss() {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .multikey()
+                .cache(10)
+                .executor(Runnable::run)
+                .build();
+
+        final URI did = vectors().findFirst().get();
+
+        // a miss is counted once
+        assertNotNull(resolver.resolveAsync(did).join());
+        assertEquals(1, resolver.cache().misses());
+
+        resolver.cache().clear();
+
+        assertNotNull(resolver.resolveAsync(Did.of(did)).join());
+        assertEquals(2, resolver.cache().misses());
+
+        assertNotNull(resolver.resolveAsync(did).join());
+        assertEquals(2, resolver.cache().misses());
+        assertEquals(1, resolver.cache().hits());
+    }
+
+    @DisplayName("negative: resolveAsync()")
+    @Test
+    void resolveAsyncInvalid() {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().build();
+
+        final ExecutionException e = assertThrows(ExecutionException.class,
+                () -> resolver.resolveAsync(URI.create("did:key:z6Mk")).get());
+
+        assertInstanceOf(DidResolutionException.class, e.getCause());
+    }
+
+    static Stream<URI> vectors() {
+        return Stream.of(
+                "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp",
+                "did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv",
+                "did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme",
+                "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9")
+                .map(URI::create);
+    }
+}
@@ -0,0 +1,60 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.base.Base58;
+
+@DisplayName("Base58btc")
+class Base58BtcTest {
+
+    @DisplayName("encode() / decode()")
+    @ParameterizedTest(name = "{0} bytes")
+    @MethodSource({ "lengths" })
+    void roundtrip(int length) {
+
+        final Random random = new Random(length);
+
+        for (int zeros = 0; zeros <= Math.min(length, 3); zeros++) {
+
+            final byte[] value = new byte[length];
+            random.nextBytes(value);
+            Arrays.fill(value, 0, zeros, (byte) 0);
+
+            final int split = length / 3;
+            final String encoded = Base58Btc.encode(Arrays.copyOf(value, split), Arrays.copyOfRange(value, split, length));
+
+            assertEquals("z" + Base58.encode(value), encoded);
+
+            final int[] limbs = new int[Base58Btc.limbs(encoded.length() - 1)];
+            final int decoded = Base58Btc.decode(encoded, 1, encoded.length(), limbs);
+
+            assertEquals(length, decoded);
+
+            final byte[] output = new byte[length];
+            Base58Btc.copy(limbs, output);
+
+            assertArrayEquals(value, output);
+        }
+    }
+
+    @DisplayName("negative: decode()")
+    @Test
+    void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> Base58Btc.decode("z6Mk0", 1, 5, new int[Base58Btc.limbs(4)]));
+    }
+
+    static IntStream lengths() {
+        return IntStream.of(0, 1, 2, 3, 4, 5, 7, 16, 32, 34, 35, 50, 51, 69, 98, 272, 528);
+    }
+}
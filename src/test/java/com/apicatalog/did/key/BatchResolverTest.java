@@ -0,0 +1,193 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Batch")
+class BatchResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("resolveAll()")
+    @Test
+    void resolveAll() throws DidResolutionException {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .method(DidKeyResolver.MULTIKEY_TYPE, (id, key, type) -> {
+                    count.incrementAndGet();
+                    return DidKeyResolver.multikey(id, key, type);
+                })
+                .build();
+
+        final List<URI> dids = vectors().collect(Collectors.toList());
+        dids.add(dids.get(0));
+        dids.add(URI.create("did:example:123"));
+        dids.add(dids.get(1));
+
+        final List<DidKeyResolution> result = resolver.resolveAll(dids);
+
+        assertNotNull(result);
+        assertEquals(dids.size(), result.size());
+        assertEquals(4, count.get());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(result.get(i).isResolved());
+            assertNull(result.get(i).exception());
+            assertEquals(DidKey.of(dids.get(i), CODECS), result.get(i).get().document().id());
+        }
+
+        assertSame(result.get(0), result.get(4));
+        assertSame(result.get(1), result.get(6));
+
+        assertFalse(result.get(5).isResolved());
+        assertNull(result.get(5).document());
+        assertNotNull(result.get(5).exception());
+        assertThrows(DidResolutionException.class, result.get(5)::get);
+    }
+
+    @DisplayName("resolveAllDids()")
+    @Test
+    void resolveAllDids() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().build();
+
+        final List<Did> dids = vectors().map(Did::of).collect(Collectors.toList());
+
+        final List<DidKeyResolution> result = resolver.resolveAllDids(dids);
+
+        assertEquals(dids.size(), result.size());
+
+        for (int i = 0; i < dids.size(); i++) {
+            assertEquals(dids.get(i), result.get(i).get().document().id());
+        }
+    }
+
+    @DisplayName("resolveAllDids(): explicit default version")
+    @Test
+    void resolveAllDidsVersion() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().build();
+
+        final List<DidKey> dids = Arrays.asList(
+                DidKey.of(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS),
+                DidKey.of(URI.create("did:key:1:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS));
+
+        final List<DidKeyResolution> result = resolver.resolveAllDids(dids);
+
+        assertEquals(dids.get(0).toString(), result.get(0).get().document().id().toString());
+        assertEquals(dids.get(1).toString(), result.get(1).get().document().id().toString());
+    }
+
+    @DisplayName("resolveAll() with executor")
+    @Test
+    void resolveAllParallel() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().build();
+
+        final List<URI> vectors = vectors().collect(Collectors.toList());
+
+        // distinct identifiers referencing the same keys
+        final List<URI> dids = new ArrayList<>();
+        for (int i = 0; i < 10 * DidKeyResolver.BATCH_THRESHOLD; i++) {
+            final URI did = vectors.get(i % vectors.size());
+            dids.add(i < vectors.size() ? did : URI.create(did + "?index=" + i));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<DidKeyResolution> result = resolver.resolveAll(dids, executor);
+
+            assertEquals(dids.size(), result.size());
+
+            for (int i = 0; i < dids.size(); i++) {
+                assertNotNull(result.get(i));
+                if (i < vectors.size()) {
+                    assertEquals(DidKey.of(dids.get(i), CODECS), result.get(i).get().document().id());
+                } else {
+                    assertFalse(result.get(i).isResolved());
+                }
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @DisplayName("resolveAll(): runtime failure")
+    @Test
+    void runtimeFailure() {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().build();
+
+        final List<URI> dids = new ArrayList<>();
+        for (int i = 0; i < 2 * DidKeyResolver.BATCH_THRESHOLD; i++) {
+            dids.add(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp?index=" + i));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<DidKeyResolution> result = resolver.batch(dids, executor, did -> {
+                if (did.toString().endsWith("7")) {
+                    throw new IllegalStateException("Provider failure.");
+                }
+                return resolver.resolve(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"));
+            });
+
+            assertEquals(dids.size(), result.size());
+
+            for (int i = 0; i < dids.size(); i++) {
+                if (i % 10 == 7) {
+                    assertFalse(result.get(i).isResolved());
+                    assertEquals(DidResolutionException.Code.Internal, result.get(i).exception().getCode());
+                    assertTrue(result.get(i).exception().getCause() instanceof IllegalStateException);
+                } else {
+                    assertTrue(result.get(i).isResolved());
+                }
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @DisplayName("negative: null element")
+    @Test
+    void nullElement() {
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().build();
+        assertThrows(NullPointerException.class, () -> resolver.resolveAll(Arrays.asList(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), null)));
+    }
+
+    static Stream<URI> vectors() {
+        return Stream.of(
+                "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp",
+                "did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv",
+                "did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme",
+                "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9")
+                .map(URI::create);
+    }
+}
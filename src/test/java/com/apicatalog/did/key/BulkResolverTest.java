@@ -0,0 +1,223 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.DidResolutionException.Code;
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("DID Key -> Bulk")
+class BulkResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final String ED25519 = "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp";
+    static final String P256 = "did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv";
+
+    static final String INPUT = ED25519 + "\n"
+            + "did:key:invalid\n"
+            + "\n"
+            + P256 + "\r\n"
+            + ED25519;
+
+    static final DidKeyBulkResolver BULK = DidKeyBulkResolver.with(DidKeyResolver.with(CODECS).multikey().jwk().build())
+            .chunkSize(2)
+            .parallelism(2)
+            .build();
+
+    @DisplayName("resolve(Reader)")
+    @Test
+    void resolveReader() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, BULK.resolve(new StringReader(INPUT), out));
+        assertOutput(out);
+    }
+
+    @DisplayName("resolve(InputStream)")
+    @Test
+    void resolveInputStream() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, BULK.resolve(new ByteArrayInputStream(INPUT.getBytes(StandardCharsets.UTF_8)), out));
+        assertOutput(out);
+    }
+
+    @DisplayName("resolve(Path)")
+    @Test
+    void resolvePath() throws IOException {
+        final Path file = Files.createTempFile("did-key", ".txt");
+        try {
+            Files.write(file, INPUT.getBytes(StandardCharsets.UTF_8));
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(5, BULK.resolve(file, out));
+            assertOutput(out);
+
+            Files.write(file, new byte[0]);
+            assertEquals(0, BULK.resolve(file, new ByteArrayOutputStream()));
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @DisplayName("resolve(Path): other methods")
+    @Test
+    void otherMethods() throws IOException {
+        final Path file = Files.createTempFile("did-key", ".txt");
+        try {
+            Files.write(file, ("did:web:example.com\ndid:keys:z6Mk\n" + ED25519).getBytes(StandardCharsets.UTF_8));
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(3, BULK.resolve(file, out));
+
+            final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+            assertEquals(3, lines.length);
+            assertTrue(lines[0].contains("Unsupported DID method 'web'"));
+            assertTrue(lines[1].contains("Unsupported DID method 'keys'"));
+            assertTrue(lines[2].contains("\"id\":\"" + ED25519 + "\""));
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @DisplayName("resolve(Path): non-ASCII input")
+    @Test
+    void nonAscii() throws IOException {
+        final String input = "did:key:z6Mké€\ndid:wéb:example.com\n" + ED25519;
+
+        final Path file = Files.createTempFile("did-key", ".txt");
+        try {
+            Files.write(file, input.getBytes(StandardCharsets.UTF_8));
+
+            final ByteArrayOutputStream mapped = new ByteArrayOutputStream();
+            assertEquals(3, BULK.resolve(file, mapped));
+
+            final ByteArrayOutputStream read = new ByteArrayOutputStream();
+            assertEquals(3, BULK.resolve(new StringReader(input), read));
+
+            final String output = new String(mapped.toByteArray(), StandardCharsets.UTF_8);
+
+            assertTrue(output.startsWith("{\"line\":1,\"input\":\"did:key:z6Mké€\","), output);
+            assertTrue(output.contains("\"input\":\"did:wéb:example.com\""), output);
+            assertEquals(new String(read.toByteArray(), StandardCharsets.UTF_8), output);
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+        @DisplayName("resolve(Reader): failing provider")
+    @Test
+    void failingProvider() throws IOException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .method(DidKeyResolver.MULTIKEY_TYPE, (id, key, type) -> {
+                    if (KeyCodec.P256_PUBLIC_KEY.equals(key.codec())) {
+                        throw new IllegalStateException("Provider failure.");
+                    }
+                    return DidKeyResolver.multikey(id, key, type);
+                })
+                .build();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, DidKeyBulkResolver.with(resolver).chunkSize(2).build().resolve(new StringReader(INPUT), out));
+
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("\"id\":\"" + ED25519 + "\""));
+        assertTrue(lines[1].startsWith("{\"line\":2,"));
+        assertEquals("{\"line\":4,\"input\":\"" + P256 + "\",\"error\":\"Provider failure.\"}", lines[2]);
+        assertEquals(lines[0], lines[3]);
+    }
+
+    @DisplayName("resolve(Reader): snapshot")
+    @Test
+    void snapshot() throws IOException, DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().cache(10).build();
+        resolver.resolve(URI.create(ED25519));
+        resolver.resolve(URI.create(P256));
+
+        final Path file = Files.createTempFile("did-key", ".snapshot");
+        try {
+            resolver.cache().snapshot(file, true);
+
+            final AtomicInteger resolved = new AtomicInteger();
+            final AtomicInteger failed = new AtomicInteger();
+
+            final DidKeyResolver warm = DidKeyResolver.with(CODECS).multikey().jwk()
+                    .cache(DidKeyResolverCache.create(10, DidKeySnapshot.open(file, CODECS)))
+                    .negativeCache(10)
+                    .listener(new DidKeyResolverListener() {
+                        @Override
+                        public void resolved(Multicodec codec, long nanos) {
+                            resolved.incrementAndGet();
+                        }
+
+                        @Override
+                        public void failed(Code code) {
+                            failed.incrementAndGet();
+                        }
+                    })
+                    .build();
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(6, DidKeyBulkResolver.with(warm).chunkSize(2).parallelism(1).build().resolve(new StringReader(INPUT + "\ndid:key:invalid"), out));
+
+            final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+            assertEquals(5, lines.length);
+            assertTrue(lines[0].contains("\"id\":\"" + ED25519 + "\""));
+            assertTrue(lines[2].contains("\"id\":\"" + P256 + "\""));
+            assertTrue(lines[4].startsWith("{\"line\":6,\"input\":\"did:key:invalid\",\"error\":"));
+
+            // served by the snapshot, but reported and filtered as any other
+            assertEquals(0, warm.cache().misses());
+            assertEquals(3, resolved.get());
+            assertEquals(2, failed.get());
+            assertEquals(1, warm.rejections().size());
+            assertEquals(1, warm.rejections().hits());
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static void assertOutput(ByteArrayOutputStream out) {
+        final String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(4, lines.length);
+
+        assertTrue(lines[0].startsWith("{\"@context\":[\"https://www.w3.org/ns/did/v1\""));
+        assertTrue(lines[0].contains("\"id\":\"" + ED25519 + "\""));
+        assertTrue(lines[0].contains("\"publicKeyMultibase\":\"" + ED25519.substring(8) + "\""));
+        assertTrue(lines[0].contains("\"publicKeyJwk\":{\"kty\":\"OKP\",\"crv\":\"Ed25519\""));
+
+        assertTrue(lines[1].startsWith("{\"line\":2,\"input\":\"did:key:invalid\",\"error\":"));
+
+        assertTrue(lines[2].contains("\"id\":\"" + P256 + "\""));
+        assertTrue(lines[2].contains("\"crv\":\"P-256\""));
+
+        assertEquals(lines[0], lines[3]);
+    }
+}
@@ -0,0 +1,131 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Cached")
+class CachedResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("resolve()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void resolve(URI did) throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().cache(10).build();
+        final DidKeyResolverCache cache = resolver.cache();
+
+        assertNotNull(cache);
+
+        final ResolvedDidDocument result = resolver.resolve(did);
+        assertNotNull(result);
+        assertEquals(0, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.size());
+
+        assertSame(result, resolver.resolve(did));
+        assertSame(result, resolver.resolve(Did.of(did)));
+        assertSame(result, resolver.resolve(DidKey.of(did, CODECS)));
+
+        assertEquals(3, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.size());
+    }
+
+    @DisplayName("eviction")
+    @Test
+    void evict() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().cache(1).build();
+        final DidKeyResolverCache cache = resolver.cache();
+
+        final URI[] dids = vectors().toArray(URI[]::new);
+
+        final ResolvedDidDocument first = resolver.resolve(dids[0]);
+        resolver.resolve(dids[1]);
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get(dids[0].getRawSchemeSpecificPart().substring(DidKey.METHOD_NAME.length() + 1)));
+        assertTrue(first != resolver.resolve(dids[0]));
+    }
+
+    @DisplayName("eviction: recently used")
+    @Test
+    void evictRecentlyUsed() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().cache(2).build();
+        final DidKeyResolverCache cache = resolver.cache();
+
+        final URI[] dids = vectors().toArray(URI[]::new);
+
+        final ResolvedDidDocument first = resolver.resolve(dids[0]);
+        resolver.resolve(dids[1]);
+
+        // a hit marks the first document as recently used
+        assertSame(first, resolver.resolve(dids[0]));
+
+        resolver.resolve(dids[2]);
+
+        assertEquals(2, cache.size());
+        assertSame(first, resolver.resolve(dids[0]));
+        assertNull(cache.get(dids[1].getRawSchemeSpecificPart().substring(DidKey.METHOD_NAME.length() + 1)));
+    }
+
+    @DisplayName("resolve(URI): not parsed on a hit")
+    @Test
+    void uriHit() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().cache(10).build();
+
+        final URI did = vectors().findFirst().get();
+        final ResolvedDidDocument result = resolver.resolve(did);
+
+        assertSame(result, resolver.resolve(did));
+        assertEquals(1, resolver.cache().hits());
+
+        // not a plain did:key, never found
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(did + "#key")));
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(did + "?query")));
+        assertEquals(1, resolver.cache().hits());
+    }
+
+    @DisplayName("disabled")
+    @Test
+    void disabled() throws DidResolutionException {
+        assertNull(DidKeyResolver.with(CODECS).multikey().build().cache());
+    }
+
+    @DisplayName("negative: cache(0)")
+    @Test
+    void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> DidKeyResolverCache.create(0));
+    }
+
+    static Stream<URI> vectors() {
+        return Stream.of(
+                "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp",
+                "did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv",
+                "did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme",
+                "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9")
+                .map(URI::create);
+    }
+}
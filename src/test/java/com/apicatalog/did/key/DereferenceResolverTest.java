@@ -0,0 +1,174 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.DidUrl;
+import com.apicatalog.did.document.DidVerificationMethod;
+import com.apicatalog.did.key.jwk.DidKeyJwkMethodProvider;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Dereference")
+class DereferenceResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static DidKeyResolver RESOLVER = DidKeyResolver.with(CODECS).multikey().jwk().build();
+
+    @DisplayName("dereference(): default id")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void dereference(String did) throws DidResolutionException {
+
+        final DidKey didKey = DidKey.of(URI.create(did), CODECS);
+
+        final AtomicInteger jwks = new AtomicInteger();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .multikey()
+                .method(DidKeyResolver.JWK_TYPE, (id, key, type) -> {
+                    jwks.incrementAndGet();
+                    return DidKeyJwkMethodProvider.getInstance().get(id, key, type);
+                })
+                .build();
+
+        final DidVerificationMethod method = resolver.dereference(URI.create(did + "#" + didKey.getMethodSpecificId()));
+
+        assertNotNull(method);
+        assertEquals(DidUrl.fragment(didKey, didKey.getMethodSpecificId()), method.id());
+        assertEquals(DidKeyResolver.MULTIKEY_TYPE, method.type());
+        assertEquals(didKey, method.controller());
+        assertNull(method.publicKeyJwk());
+
+        // only the requested method is created
+        assertEquals(0, jwks.get());
+    }
+
+    @DisplayName("resolve(), dereference(): compact key")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void compact(String did) throws DidResolutionException {
+
+        final DidKey didKey = DidKey.of(URI.create(did), CODECS);
+        final DidKey compact = DidKey.parse(did, CODECS).compact();
+
+        final ResolvedDidDocument expected = RESOLVER.resolve(didKey);
+        final ResolvedDidDocument resolved = RESOLVER.resolve(compact);
+
+        assertEquals(expected.document().id(), resolved.document().id());
+        assertEquals(didKey, resolved.document().id());
+        assertEquals(
+                expected.document().verification().iterator().next().id(),
+                resolved.document().verification().iterator().next().id());
+
+        final DidUrl url = DidUrl.fragment(compact, compact.getMethodSpecificId());
+        assertEquals(DidUrl.fragment(didKey, didKey.getMethodSpecificId()), url);
+        assertEquals(did + "#" + didKey.getMethodSpecificId(), url.toString());
+
+        final DidVerificationMethod method = RESOLVER.dereference(url);
+        assertNotNull(method);
+        assertEquals(url, method.id());
+        assertEquals(didKey, method.controller());
+    }
+
+    @DisplayName("dereference(): by type")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void type(String did) throws DidResolutionException {
+
+        final DidKey didKey = DidKey.of(URI.create(did), CODECS);
+        final DidUrl url = DidUrl.fragment(didKey, didKey.getMethodSpecificId());
+
+        final DidVerificationMethod multikey = RESOLVER.dereference(url, DidKeyResolver.MULTIKEY_TYPE);
+        assertEquals(url, multikey.id());
+        assertEquals(DidKeyResolver.MULTIKEY_TYPE, multikey.type());
+
+        final DidVerificationMethod jwk = RESOLVER.dereference(url, DidKeyResolver.JWK_TYPE);
+        assertEquals(url, jwk.id());
+        assertEquals(DidKeyResolver.JWK_TYPE, jwk.type());
+        assertNotNull(jwk.publicKeyJwk());
+
+        assertThrows(DidResolutionException.class, () -> RESOLVER.dereference(url, DidKeyResolver.JWK_2020_TYPE));
+    }
+
+    @DisplayName("dereference(): custom id")
+    @Test
+    void custom() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .verificationMethodId(key -> DidUrl.fragment(key, "vm"))
+                .jwk()
+                .build();
+
+        final DidKey didKey = DidKey.of(URI.create("did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169"), CODECS);
+
+        final DidVerificationMethod method = resolver.dereference(DidUrl.fragment(didKey, "vm"));
+        assertEquals(DidUrl.fragment(didKey, "vm"), method.id());
+        assertEquals(DidKeyResolver.JWK_TYPE, method.type());
+
+        assertThrows(DidResolutionException.class, () -> resolver.dereference(DidUrl.fragment(didKey, didKey.getMethodSpecificId())));
+    }
+
+    @DisplayName("dereference(): cached")
+    @Test
+    void cached() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().cache(10).build();
+
+        final DidKey didKey = DidKey.of(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS);
+        final DidUrl url = DidUrl.fragment(didKey, didKey.getMethodSpecificId());
+
+        final ResolvedDidDocument document = resolver.resolve(didKey);
+
+        assertSame(document.document().verification().iterator().next(), resolver.dereference(url));
+        assertEquals(DidKeyResolver.JWK_TYPE, resolver.dereference(url, DidKeyResolver.JWK_TYPE).type());
+        assertEquals(2, resolver.cache().hits());
+    }
+
+    @DisplayName("negative: dereference()")
+    @Test
+    void negative() {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .method(DidKeyResolver.JWK_TYPE, (id, key, type) -> {
+                    calls.incrementAndGet();
+                    return DidKeyJwkMethodProvider.getInstance().get(id, key, type);
+                })
+                .build();
+
+        final DidKey didKey = DidKey.of(URI.create("did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169"), CODECS);
+
+        // a wrong fragment is rejected without calling a provider
+        assertThrows(DidResolutionException.class, () -> resolver.dereference(DidUrl.fragment(didKey, "unknown")));
+        assertThrows(DidResolutionException.class, () -> resolver.dereference(URI.create(didKey.toString())));
+        assertEquals(0, calls.get());
+
+        assertThrows(DidResolutionException.class, () -> RESOLVER.dereference(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooW0#z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooW0")));
+
+        assertThrows(DidResolutionException.class, () -> RESOLVER.dereference(URI.create("did:example:123#key-1")));
+    }
+
+    static Stream<String> vectors() {
+        return Stream.of(
+                "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp",
+                "did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169",
+                "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9");
+    }
+}
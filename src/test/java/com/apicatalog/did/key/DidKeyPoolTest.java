@@ -0,0 +1,70 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Pool")
+class DidKeyPoolTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final String ED25519 = "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp";
+    static final String P256 = "did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv";
+
+    @DisplayName("intern()")
+    @Test
+    void intern() {
+        final DidKeyPool pool = DidKeyPool.create();
+
+        final DidKey first = DidKey.parse(ED25519, CODECS);
+        final DidKey second = DidKey.of(URI.create(ED25519), CODECS);
+
+        assertNotSame(first, second);
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertSame(first, pool.intern(DidKey.of(first.decoded().clone(), first.codec())));
+        assertSame(first, pool.parse(ED25519, CODECS));
+
+        assertNotSame(first, pool.parse(P256, CODECS));
+        assertEquals(2, pool.size());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+    }
+
+    @DisplayName("versions")
+    @Test
+    void versions() {
+        final DidKeyPool pool = DidKeyPool.create();
+
+        final DidKey key = pool.parse(ED25519, CODECS);
+        final DidKey versioned = pool.parse("did:key:1.1:" + ED25519.substring(8), CODECS);
+
+        assertNotSame(key, versioned);
+        assertEquals("1.1", versioned.version());
+
+        final DidKey explicit = pool.parse("did:key:1:" + ED25519.substring(8), CODECS);
+
+        assertNotSame(key, explicit);
+        assertEquals("did:key:1:" + ED25519.substring(8), explicit.toString());
+        assertSame(key, pool.parse(ED25519, CODECS));
+        assertSame(explicit, pool.parse("did:key:1:" + ED25519.substring(8), CODECS));
+        assertEquals(3, pool.size());
+    }
+
+    @DisplayName("negative: intern(null)")
+    @Test
+    void internNull() {
+        assertThrows(NullPointerException.class, () -> DidKeyPool.create().intern(null));
+    }
+}
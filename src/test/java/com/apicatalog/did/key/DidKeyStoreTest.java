@@ -0,0 +1,126 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("DID Key Store")
+class DidKeyStoreTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("add()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void add(String uri, int keyLength, String version, Multicodec codec) {
+
+        final DidKey didKey = DidKey.parse(uri, CODECS);
+
+        final DidKeyStore store = DidKeyStore.create();
+
+        assertFalse(store.contains(uri));
+        assertNull(store.get(didKey));
+
+        assertTrue(store.add(didKey));
+        assertFalse(store.add(didKey.decoded(), codec));
+        assertEquals(1, store.size());
+
+        assertTrue(store.contains(uri));
+        assertTrue(store.contains(didKey));
+        assertTrue(store.contains(didKey.decoded(), codec));
+
+        final DidKeyStore.Entry entry = store.get(uri);
+        assertNotNull(entry);
+        assertEquals(codec.code(), entry.codecCode());
+        assertEquals(keyLength, entry.length());
+        assertArrayEquals(didKey.decoded(), entry.rawKey());
+
+        final ByteBuffer view = entry.rawKeyView();
+        assertTrue(view.isReadOnly());
+        assertEquals(keyLength, view.remaining());
+
+        final DidKey materialized = entry.toDidKey(CODECS);
+        assertEquals(codec, materialized.codec());
+        assertArrayEquals(didKey.decoded(), materialized.decoded());
+        assertEquals(DidKey.of(didKey.decoded(), codec), materialized);
+    }
+
+    @DisplayName("grow")
+    @Test
+    void grow() {
+        final DidKeyStore store = DidKeyStore.create(0);
+
+        final Random random = new Random(42);
+        final byte[][] keys = new byte[10000][32];
+
+        for (final byte[] key : keys) {
+            random.nextBytes(key);
+            assertTrue(store.add(key, KeyCodec.ED25519_PUBLIC_KEY));
+        }
+
+        assertEquals(keys.length, store.size());
+        assertTrue(store.table.length() * 3L >= keys.length * 4L);
+
+        for (final byte[] key : keys) {
+            assertTrue(store.contains(key, KeyCodec.ED25519_PUBLIC_KEY));
+            assertFalse(store.contains(key, KeyCodec.X25519_PUBLIC_KEY));
+            assertTrue(store.contains(DidKey.of(key, KeyCodec.ED25519_PUBLIC_KEY).toString()));
+        }
+        assertFalse(store.contains(new byte[32], KeyCodec.ED25519_PUBLIC_KEY));
+    }
+
+    @DisplayName("slabs")
+    @Test
+    void slabs() {
+        final DidKeyStore store = new DidKeyStore(16, 100);
+
+        final byte[] large = new byte[200];
+        for (int i = 0; i < 5; i++) {
+            store.add(new byte[] { (byte) i, 1, 2, 3 }, KeyCodec.ED25519_PUBLIC_KEY);
+        }
+        store.add(large, KeyCodec.RSA_PUBLIC_KEY);
+
+        assertTrue(store.slabs.length > 1);
+        assertEquals(6, store.size());
+        assertTrue(store.contains(large, KeyCodec.RSA_PUBLIC_KEY));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.contains(new byte[] { (byte) i, 1, 2, 3 }, KeyCodec.ED25519_PUBLIC_KEY));
+        }
+    }
+
+    @DisplayName("negative: contains(CharSequence)")
+    @Test
+    void invalid() {
+        final DidKeyStore store = DidKeyStore.create();
+        assertThrows(IllegalArgumentException.class, () -> store.contains("did:example:z6Mk"));
+        assertThrows(IllegalArgumentException.class, () -> store.contains("did:key:y6Mk"));
+        assertThrows(IllegalArgumentException.class, () -> store.contains("did:key:z6M0"));
+        assertThrows(IllegalArgumentException.class, () -> store.contains("did:key::z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2"));
+        assertThrows(IllegalArgumentException.class, () -> store.contains("did:key:a/b?c:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2"));
+        // non-minimal varint prefix
+        assertThrows(IllegalArgumentException.class, () -> store.contains("did:key:zQhVUSU7KgriYVUvqqCy4dsxtxicgT9vAiMxyyx69tf1MYJMV"));
+    }
+
+    static Stream<Arguments> vectors() {
+        return Stream.concat(DidKeyTest.positiveVectors(), DidKeyTest.versionedKeys());
+    }
+}
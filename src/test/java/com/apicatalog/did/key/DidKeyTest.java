@@ -3,14 +3,22 @@ package com.apicatalog.did.key;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -44,6 +52,16 @@ class DidKeyTest {
         assertDidKey(DidKey.of(uri, CODECS), uri.toString(), keyLength, version, codec);
     }
 
+    @DisplayName("parse(CharSequence)")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "positiveVectors", "versionedKeys" })
+    void parse(String uri, int keyLength, String version, Multicodec codec) {
+        final DidKey didKey = DidKey.parse(uri, CODECS);
+        assertDidKey(didKey, uri, keyLength, version, codec);
+        assertEquals(keyLength, didKey.decoded().length);
+        assertEquals(DidKey.of(URI.create(uri), CODECS), didKey);
+    }
+
     @DisplayName("of(byte[], codec)")
     @ParameterizedTest(name = "{0}")
     @MethodSource({ "positiveVectors" })
@@ -51,6 +69,126 @@ class DidKeyTest {
         assertDidKey(DidKey.of(decoded(uri), codec), uri, keyLength, version, codec);
     }
 
+    @DisplayName("compact()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "positiveVectors", "versionedKeys" })
+    void compact(String uri, int keyLength, String version, Multicodec codec) {
+        final DidKey didKey = DidKey.of(URI.create(uri), CODECS);
+        final DidKey compact = didKey.compact();
+
+        assertDidKey(compact, uri, keyLength, version, codec);
+        assertEquals(didKey.getMethodSpecificId(), compact.getMethodSpecificId());
+        assertSame(compact, compact.compact());
+
+        assertEquals(didKey, compact);
+        assertEquals(compact, didKey);
+        assertEquals(didKey.hashCode(), compact.hashCode());
+        assertEquals(compact, DidKey.parse(uri, CODECS).compact());
+
+        final byte[] other = didKey.decoded().clone();
+        other[other.length - 1] ^= 1;
+
+        assertNotEquals(DidKey.of(other, codec), didKey);
+        assertNotEquals(DidKey.of(other, codec).compact(), compact);
+        final Multicodec otherCodec = KeyCodec.RSA_PUBLIC_KEY.equals(codec)
+                ? KeyCodec.ED25519_PUBLIC_KEY
+                : KeyCodec.RSA_PUBLIC_KEY;
+
+        assertNotEquals(DidKey.of(didKey.decoded(), otherCodec), compact);
+
+        // the compact key is a Did like any other
+        final Did did = Did.of(URI.create(uri));
+        assertEquals(did.getMethod(), compact.getMethod());
+        assertEquals(did.getMethodSpecificId(), compact.getMethodSpecificId());
+        assertEquals(did.toString(), compact.toString());
+        assertEquals(did.toUri(), compact.toUri());
+        assertEquals(did.equals(didKey), did.equals(compact));
+    }
+
+    @DisplayName("equals(): explicit default version")
+    @Test
+    void explicitDefaultVersion() {
+        final DidKey implicit = DidKey.of(URI.create("did:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2"), CODECS);
+        final DidKey explicit = DidKey.of(URI.create("did:key:1:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2"), CODECS);
+
+        assertEquals(implicit.version(), explicit.version());
+        assertNotEquals(implicit, explicit);
+        assertNotEquals(explicit, implicit);
+        assertNotEquals(implicit.hashCode(), explicit.hashCode());
+
+        assertNotEquals(implicit.compact(), explicit.compact());
+        assertNotEquals(implicit, explicit.compact());
+        assertEquals(explicit, explicit.compact());
+        assertEquals(explicit.hashCode(), explicit.compact().hashCode());
+        assertEquals(explicit, DidKey.parse(explicit.toString(), CODECS));
+        assertEquals(explicit, DidKey.of(ByteBuffer.wrap(explicit.toString().getBytes(StandardCharsets.US_ASCII)), CODECS));
+    }
+
+    @DisplayName("of(ByteBuffer)")
+    @ParameterizedTest
+    @MethodSource({ "positiveVectors", "versionedKeys" })
+    void ofByteBuffer(String uri, int keyLength, String version, Multicodec codec) {
+        final byte[] ascii = uri.getBytes(StandardCharsets.US_ASCII);
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(ascii.length + 4);
+        buffer.put(new byte[] { '<', '<' }).put(ascii).put(new byte[] { '>', '>' });
+        buffer.position(2).limit(2 + ascii.length);
+
+        final DidKey didKey = DidKey.of(buffer, CODECS);
+
+        assertDidKey(didKey, uri, keyLength, version, codec);
+        assertEquals(DidKey.parse(uri, CODECS), didKey);
+        assertEquals(2, buffer.position());
+        assertEquals(2 + ascii.length, buffer.limit());
+    }
+
+    @DisplayName("writeTo(ByteBuffer)")
+    @ParameterizedTest
+    @MethodSource({ "positiveVectors", "versionedKeys" })
+    void writeTo(String uri, int keyLength, String version, Multicodec codec) {
+        final DidKey didKey = DidKey.parse(uri, CODECS);
+
+        for (final DidKey key : new DidKey[] { didKey, didKey.compact() }) {
+
+            final ByteBuffer buffer = ByteBuffer.allocate(uri.length() + 1);
+            buffer.put((byte) '"');
+
+            assertSame(buffer, key.writeTo(buffer));
+            assertEquals(uri, new String(buffer.array(), 1, uri.length(), StandardCharsets.US_ASCII));
+
+            buffer.flip().position(1);
+            assertEquals(didKey, DidKey.of(buffer, CODECS));
+
+            final ByteBuffer small = ByteBuffer.allocate(uri.length() - 1);
+            assertThrows(BufferOverflowException.class, () -> key.writeTo(small));
+            assertEquals(0, small.position());
+
+            final ByteBuffer raw = ByteBuffer.allocate(keyLength);
+            key.writeRawKeyTo(raw);
+            assertFalse(raw.hasRemaining());
+            assertArrayEquals(decoded(uri), raw.array());
+        }
+    }
+
+    @DisplayName("decodedView(), debasedView()")
+    @ParameterizedTest
+    @MethodSource({ "positiveVectors" })
+    void views(String uri, int keyLength, String version, Multicodec codec) {
+        final DidKey didKey = DidKey.parse(uri, CODECS);
+
+        for (final DidKey key : new DidKey[] { didKey, didKey.compact() }) {
+
+            final ByteBuffer decoded = key.decodedView();
+            assertTrue(decoded.isReadOnly());
+            assertEquals(ByteBuffer.wrap(decoded(uri)), decoded);
+            assertThrows(ReadOnlyBufferException.class, () -> decoded.put(0, (byte) 0));
+
+            final ByteBuffer debased = key.debasedView();
+            assertTrue(debased.isReadOnly());
+            assertEquals(ByteBuffer.wrap(debased(uri)), debased);
+        }
+    }
+
     static void assertDidKey(DidKey didKey, String uri, int keyLength, String version, Multicodec codec) {
         assertEquals(version, didKey.version());
         assertEquals(Multibase.BASE_58_BTC, didKey.base());
@@ -89,6 +227,37 @@ class DidKeyTest {
         }
     }
 
+    @DisplayName("negative: parse(CharSequence)")
+    @ParameterizedTest
+    @MethodSource({ "negativeVectors", "negativeParseVectors" })
+    void parseNegative(String uri, int keyLength, String version) {
+        try {
+
+            final DidKey didKey = DidKey.parse(uri, CODECS);
+
+            fail("Expected failure but got " + didKey);
+
+        } catch (IllegalArgumentException | NullPointerException e) {
+        }
+    }
+
+    @DisplayName("negative: of(ByteBuffer)")
+    @ParameterizedTest
+    @MethodSource({ "negativeVectors", "negativeParseVectors" })
+    void ofByteBufferNegative(String uri, int keyLength, String version) {
+        try {
+
+            final DidKey didKey = DidKey.of(uri != null
+                    ? ByteBuffer.wrap(uri.getBytes(StandardCharsets.US_ASCII))
+                    : null,
+                    CODECS);
+
+            fail("Expected failure but got " + didKey);
+
+        } catch (IllegalArgumentException | NullPointerException e) {
+        }
+    }
+
     static Stream<Arguments> positiveVectors() {
         return Stream.of(
                 Arguments.of("did:key:z6MkpTHR8VNsBxYAAWHut2Geadd9jSwuBV8xRoAnwWsdvktH",
@@ -161,7 +330,19 @@ class DidKeyTest {
                 Arguments.of("did:key", 0, null),
                 Arguments.of("did:key:", 0, null),
                 Arguments.of("did:key:y", 0, null),
-                Arguments.of("did:key:z6x", 0, null));
+                Arguments.of("did:key:z6x", 0, null),
+                // non-minimal varint 0xed 0x81 0x00 of Ed25519
+                Arguments.of("did:key:zQhVUSU7KgriYVUvqqCy4dsxtxicgT9vAiMxyyx69tf1MYJMV", 0, null));
+    }
+
+    static Stream<Arguments> negativeParseVectors() {
+        return Stream.of(
+                Arguments.of("DID:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2", 0, null),
+                Arguments.of("did:key::z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2", 0, null),
+                Arguments.of("did:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2#key", 0, null),
+                Arguments.of("did:key:a/b?c:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2", 0, null),
+                Arguments.of("did:key:1#:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2", 0, null),
+                Arguments.of("did:key:z", 0, null));
     }
 
     static byte[] debased(String did) {
@@ -0,0 +1,106 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.did.DidUrl;
+import com.apicatalog.did.key.jwk.DidKeyJwkMethodProvider;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> JSON")
+class DocumentWriterTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final String DID = "did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp";
+
+    static final String EXPECTED = "{\"@context\":[\"https://www.w3.org/ns/did/v1\",\"https://w3id.org/security/multikey/v1\",\"https://w3id.org/security/jwk/v1\"],"
+            + "\"id\":\"" + DID + "\","
+            + "\"verificationMethod\":["
+            + "{\"id\":\"" + DID + "#multikey\",\"type\":\"Multikey\",\"controller\":\"" + DID + "\",\"publicKeyMultibase\":\"" + DID.substring(8) + "\"},"
+            + "{\"id\":\"" + DID + "#jwk\",\"type\":\"JsonWebKey\",\"controller\":\"" + DID + "\",\"publicKeyJwk\":{\"kty\":\"OKP\",\"crv\":\"Ed25519\",\"x\":\"O2onvM62pC1io6jQKm8Nc2UyFXcd4kOmOsBIoYtZ2ik\"}}],"
+            + "\"authentication\":[\"" + DID + "#multikey\",\"" + DID + "#jwk\"],"
+            + "\"assertionMethod\":[\"" + DID + "#multikey\",\"" + DID + "#jwk\"],"
+            + "\"capabilityInvocation\":[\"" + DID + "#multikey\",\"" + DID + "#jwk\"],"
+            + "\"capabilityDelegation\":[\"" + DID + "#multikey\",\"" + DID + "#jwk\"]}";
+
+    static final DidKeyResolver RESOLVER = DidKeyResolver.with(CODECS)
+            .method(DidKeyResolver.MULTIKEY_TYPE, (id, key, type) -> DidKeyResolver.multikey(DidUrl.fragment(key, "multikey"), key, type))
+            .method(DidKeyResolver.JWK_TYPE, (id, key, type) -> DidKeyJwkMethodProvider.getInstance().get(DidUrl.fragment(key, "jwk"), key, type))
+            .build();
+
+    @DisplayName("write()")
+    @Test
+    void write() throws DidResolutionException, IOException {
+
+        final ResolvedDidDocument resolved = RESOLVER.resolve(URI.create(DID));
+
+        final byte[] expected = EXPECTED.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(EXPECTED, new String(DidKeyDocumentWriter.toJson(resolved.document()), StandardCharsets.UTF_8));
+
+        final DidKeyDocumentWriter writer = DidKeyDocumentWriter.create();
+
+        writer.write(resolved);
+        assertEquals(expected.length, writer.size());
+
+        final byte[] array = new byte[expected.length + 2];
+        assertEquals(expected.length, writer.writeTo(array, 1));
+        assertArrayEquals(expected, Arrays.copyOfRange(array, 1, 1 + expected.length));
+
+        final ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+        writer.writeTo(buffer);
+        assertArrayEquals(expected, buffer.array());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.newLine().writeTo(out);
+        assertEquals(EXPECTED + "\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        writer.reset().write(resolved);
+        assertArrayEquals(expected, writer.toByteArray());
+    }
+
+    @DisplayName("value()")
+    @Test
+    void value() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("s", "a\"b\\c\n\u0001 é € 😀");
+        map.put("n", 42);
+        map.put("d", 1.5);
+        map.put("b", true);
+        map.put("l", Arrays.asList("x", null));
+
+        final DidKeyDocumentWriter writer = DidKeyDocumentWriter.create();
+        writer.value(map);
+
+        assertEquals("{\"s\":\"a\\\"b\\\\c\\n\\u0001 é € 😀\",\"n\":42,\"d\":1.5,\"b\":true,\"l\":[\"x\",null]}",
+                new String(writer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("value(): non-finite number")
+    @Test
+    void nonFinite() {
+        final DidKeyDocumentWriter writer = DidKeyDocumentWriter.create();
+
+        for (final Number value : new Number[] { Double.NaN, Double.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY }) {
+            assertThrows(IllegalArgumentException.class, () -> writer.value(value));
+        }
+        assertEquals(0, writer.toByteArray().length);
+    }
+}
@@ -3,6 +3,7 @@ package com.apicatalog.did.key;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URI;
@@ -13,14 +14,17 @@ import java.util.Map;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import com.apicatalog.did.Did;
 import com.apicatalog.did.DidUrl;
 import com.apicatalog.did.document.DidDocument;
 import com.apicatalog.did.document.DidVerificationMethod;
 import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.DidResolutionException.Code;
 import com.apicatalog.did.resolver.ResolvedDidDocument;
 import com.apicatalog.multicodec.Multicodec.Tag;
 import com.apicatalog.multicodec.MulticodecDecoder;
@@ -62,6 +66,25 @@ class JwkResolverTest {
         assertTrue(document.hasRequiredProperties());
     }
 
+    @DisplayName("resolve(): unsupported key")
+    @Test
+    void unsupportedKey() {
+
+        final URI did = URI.create("did:key:z6LSeu9HkTHSfLLeUs2nnzUSNedgDUevfNQgQjQC23ZCit6F");
+
+        final DidKeyResolverMetrics metrics = DidKeyResolverMetrics.create();
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).jwk().listener(metrics).build();
+
+        final DidResolutionException e = assertThrows(DidResolutionException.class, () -> resolver.resolve(did));
+        assertEquals(Code.InvalidDid, e.getCode());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(Did.of(did)));
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(DidKey.of(did, CODECS)));
+
+        assertEquals(3, metrics.failures(Code.InvalidDid));
+    }
+
     static void assertMethod(Collection<DidVerificationMethod> methods, DidKey didKey, Map<String, Object> expected) {
 
         assertNotNull(methods);
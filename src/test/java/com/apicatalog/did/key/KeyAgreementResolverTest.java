@@ -0,0 +1,241 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.DidUrl;
+import com.apicatalog.did.document.DidDocument;
+import com.apicatalog.did.document.DidVerificationMethod;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("DID Key -> Key Agreement")
+class KeyAgreementResolverTest {
+
+    static final MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+
+    @DisplayName("resolve()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void resolve(URI did, String expected) throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().encryptionKeyDerivation(true).build();
+
+        assertTrue(resolver.encryptionKeyDerivation());
+
+        final DidKey didKey = DidKey.of(did, CODECS);
+        final DidDocument document = resolver.resolve(didKey).document();
+
+        assertEquals(1, document.verification().size());
+        assertEquals(1, document.keyAgreement().size());
+
+        final DidVerificationMethod method = document.keyAgreement().iterator().next();
+        assertEquals(DidUrl.fragment(didKey, expected), method.id());
+        assertEquals(DidKeyResolver.MULTIKEY_TYPE, method.type());
+        assertEquals(didKey, method.controller());
+        assertEquals(expected, ((DidKey) method.publicKeyMultibase()).getMethodSpecificId());
+
+        assertEquals(method.id(), resolver.dereference(DidUrl.fragment(didKey, expected)).id());
+    }
+
+    @DisplayName("resolve(): JWK")
+    @Test
+    void jwk() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).jwk().build().encryptionKeyDerivation(true);
+
+        final DidVerificationMethod method = resolver
+                .resolve(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"))
+                .document().keyAgreement().iterator().next();
+
+        assertEquals(DidKeyResolver.JWK_TYPE, method.type());
+        assertNotNull(method.publicKeyJwk());
+        assertEquals("X25519", method.publicKeyJwk().get("crv"));
+    }
+
+    @DisplayName("resolve(): X25519KeyAgreementKey2020")
+    @Test
+    void x25519KeyAgreementKey2020() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .jwk()
+                .multibase(DidKeyResolver.ED25519_2020_TYPE)
+                .build()
+                .encryptionKeyDerivation(true);
+
+        final DidVerificationMethod method = resolver
+                .resolve(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"))
+                .document().keyAgreement().iterator().next();
+
+        assertEquals(DidKeyResolver.X25519_2020_TYPE, method.type());
+        assertNotNull(method.publicKeyMultibase());
+    }
+
+    @DisplayName("resolve(): cached")
+    @Test
+    void cached() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().cache(10).build();
+
+        final URI did = URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp");
+
+        assertEquals(0, resolver.resolve(did).document().keyAgreement().size());
+
+        // a document cached without derivation is created again
+        resolver.encryptionKeyDerivation(true);
+        final DidDocument document = resolver.resolve(did).document();
+        assertEquals(1, document.keyAgreement().size());
+        assertSame(document, resolver.resolve(did).document());
+        assertEquals(1, resolver.cache().size());
+
+        resolver.encryptionKeyDerivation(false);
+        assertEquals(0, resolver.resolve(did).document().keyAgreement().size());
+    }
+
+    @DisplayName("resolve(): not Ed25519")
+    @Test
+    void other() throws DidResolutionException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().cache(10).build().encryptionKeyDerivation(true);
+
+        final DidDocument document = resolver.resolve(URI.create("did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169")).document();
+
+        assertEquals(1, document.verification().size());
+        assertEquals(0, document.keyAgreement().size());
+        assertSame(document, resolver.resolve(URI.create("did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169")).document());
+    }
+
+    @DisplayName("derive()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void derive(URI did, String expected) {
+
+        final DidKey x25519 = DidKeyX25519Derivation.getInstance().derive(DidKey.of(did, CODECS));
+
+        assertEquals(KeyCodec.X25519_PUBLIC_KEY, x25519.codec());
+        assertEquals(expected, x25519.getMethodSpecificId());
+    }
+
+    @DisplayName("deriveAll()")
+    @Test
+    void deriveAll() {
+
+        final Random random = new Random(25519);
+
+        final List<DidKey> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final byte[] y = new byte[32];
+            random.nextBytes(y);
+            keys.add(DidKey.of(y, KeyCodec.ED25519_PUBLIC_KEY));
+        }
+
+        // non-canonical y = p + 2
+        final byte[] y = new byte[32];
+        Arrays.fill(y, (byte) 0xff);
+        y[0] = (byte) 0xef;
+        keys.add(DidKey.of(y, KeyCodec.ED25519_PUBLIC_KEY));
+
+        final List<DidKey> derived = DidKeyX25519Derivation.getInstance().deriveAll(keys);
+
+        assertEquals(keys.size(), derived.size());
+
+        for (int i = 0; i < keys.size(); i++) {
+            assertArrayEquals(reference(keys.get(i).decoded()), derived.get(i).decoded(), "Key " + i);
+            assertEquals(derived.get(i), DidKeyX25519Derivation.getInstance().derive(keys.get(i)));
+        }
+    }
+
+    @DisplayName("create()")
+    @Test
+    void cache() {
+
+        final DidKeyX25519Derivation derivation = DidKeyX25519Derivation.create(2);
+
+        final DidKey key = DidKey.of(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS);
+
+        final DidKey x25519 = derivation.derive(key);
+        assertSame(x25519, derivation.derive(key));
+        assertSame(x25519, derivation.derive(key.compact()));
+        assertEquals(1, derivation.size());
+
+        assertEquals(0, DidKeyX25519Derivation.getInstance().size());
+        assertThrows(IllegalArgumentException.class, () -> DidKeyX25519Derivation.create(0));
+    }
+
+    @DisplayName("negative: derive()")
+    @Test
+    void negative() {
+
+        final byte[] identity = new byte[32];
+        identity[0] = 1;
+
+        final byte[] minusOne = new byte[32];
+        Arrays.fill(minusOne, (byte) 0xff);
+        minusOne[0] = (byte) 0xec;
+        minusOne[31] = 0x7f;
+
+        final DidKey valid = DidKey.of(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS);
+
+        assertThrows(IllegalArgumentException.class, () -> DidKeyX25519Derivation.getInstance().derive(DidKey.of(identity, KeyCodec.ED25519_PUBLIC_KEY)));
+        assertThrows(IllegalArgumentException.class, () -> DidKeyX25519Derivation.getInstance().derive(DidKey.of(minusOne, KeyCodec.ED25519_PUBLIC_KEY)));
+
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> DidKeyX25519Derivation.getInstance().deriveAll(
+                Arrays.asList(valid, DidKey.of(URI.create("did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169"), CODECS))));
+        assertTrue(e.getMessage().contains("[1]"), e.getMessage());
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().build().encryptionKeyDerivation(true);
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(DidKey.of(identity, KeyCodec.ED25519_PUBLIC_KEY)));
+
+        assertEquals(Collections.emptyList(), DidKeyX25519Derivation.getInstance().deriveAll(Collections.emptyList()));
+    }
+
+    /** u = (1 + y) / (1 - y) mod p, using BigInteger. */
+    static byte[] reference(final byte[] encoded) {
+
+        final byte[] be = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            be[i] = encoded[31 - i];
+        }
+        be[0] &= 0x7f;
+
+        final BigInteger y = new BigInteger(1, be);
+        final BigInteger u = BigInteger.ONE.add(y).multiply(BigInteger.ONE.subtract(y).modInverse(P)).mod(P);
+
+        final byte[] out = new byte[32];
+        final byte[] bytes = u.toByteArray();
+        for (int i = 0; i < 32 && i < bytes.length; i++) {
+            out[i] = bytes[bytes.length - 1 - i];
+        }
+        return out;
+    }
+
+    static Stream<Arguments> vectors() {
+        return Stream.of(
+                Arguments.of(
+                        URI.create("did:key:z6MkhaXgBZDvotDkL5257faiztiGiC2QtKLGpbnnEGta2doK"),
+                        "z6LSj72tK8brWgZja8NLRwPigth2T9QRiG1uH9oKZuKjdh9p"));
+    }
+}
@@ -0,0 +1,188 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.key.DidKeyResolverMetrics.Histogram;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.DidResolutionException.Code;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("DID Key -> Metrics")
+class MetricsResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final URI ED25519 = URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp");
+    static final URI P256 = URI.create("did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv");
+
+    @DisplayName("resolve()")
+    @Test
+    void resolve() throws DidResolutionException {
+
+        final DidKeyResolverMetrics metrics = DidKeyResolverMetrics.create();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().cache(10).listener(metrics).build();
+
+        assertSame(metrics, resolver.listener());
+
+        resolver.resolve(ED25519);
+        resolver.resolve(ED25519);
+        resolver.resolve(Did.of(P256));
+        resolver.resolve(DidKey.of(P256, CODECS));
+
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create("did:key:z6Mk")));
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(Did.of("did:example:123")));
+
+        assertEquals(4, metrics.resolutions());
+        assertEquals(2, metrics.latency(KeyCodec.ED25519_PUBLIC_KEY).count());
+        assertEquals(2, metrics.latency(KeyCodec.P256_PUBLIC_KEY).count());
+        assertNull(metrics.latency(KeyCodec.X25519_PUBLIC_KEY));
+
+        // cached documents are not created again
+        assertEquals(2, metrics.latency(DidKeyResolver.MULTIKEY_TYPE).count());
+        assertEquals(2, metrics.latency(DidKeyResolver.JWK_TYPE).count());
+
+        assertEquals(2, metrics.failures());
+        assertEquals(1, metrics.failures(Code.InvalidDid));
+        assertEquals(1, metrics.failures(Code.UnsupportedMethod));
+
+        metrics.reset();
+        assertEquals(0, metrics.resolutions());
+        assertEquals(0, metrics.failures());
+    }
+
+    @DisplayName("resolve(): unsupported method")
+    @Test
+    void unsupportedMethod() {
+
+        final DidKeyResolverMetrics metrics = DidKeyResolverMetrics.create();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().negativeCache(10).listener(metrics).build();
+
+        for (final String did : new String[] { "did:web:example.com", "did:example:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp" }) {
+            assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(did)));
+            assertThrows(DidResolutionException.class, () -> resolver.resolve(Did.of(did)));
+        }
+
+        // reported as by resolve(Did), not as an invalid did:key
+        assertEquals(4, metrics.failures(Code.UnsupportedMethod));
+        assertEquals(0, metrics.failures(Code.InvalidDid));
+        assertEquals(0, resolver.rejections().size());
+    }
+
+    @DisplayName("method(): by codec")
+    @Test
+    void methodByCodec() throws DidResolutionException {
+
+        final DidKeyResolverMetrics metrics = DidKeyResolverMetrics.create();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).jwk().listener(metrics).build();
+
+        resolver.resolve(ED25519);
+        resolver.resolve(P256);
+        resolver.resolve(P256);
+
+        assertEquals(3, metrics.latency(DidKeyResolver.JWK_TYPE).count());
+        assertEquals(1, metrics.latency(KeyCodec.ED25519_PUBLIC_KEY, DidKeyResolver.JWK_TYPE).count());
+        assertEquals(2, metrics.latency(KeyCodec.P256_PUBLIC_KEY, DidKeyResolver.JWK_TYPE).count());
+        assertNull(metrics.latency(KeyCodec.P256_PUBLIC_KEY, DidKeyResolver.MULTIKEY_TYPE));
+
+        assertEquals(2, metrics.methods(DidKeyResolver.JWK_TYPE).size());
+        assertEquals(0, metrics.methods(DidKeyResolver.MULTIKEY_TYPE).size());
+
+        metrics.reset();
+        assertNull(metrics.latency(KeyCodec.ED25519_PUBLIC_KEY, DidKeyResolver.JWK_TYPE));
+    }
+
+    @DisplayName("disabled")
+    @Test
+    void disabled() {
+        assertNull(DidKeyResolver.with(CODECS).multikey().build().listener());
+    }
+
+    @DisplayName("Histogram.index()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "values" })
+    void index(long value) {
+        final int index = Histogram.index(value);
+        assertTrue(index >= 0 && index < Histogram.SIZE);
+        assertTrue(value <= Histogram.upperBound(index));
+        assertTrue(index == 0 || value > Histogram.upperBound(index - 1));
+    }
+
+    @DisplayName("Histogram.percentile()")
+    @Test
+    void percentile() {
+        final Histogram histogram = new Histogram();
+
+        assertEquals(0, histogram.percentile(99));
+
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500500000, histogram.totalNanos());
+
+        final long median = histogram.percentile(50);
+        assertTrue(median >= 500000 && median <= 500000 * 1.125, Long.toString(median));
+
+        final long p99 = histogram.percentile(99);
+        assertTrue(p99 >= 990000 && p99 <= 990000 * 1.125, Long.toString(p99));
+
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentile(101));
+    }
+
+    @DisplayName("Histogram.record(): concurrent")
+    @Test
+    void concurrentRecord() throws InterruptedException {
+        final Histogram histogram = new Histogram();
+
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    histogram.record(1000);
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80000, histogram.count());
+
+        // all stripes are summed up
+        final long median = histogram.percentile(50);
+        assertTrue(median >= 1000 && median <= 1000 * 1.125, Long.toString(median));
+        assertEquals(median, histogram.percentile(100));
+    }
+
+    @DisplayName("Histogram.stripes()")
+    @Test
+    void stripes() {
+        assertEquals(1, Histogram.stripes(1));
+        assertEquals(4, Histogram.stripes(3));
+        assertEquals(16, Histogram.stripes(64));
+    }
+
+    static LongStream values() {
+        return LongStream.of(0, 1, 7, 8, 9, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE);
+    }
+}
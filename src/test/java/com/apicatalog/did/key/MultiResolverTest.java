@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -36,6 +37,11 @@ class MultiResolverTest {
             .jwk()
             .verificationMethodId(key -> DidUrl.fragment(key, "vm"))
             .build();
+    static DidKeyResolver LAZY_RESOLVER = DidKeyResolver.with(CODECS)
+            .multikey()
+            .lazyJwk()
+            .verificationMethodId(key -> DidUrl.fragment(key, "vm"))
+            .build();
 
     @DisplayName("resolve()")
     @ParameterizedTest(name = "{0}")
@@ -67,6 +73,28 @@ class MultiResolverTest {
         assertTrue(document.hasRequiredProperties());
     }
 
+    @DisplayName("resolve() lazy")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void resolveLazy(URI did, Map<String, Object> expected) throws DidResolutionException {
+        ResolvedDidDocument result = LAZY_RESOLVER.resolve(did);
+        assertNotNull(result);
+
+        DidDocument document = result.document();
+        assertNotNull(document);
+
+        DidKey didKey = DidKey.of(did, CODECS);
+
+        assertEquals(didKey, document.id());
+        assertMethod(document.verification(), didKey, expected);
+
+        for (DidVerificationMethod method : document.verification()) {
+            if (DidKeyResolver.JWK_TYPE.equals(method.type())) {
+                assertSame(method.publicKeyJwk(), method.publicKeyJwk());
+            }
+        }
+    }
+
     static void assertMethod(Collection<DidVerificationMethod> methods, DidKey didKey, Map<String, Object> jwk) {
 
         assertNotNull(methods);
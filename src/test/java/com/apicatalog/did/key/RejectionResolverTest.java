@@ -0,0 +1,160 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.Did;
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Rejection")
+class RejectionResolverTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("test()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "positiveVectors" })
+    void test(String uri, int keyLength, String version, Multicodec codec) {
+        assertTrue(DidKeyFilter.test(uri));
+        assertTrue(DidKeyFilter.test(uri + "#key"));
+    }
+
+    @DisplayName("test() negative")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "negativeVectors" })
+    void testNegative(String uri) {
+        assertFalse(DidKeyFilter.test(uri));
+    }
+
+    @DisplayName("resolve() negative")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "negativeVectors" })
+    void resolveNegative(String uri) {
+        if (uri == null || uri.isEmpty()) {
+            return;
+        }
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().negativeCache(10).build();
+        final DidKeyRejectionCache rejections = resolver.rejections();
+
+        assertNotNull(rejections);
+
+        final DidResolutionException first = assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(uri)));
+
+        if (!uri.startsWith("did:key:")) {
+            // an unsupported method is rejected before the negative cache
+            assertEquals(0, rejections.size());
+            return;
+        }
+
+        assertEquals(1, rejections.size());
+        assertEquals(0, rejections.hits());
+
+        final DidResolutionException cached = assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(uri)));
+        assertEquals(1, rejections.hits());
+        assertEquals(first.getMessage(), cached.getMessage());
+        assertNull(cached.getCause());
+        assertEquals(0, cached.getStackTrace().length);
+
+        // a new exception on each hit, a caller cannot alter the cached rejection
+        cached.addSuppressed(new IllegalStateException());
+        final DidResolutionException again = assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(uri)));
+        assertNotSame(cached, again);
+        assertEquals(0, again.getSuppressed().length);
+        assertEquals(first.getMessage(), again.getMessage());
+        assertEquals(first.getCode(), again.getCode());
+        assertEquals(2, rejections.hits());
+    }
+
+    @DisplayName("resolve(Did) negative")
+    @Test
+    void resolveDidNegative() {
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().negativeCache(10).build();
+
+        final Did did = Did.of("did:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd");
+
+        final DidResolutionException first = assertThrows(DidResolutionException.class, () -> resolver.resolve(did));
+
+        final DidResolutionException cached = assertThrows(DidResolutionException.class, () -> resolver.resolve(did));
+        assertEquals(first.getMessage(), cached.getMessage());
+        assertNull(cached.getCause());
+        assertNotSame(cached, assertThrows(DidResolutionException.class, () -> resolver.resolve(did)));
+        assertEquals(2, resolver.rejections().hits());
+    }
+
+    @DisplayName("negativeCache(): oversized input")
+    @Test
+    void oversized() {
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().negativeCache(10).build();
+
+        final StringBuilder did = new StringBuilder("did:key:z");
+        while (did.length() <= DidKeyRejectionCache.MAX_LENGTH) {
+            did.append("6Mk0");
+        }
+
+        assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create(did.toString())));
+        assertEquals(0, resolver.rejections().size());
+    }
+
+    @DisplayName("stacklessExceptions(true)")
+    @Test
+    void stackless() {
+        final DidKeyResolver stackless = DidKeyResolver.with(CODECS).multikey().stacklessExceptions(true).build();
+
+        final DidResolutionException e1 = assertThrows(DidResolutionException.class, () -> stackless.resolve(URI.create("did:key:z6Mk0")));
+        assertEquals(0, e1.getStackTrace().length);
+
+        final DidResolutionException e2 = assertThrows(DidResolutionException.class, () -> stackless.resolve(URI.create("did:key:zzzzz")));
+        assertEquals(0, e2.getStackTrace().length);
+        assertNotNull(e2.getCause());
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().build();
+
+        assertNull(resolver.rejections());
+        assertTrue(assertThrows(DidResolutionException.class, () -> resolver.resolve(URI.create("did:key:z6Mk0"))).getStackTrace().length > 0);
+    }
+
+    @DisplayName("negative: negativeCache(0)")
+    @Test
+    void invalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> DidKeyRejectionCache.create(0));
+    }
+
+    static Stream<Arguments> positiveVectors() {
+        return Stream.concat(DidKeyTest.positiveVectors(), DidKeyTest.versionedKeys());
+    }
+
+    static Stream<String> negativeVectors() {
+        return Stream.of(
+                null,
+                "",
+                "did:key:",
+                "did:example:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2",
+                "did:key:y6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2",
+                "did:key::z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2",
+                "did:key:1:",
+                // '0' and 'l' are not base58 digits
+                "did:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkd0l",
+                // too short or too long for Ed25519
+                "did:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd",
+                "did:key:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd22",
+                "did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZp");
+    }
+}
@@ -0,0 +1,133 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.did.resolver.ResolvedDidDocument;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> Snapshot")
+class SnapshotTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("snapshot()")
+    @Test
+    void snapshot() throws DidResolutionException, IOException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().jwk().cache(100).build();
+
+        for (final URI did : CachedResolverTest.vectors().collect(Collectors.toList())) {
+            resolver.resolve(did);
+        }
+        resolver.resolve(URI.create("did:key:1.1:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2"));
+
+        final Path file = Files.createTempFile("did-key", ".snapshot");
+        try {
+            assertEquals(5, resolver.cache().snapshot(file, true));
+
+            final DidKeySnapshot snapshot = DidKeySnapshot.open(file, CODECS);
+            assertEquals(5, snapshot.size());
+
+            final DidKeyResolver warm = DidKeyResolver.with(CODECS).multikey().jwk()
+                    .cache(DidKeyResolverCache.create(100, snapshot))
+                    .build();
+
+            assertEquals(0, warm.cache().size());
+
+            for (final URI did : CachedResolverTest.vectors().collect(Collectors.toList())) {
+
+                final ResolvedDidDocument expected = resolver.resolve(did);
+                final ResolvedDidDocument document = warm.resolve(did);
+
+                assertEquals(expected.document().id(), document.document().id());
+                assertEquals(expected.document().id().toString(), document.document().id().toString());
+
+                final byte[] json = DidKeyDocumentWriter.toJson(expected.document());
+                assertArrayEquals(json, DidKeyDocumentWriter.toJson(document.document()));
+
+                final ByteBuffer bytes = snapshot.json(did.toString().substring(DidKey.PREFIX.length()));
+                assertNotNull(bytes);
+                final byte[] copy = new byte[bytes.remaining()];
+                bytes.get(copy);
+                assertArrayEquals(json, copy);
+            }
+
+            assertEquals(4, warm.cache().hits());
+            assertEquals(0, warm.cache().misses());
+
+            assertNull(snapshot.get("z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWq"));
+
+            // versioned
+            final ResolvedDidDocument versioned = warm.resolve(URI.create("did:key:1.1:z6MkicdicToW5HbxPP7zZV1H7RHvXgRMhoujWAF2n5WQkdd2"));
+            assertEquals("1.1", ((DidKey) versioned.document().id()).version());
+
+            // bulk resolution served from the snapshot
+            final String input = CachedResolverTest.vectors().map(URI::toString).collect(Collectors.joining("\n"));
+
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            DidKeyBulkResolver.with(resolver).build().resolve(new StringReader(input), expected);
+
+            final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            DidKeyBulkResolver.with(warm).build().resolve(new StringReader(input), actual);
+
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @DisplayName("negative: open()")
+    @Test
+    void corrupted() throws DidResolutionException, IOException {
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS).multikey().cache(10).build();
+        resolver.resolve(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"));
+
+        final Path file = Files.createTempFile("did-key", ".snapshot");
+        try {
+            assertEquals(1, resolver.cache().snapshot(file, false));
+
+            final DidKeySnapshot snapshot = DidKeySnapshot.open(file, CODECS);
+            assertNotNull(snapshot.get("z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"));
+            assertNull(snapshot.json("z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"));
+
+            final byte[] bytes = Files.readAllBytes(file);
+
+            // checksum
+            bytes[bytes.length - 1] ^= 1;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> DidKeySnapshot.open(file, CODECS));
+
+            // version
+            bytes[bytes.length - 1] ^= 1;
+            bytes[7] = 2;
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> DidKeySnapshot.open(file, CODECS));
+
+            Files.write(file, new byte[] { 1, 2, 3 });
+            assertThrows(IOException.class, () -> DidKeySnapshot.open(file, CODECS));
+
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.did.resolver.DidResolutionException;
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("DID Key -> Tracing")
+class TracingTest {
+
+    static MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final URI P256 = URI.create("did:key:zDnaerx9CtbPJ1q36T5Ln5wYt3MQYeGRG5ehnPAmxcf5mDZpv");
+
+    @DisplayName("resolve()")
+    @Test
+    void resolve() throws DidResolutionException {
+
+        final List<String> events = new ArrayList<>();
+
+        final DidKeyResolver resolver = DidKeyResolver.with(CODECS)
+                .multikey()
+                .jwk()
+                .listener(new DidKeyResolverListener() {
+
+                    @Override
+                    public void parsed(Multicodec codec, long decodeNanos, long nanos) {
+                        assertTrue(decodeNanos >= 0 && decodeNanos <= nanos);
+                        events.add("parsed " + codec.name());
+                    }
+
+                    @Override
+                    public void method(Multicodec codec, String type, long nanos) {
+                        assertTrue(nanos >= 0);
+                        events.add("method " + codec.name() + " " + type);
+                    }
+
+                    @Override
+                    public void resolved(Multicodec codec, long nanos) {
+                        assertTrue(nanos >= 0);
+                        events.add("resolved " + codec.name());
+                    }
+                })
+                .build();
+
+        resolver.resolve(P256);
+
+        assertEquals(4, events.size(), events.toString());
+        assertEquals("parsed " + KeyCodec.P256_PUBLIC_KEY.name(), events.get(0));
+        assertEquals("method " + KeyCodec.P256_PUBLIC_KEY.name() + " " + DidKeyResolver.MULTIKEY_TYPE, events.get(1));
+        assertEquals("method " + KeyCodec.P256_PUBLIC_KEY.name() + " " + DidKeyResolver.JWK_TYPE, events.get(2));
+        assertEquals("resolved " + KeyCodec.P256_PUBLIC_KEY.name(), events.get(3));
+
+        // a key parsed by the caller is not reported again
+        events.clear();
+        resolver.resolve(DidKey.of(P256, CODECS));
+        assertEquals(3, events.size(), events.toString());
+    }
+}
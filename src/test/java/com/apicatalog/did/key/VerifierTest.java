@@ -0,0 +1,250 @@
+package com.apicatalog.did.key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Provider;
+import java.security.ProviderException;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.SignatureSpi;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.apicatalog.did.key.jwk.DidKeyJwkConverter;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("DID Key Verifier")
+class VerifierTest {
+
+    static final MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final DidKey BLS = DidKey.of(URI.create("did:key:z3tEFS9q2WkwvvVvr1BrYwNreqcudmcCQGGRSQ8r73recEqAUHGeLPWzwK6toBdKJgX3Fs"), CODECS);
+
+    @DisplayName("verify()")
+    @Test
+    void verify() throws GeneralSecurityException {
+
+        final KeyPair pair = pair("secp256r1");
+        final DidKey key = DidKeyJwkConverter.of(pair.getPublic());
+
+        final byte[] message = message(0);
+        final byte[] signature = sign(pair, "SHA256withECDSA", message);
+
+        assertTrue(DidKeyVerifier.getInstance().verify(key, message, signature));
+        assertFalse(DidKeyVerifier.getInstance().verify(key, message(1), signature));
+
+        assertThrows(IllegalArgumentException.class, () -> DidKeyVerifier.getInstance().verify(key, message, new byte[] { 1, 2, 3 }));
+        assertThrows(IllegalArgumentException.class, () -> DidKeyVerifier.getInstance().verify(BLS, message, signature));
+    }
+
+    @DisplayName("verifyAll()")
+    @Test
+    void verifyAll() throws GeneralSecurityException {
+
+        final List<KeyPair> pairs = new ArrayList<>();
+        final List<String> algorithms = new ArrayList<>();
+
+        for (final String curve : new String[] { "secp256r1", "secp384r1", "secp256r1" }) {
+            pairs.add(pair(curve));
+            algorithms.add("secp384r1".equals(curve) ? "SHA384withECDSA" : "SHA256withECDSA");
+        }
+
+        // requires JDK 15 or later
+        if (Security.getAlgorithms("Signature").contains("ED25519")) {
+            pairs.add(KeyPairGenerator.getInstance("Ed25519").generateKeyPair());
+            algorithms.add("Ed25519");
+        }
+
+        final List<DidKeyVerifier.Item> items = new ArrayList<>();
+        final List<Boolean> expected = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            final int k = i % pairs.size();
+            final DidKey key = DidKeyJwkConverter.of(pairs.get(k).getPublic());
+            final byte[] signature = sign(pairs.get(k), algorithms.get(k), message(i));
+
+            final boolean valid = i % 7 != 0;
+            items.add(DidKeyVerifier.Item.of(key, valid ? message(i) : message(i + 1), signature));
+            expected.add(valid);
+        }
+
+        items.add(DidKeyVerifier.Item.of(BLS, message(0), new byte[96]));
+        items.add(3, DidKeyVerifier.Item.of(items.get(0).key(), message(0), new byte[] { 1, 2, 3 }));
+
+        final AtomicInteger tasks = new AtomicInteger();
+
+        final List<DidKeyVerifier.Result> results = DidKeyVerifier.getInstance().verifyAll(items, command -> {
+            tasks.incrementAndGet();
+            command.run();
+        });
+
+        assertEquals(items.size(), results.size());
+        assertTrue(tasks.get() > 1);
+
+        // malformed signature
+        assertFalse(results.get(3).isVerified());
+        assertNotNull(results.get(3).exception());
+
+        // unsupported key type
+        assertFalse(results.get(results.size() - 1).isVerified());
+        assertNotNull(results.get(results.size() - 1).exception());
+
+        for (int i = 0; i < expected.size(); i++) {
+            final DidKeyVerifier.Result result = results.get(i < 3 ? i : i + 1);
+            assertEquals(expected.get(i), result.isVerified(), "Item " + i);
+            assertNull(result.exception(), "Item " + i);
+        }
+    }
+
+    @DisplayName("verifyAll(): secp256k1")
+    @Test
+    void secp256k1() throws GeneralSecurityException {
+
+        final KeyPair pair;
+        try {
+            pair = pair("secp256k1");
+
+        } catch (InvalidAlgorithmParameterException e) {
+            // the JDK 16 and later default provider does not support the curve
+            final DidKey key = DidKey.of(URI.create("did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme"), CODECS);
+
+            final DidKeyVerifier.Result result = DidKeyVerifier.getInstance()
+                    .verifyAll(Collections.singletonList(DidKeyVerifier.Item.of(key, message(0), new byte[] { 0x30, 0x06, 0x02, 0x01, 0x01, 0x02, 0x01, 0x01 })))
+                    .get(0);
+
+            assertFalse(result.isVerified());
+            assertNotNull(result.exception());
+            return;
+        }
+
+        final DidKey key = DidKeyJwkConverter.of(pair.getPublic());
+        final byte[] signature = sign(pair, "SHA256withECDSA", message(0));
+
+        assertTrue(DidKeyVerifier.getInstance().verify(key, message(0), signature));
+    }
+
+    @DisplayName("verifyAll(): provider failure")
+    @Test
+    void providerFailure() throws GeneralSecurityException {
+
+        final KeyPair pair = pair("secp256r1");
+        final DidKey key = DidKeyJwkConverter.of(pair.getPublic());
+        final byte[] signature = sign(pair, "SHA256withECDSA", message(0));
+
+        final DidKeyVerifier verifier = DidKeyVerifier.withDefaults()
+                .algorithm(KeyCodec.P256_PUBLIC_KEY, FailingProvider.ALGORITHM)
+                .build();
+
+        Security.addProvider(new FailingProvider());
+        try {
+            final List<DidKeyVerifier.Item> items = new ArrayList<>();
+            for (int i = 0; i < 2 * DidKeyVerifier.BATCH_THRESHOLD; i++) {
+                items.add(DidKeyVerifier.Item.of(key, message(0), signature));
+            }
+
+            final List<DidKeyVerifier.Result> results = verifier.verifyAll(items);
+
+            assertEquals(items.size(), results.size());
+            for (final DidKeyVerifier.Result result : results) {
+                assertFalse(result.isVerified());
+                assertTrue(result.exception().getCause() instanceof ProviderException);
+            }
+
+        } finally {
+            Security.removeProvider(FailingProvider.NAME);
+        }
+    }
+
+    static KeyPair pair(String curve) throws GeneralSecurityException {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+        return generator.generateKeyPair();
+    }
+
+    static byte[] sign(KeyPair pair, String algorithm, byte[] message) throws GeneralSecurityException {
+        final Signature signer = Signature.getInstance(algorithm);
+        signer.initSign(pair.getPrivate());
+        signer.update(message);
+        return signer.sign();
+    }
+
+    static byte[] message(int i) {
+        return ("message #" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Provides a signature algorithm failing with a {@link ProviderException}. */
+    static final class FailingProvider extends Provider {
+
+        private static final long serialVersionUID = 5045096127469211906L;
+
+        static final String NAME = "DidKeyVerifierTest";
+        static final String ALGORITHM = "FailingECDSA";
+
+        FailingProvider() {
+            super(NAME, 1.0, "Fails on verification");
+            put("Signature." + ALGORITHM, FailingSignature.class.getName());
+        }
+    }
+
+    public static final class FailingSignature extends SignatureSpi {
+
+        @Override
+        protected void engineInitVerify(PublicKey publicKey) {
+        }
+
+        @Override
+        protected void engineInitSign(PrivateKey privateKey) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void engineUpdate(byte b) {
+        }
+
+        @Override
+        protected void engineUpdate(byte[] b, int off, int len) {
+        }
+
+        @Override
+        protected byte[] engineSign() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected boolean engineVerify(byte[] sigBytes) {
+            throw new ProviderException("Failing provider.");
+        }
+
+        @Override
+        @Deprecated
+        protected void engineSetParameter(String param, Object value) {
+        }
+
+        @Override
+        @Deprecated
+        protected Object engineGetParameter(String param) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.apicatalog.did.key.jwk;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.multicodec.Multicodec;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("Codec Dispatch")
+class CodecDispatchTest {
+
+    @DisplayName("get()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "codecs" })
+    void get(Multicodec codec) {
+
+        final JwkProvider provider = key -> null;
+
+        final Map<Multicodec, JwkProvider> providers = new LinkedHashMap<>();
+        providers.put(codec, provider);
+
+        final CodecDispatch dispatch = CodecDispatch.of(providers);
+
+        assertSame(provider, dispatch.get(codec.code()));
+        assertNull(dispatch.get(codec.code() + 1));
+    }
+
+    @DisplayName("defaults")
+    @Test
+    void defaults() {
+        final DidKeyJwkMethodProvider provider = DidKeyJwkMethodProvider.getInstance();
+
+        for (final Map.Entry<Multicodec, JwkProvider> entry : provider.jwkProviders.entrySet()) {
+            assertSame(entry.getValue(), provider.dispatch.get(entry.getKey().code()));
+        }
+        assertNull(provider.dispatch.get(KeyCodec.X25519_PUBLIC_KEY.code()));
+        assertNull(provider.dispatch.get(KeyCodec.RSA_PUBLIC_KEY.code()));
+    }
+
+    static Stream<Multicodec> codecs() {
+        return Stream.of(
+                KeyCodec.ED25519_PUBLIC_KEY,
+                KeyCodec.P256_PUBLIC_KEY,
+                KeyCodec.P521_PUBLIC_KEY,
+                KeyCodec.RSA_PUBLIC_KEY,
+                KeyCodec.SM2_PUBLIC_KEY,
+                KeyCodec.JWK_JCS_PUBLIC_KEY);
+    }
+}
@@ -0,0 +1,208 @@
+package com.apicatalog.did.key.jwk;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.DidUrl;
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+import com.apicatalog.multicodec.codec.KeyCodec;
+
+@DisplayName("JWK -> DID Key")
+class DidKeyJwkConverterTest {
+
+    static final MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    @DisplayName("of(Map)")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void ofJwk(String did) {
+
+        final DidKey expected = DidKey.of(URI.create(did), CODECS);
+        final Map<String, Object> jwk = DidKeyJwkMethodProvider.getInstance().get(DidUrl.fragment(expected, "jwk"), expected, "JsonWebKey").publicKeyJwk();
+
+        final DidKey didKey = DidKeyJwkConverter.of(jwk);
+
+        assertEquals(expected, didKey);
+        assertEquals(did, didKey.toString());
+    }
+
+    @DisplayName("of(Map): Ed25519")
+    @Test
+    void ofEd25519() {
+        final Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "OKP");
+        jwk.put("crv", "Ed25519");
+        jwk.put("x", "O2onvM62pC1io6jQKm8Nc2UyFXcd4kOmOsBIoYtZ2ik");
+
+        assertEquals("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp", DidKeyJwkConverter.of(jwk).toString());
+    }
+
+    @DisplayName("ofAll(Collection)")
+    @Test
+    void ofAll() {
+
+        final List<Map<String, Object>> jwks = new ArrayList<>();
+        final List<DidKey> expected = new ArrayList<>();
+
+        vectors().forEach(did -> {
+            final DidKey didKey = DidKey.of(URI.create(did), CODECS);
+            expected.add(didKey);
+            jwks.add(DidKeyJwkMethodProvider.getInstance().get(DidUrl.fragment(didKey, "jwk"), didKey, "JsonWebKey").publicKeyJwk());
+        });
+
+        assertEquals(expected, DidKeyJwkConverter.ofAll(jwks));
+
+        jwks.add(2, Collections.singletonMap("kty", "RSA"));
+
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.ofAll(jwks));
+        assertTrue(e.getMessage().contains("[2]"), e.getMessage());
+    }
+
+    @DisplayName("negative: of(Map)")
+    @Test
+    void ofJwkNegative() {
+
+        final DidKey p256 = DidKey.of(URI.create("did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169"), CODECS);
+        final Map<String, Object> jwk = DidKeyJwkMethodProvider.getInstance().get(DidUrl.fragment(p256, "jwk"), p256, "JsonWebKey").publicKeyJwk();
+
+        // a point not on the curve
+        final byte[] y = Base64.getUrlDecoder().decode((String) jwk.get("y"));
+        y[y.length - 1] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "y", Base64.getUrlEncoder().withoutPadding().encodeToString(y))));
+
+        // a short coordinate
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "x", "AQID")));
+
+        // not base64url
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "x", "+/+/")));
+
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "y", null)));
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "crv", "P-192")));
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "kty", "oct")));
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(with(jwk, "kty", null)));
+    }
+
+    @DisplayName("of(PublicKey): EC")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "curves" })
+    void ofECPublicKey(String curve) throws GeneralSecurityException {
+
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+
+        final ECPublicKey key = (ECPublicKey) generator.generateKeyPair().getPublic();
+        final int length = (key.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+
+        final DidKey didKey = DidKeyJwkConverter.of(key);
+
+        final byte[] compressed = didKey.decoded();
+        assertEquals(1 + length, compressed.length);
+        assertEquals(key.getW().getAffineY().testBit(0) ? 0x03 : 0x02, compressed[0]);
+        assertEquals(key.getW().getAffineX(), new BigInteger(1, Arrays.copyOfRange(compressed, 1, compressed.length)));
+
+        assertEquals(didKey, DidKey.of(URI.create(didKey.toString()), CODECS));
+    }
+
+    @DisplayName("of(PublicKey): RSA")
+    @Test
+    void ofRSAPublicKey() throws GeneralSecurityException {
+
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+
+        final PublicKey key = generator.generateKeyPair().getPublic();
+
+        final DidKey didKey = DidKeyJwkConverter.of(key);
+
+        assertEquals(KeyCodec.RSA_PUBLIC_KEY, didKey.codec());
+        assertTrue(didKey.toString().startsWith("did:key:z4MX"), didKey.toString());
+
+        // PKCS #1 key is the tail of the X.509 encoded key
+        final byte[] encoded = key.getEncoded();
+        final byte[] pkcs1 = didKey.decoded();
+        assertArrayEquals(Arrays.copyOfRange(encoded, encoded.length - pkcs1.length, encoded.length), pkcs1);
+    }
+
+    @DisplayName("of(PublicKey): Ed25519")
+    @Test
+    void ofEd25519PublicKey() {
+
+        final DidKey expected = DidKey.of(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS);
+
+        final byte[] encoded = new byte[DidKeyJwkConverter.ED25519_SPKI.length + 32];
+        System.arraycopy(DidKeyJwkConverter.ED25519_SPKI, 0, encoded, 0, DidKeyJwkConverter.ED25519_SPKI.length);
+        System.arraycopy(expected.decoded(), 0, encoded, DidKeyJwkConverter.ED25519_SPKI.length, 32);
+
+        assertEquals(expected, DidKeyJwkConverter.of(publicKey("Ed25519", encoded)));
+
+        encoded[8] = 0x71;
+        assertThrows(IllegalArgumentException.class, () -> DidKeyJwkConverter.of(publicKey("Ed448", encoded)));
+    }
+
+    static Stream<String> vectors() {
+        return Stream.of(
+                "did:key:z6MkpTHR8VNsBxYAAWHut2Geadd9jSwuBV8xRoAnwWsdvktH",
+                "did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169",
+                "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9",
+                "did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme",
+                "did:key:z3tEFS9q2WkwvvVvr1BrYwNreqcudmcCQGGRSQ8r73recEqAUHGeLPWzwK6toBdKJgX3Fs",
+                "did:key:zUC7K4ndUaGZgV7Cp2yJy6JtMoUHY6u7tkcSYUvPrEidqBmLCTLmi6d5WvwnUqejscAkERJ3bfjEiSYtdPkRSE8kSa11hFBr4sTgnbZ95SJj19PN2jdvJjyzpSZgxkyyxNnBNnY");
+    }
+
+    static Stream<String> curves() {
+        return Stream.of("secp256r1", "secp384r1", "secp521r1");
+    }
+
+    static Map<String, Object> with(Map<String, Object> jwk, String name, String value) {
+        final Map<String, Object> copy = new LinkedHashMap<>(jwk);
+        copy.put(name, value);
+        return copy;
+    }
+
+    static PublicKey publicKey(String algorithm, byte[] encoded) {
+        return new PublicKey() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getAlgorithm() {
+                return algorithm;
+            }
+
+            @Override
+            public String getFormat() {
+                return "X.509";
+            }
+
+            @Override
+            public byte[] getEncoded() {
+                return encoded.clone();
+            }
+        };
+    }
+}
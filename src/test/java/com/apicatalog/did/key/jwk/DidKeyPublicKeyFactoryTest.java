@@ -0,0 +1,177 @@
+package com.apicatalog.did.key.jwk;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.apicatalog.did.key.DidKey;
+import com.apicatalog.multicodec.Multicodec.Tag;
+import com.apicatalog.multicodec.MulticodecDecoder;
+
+@DisplayName("DID Key -> PublicKey")
+class DidKeyPublicKeyFactoryTest {
+
+    static final MulticodecDecoder CODECS = MulticodecDecoder.getInstance(Tag.Key);
+
+    static final byte[] MESSAGE = "did:key".getBytes(StandardCharsets.UTF_8);
+
+    @DisplayName("get(): EC")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "curves" })
+    void ec(String curve) throws GeneralSecurityException {
+
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+
+        assertVerifies(generator.generateKeyPair(), "SHA256withECDSA");
+    }
+
+    @DisplayName("get(): RSA")
+    @Test
+    void rsa() throws GeneralSecurityException {
+
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+
+        assertVerifies(generator.generateKeyPair(), "SHA256withRSA");
+    }
+
+    @DisplayName("get(): Ed25519")
+    @Test
+    void ed25519() throws GeneralSecurityException {
+
+        // requires JDK 15 or later
+        if (!Security.getAlgorithms("KeyFactory").contains("ED25519")) {
+            assertThrows(IllegalArgumentException.class, () -> DidKeyPublicKeyFactory.getInstance().get(
+                    DidKey.of(URI.create("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp"), CODECS)));
+            return;
+        }
+
+        assertVerifies(KeyPairGenerator.getInstance("Ed25519").generateKeyPair(), "Ed25519");
+    }
+
+    @DisplayName("get(): secp256k1")
+    @Test
+    void secp256k1() throws GeneralSecurityException {
+
+        final DidKey didKey = DidKey.of(URI.create("did:key:zQ3shokFTS3brHcDQrn82RUDfCZESWL1ZdCEJwekUDPQiYBme"), CODECS);
+
+        // the JDK default provider creates the key on any version
+        final PublicKey key = DidKeyPublicKeyFactory.getInstance().get(didKey);
+        assertTrue(key instanceof ECPublicKey);
+        assertEquals(ECCurve.SECP256K1.parameters().getOrder(), ((ECPublicKey) key).getParams().getOrder());
+        assertEquals(didKey, DidKeyJwkConverter.of(key));
+
+        final KeyPair pair;
+        try {
+            final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256k1"));
+            pair = generator.generateKeyPair();
+
+        } catch (InvalidAlgorithmParameterException e) {
+            // not supported by the JDK 16 and later default provider
+            return;
+        }
+
+        assertVerifies(pair, "SHA256withECDSA");
+    }
+
+    @DisplayName("get(): did:key")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "vectors" })
+    void didKey(String did) {
+
+        final DidKey didKey = DidKey.of(URI.create(did), CODECS);
+
+        final PublicKey key = DidKeyPublicKeyFactory.getInstance().get(didKey);
+
+        assertEquals(didKey, DidKeyJwkConverter.of(key));
+    }
+
+    @DisplayName("create()")
+    @Test
+    void cache() throws GeneralSecurityException {
+
+        final DidKeyPublicKeyFactory factory = DidKeyPublicKeyFactory.create(2);
+
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+
+        final DidKey[] keys = new DidKey[3];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = DidKey.of(URI.create(DidKeyJwkConverter.of(generator.generateKeyPair().getPublic()).toString()), CODECS);
+        }
+
+        final PublicKey key = factory.get(keys[0]);
+        assertSame(key, factory.get(keys[0]));
+        assertSame(key, factory.get(keys[0].compact()));
+        assertEquals(1, factory.size());
+
+        factory.get(keys[1]);
+        factory.get(keys[2]);
+        assertEquals(2, factory.size());
+
+        assertNotSame(key, factory.get(keys[0]));
+
+        assertNotSame(DidKeyPublicKeyFactory.getInstance().get(keys[1]), DidKeyPublicKeyFactory.getInstance().get(keys[1]));
+        assertEquals(0, DidKeyPublicKeyFactory.getInstance().size());
+
+        assertThrows(IllegalArgumentException.class, () -> DidKeyPublicKeyFactory.create(0));
+    }
+
+    @DisplayName("negative: get()")
+    @Test
+    void negative() {
+        final DidKey bls = DidKey.of(URI.create("did:key:z3tEFS9q2WkwvvVvr1BrYwNreqcudmcCQGGRSQ8r73recEqAUHGeLPWzwK6toBdKJgX3Fs"), CODECS);
+        assertThrows(IllegalArgumentException.class, () -> DidKeyPublicKeyFactory.getInstance().get(bls));
+    }
+
+    static void assertVerifies(KeyPair pair, String algorithm) throws GeneralSecurityException {
+
+        final DidKey didKey = DidKeyJwkConverter.of(pair.getPublic());
+        final PublicKey key = DidKeyPublicKeyFactory.getInstance().get(didKey);
+
+        assertArrayEquals(pair.getPublic().getEncoded(), key.getEncoded());
+
+        final Signature signer = Signature.getInstance(algorithm);
+        signer.initSign(pair.getPrivate());
+        signer.update(MESSAGE);
+        final byte[] signature = signer.sign();
+
+        final Signature verifier = Signature.getInstance(algorithm);
+        verifier.initVerify(key);
+        verifier.update(MESSAGE);
+        assertTrue(verifier.verify(signature));
+    }
+
+    static Stream<String> curves() {
+        return Stream.of("secp256r1", "secp384r1", "secp521r1");
+    }
+
+    static Stream<String> vectors() {
+        return Stream.of(
+                "did:key:zDnaerDaTF5BXEavCrfRZEk316dpbLsfPDZ3WJ5hRTPFU2169",
+                "did:key:z82Lm1MpAkeJcix9K8TMiLd5NMAhnwkjjCBeWHXyu3U4oT2MVJJKXkcVBgjGhnLBn2Kaau9");
+    }
+}
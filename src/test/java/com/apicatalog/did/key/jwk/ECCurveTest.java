@@ -0,0 +1,108 @@
+package com.apicatalog.did.key.jwk;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.security.spec.ECPoint;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("EC Curve")
+class ECCurveTest {
+
+    static final int ROUNDS = 200;
+
+    @DisplayName("mul(), add(), sqr()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "curves" })
+    void mul(String name) {
+
+        final ECCurve curve = ECCurve.get(name);
+        final PrimeField field = curve.field;
+        final PrimeField.Workspace ws = field.workspace.get();
+
+        final Random random = new Random(name.hashCode());
+
+        final long[] x = new long[field.n];
+        final long[] y = new long[field.n];
+        final long[] out = new long[field.n];
+
+        for (int i = 0; i < ROUNDS; i++) {
+            final BigInteger a = element(curve, random);
+            final BigInteger b = i == 0 ? curve.p.subtract(BigInteger.ONE) : element(curve, random);
+
+            field.decode(bytes(curve, a), 0, x);
+            field.decode(bytes(curve, b), 0, y);
+
+            field.mul(x, y, out, ws);
+            assertEquals(a.multiply(b).mod(curve.p), value(field, out));
+
+            field.add(x, y, out);
+            assertEquals(a.add(b).mod(curve.p), value(field, out));
+
+            field.sqr(y, out, ws);
+            assertEquals(b.multiply(b).mod(curve.p), value(field, out));
+        }
+    }
+
+    @DisplayName("decompress()")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource({ "curves" })
+    void decompress(String name) {
+
+        final ECCurve curve = ECCurve.get(name);
+        final ECCurve generic = new ECCurve(curve.name, curve.p, curve.a, curve.b);
+
+        final Random random = new Random(name.hashCode());
+
+        final byte[] compressed = new byte[curve.length + 1];
+        final byte[] y = new byte[curve.length];
+
+        int points = 0;
+
+        for (int i = 0; i < ROUNDS; i++) {
+            compressed[0] = (byte) (random.nextBoolean() ? 0x02 : 0x03);
+            System.arraycopy(bytes(curve, element(curve, random)), 0, compressed, 1, curve.length);
+
+            final ECPoint expected;
+            try {
+                expected = DidKeyJwkMethodProvider.decompress(generic, compressed);
+
+            } catch (IllegalArgumentException e) {
+                // not on the curve
+                assertThrows(IllegalArgumentException.class, () -> curve.decompress(compressed, y, 0));
+                continue;
+            }
+
+            curve.decompress(compressed, y, 0);
+            assertArrayEquals(bytes(curve, expected.getAffineY()), y);
+            points++;
+        }
+
+        assertEquals(true, points > 0);
+    }
+
+    static BigInteger element(ECCurve curve, Random random) {
+        return new BigInteger(curve.p.bitLength(), random).mod(curve.p);
+    }
+
+    static byte[] bytes(ECCurve curve, BigInteger value) {
+        return DidKeyJwkMethodProvider.normalize(value.toByteArray(), curve.length);
+    }
+
+    static BigInteger value(PrimeField field, long[] limbs) {
+        final byte[] bytes = new byte[field.length];
+        field.encode(limbs, bytes, 0);
+        return new BigInteger(1, bytes);
+    }
+
+    static Stream<String> curves() {
+        return Stream.of("secp256r1", "secp384r1", "secp256k1");
+    }
+}